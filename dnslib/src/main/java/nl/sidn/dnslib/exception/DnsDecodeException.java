@@ -8,5 +8,9 @@ public class DnsDecodeException extends RuntimeException{
 	public DnsDecodeException(String msg){
 		super(msg);
 	}
+	
+	public DnsDecodeException(String msg, Throwable cause){
+		super(msg, cause);
+	}
 
 }
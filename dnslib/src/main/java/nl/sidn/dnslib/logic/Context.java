@@ -1,17 +1,217 @@
 package nl.sidn.dnslib.logic;
 
+import java.lang.ref.Reference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import nl.sidn.dnslib.logic.unbound.UnboundLibrary;
 
+import org.apache.log4j.Logger;
 import org.bridj.Pointer;
 
-public class Context {
-	
-	private Pointer<UnboundLibrary.ub_ctx> ctx = UnboundLibrary.ub_ctx_create();
+import com.google.common.base.FinalizablePhantomReference;
+import com.google.common.base.FinalizableReferenceQueue;
+
+/**
+ * A libunbound context, the context must be closed to free the native resources.
+ * When a context is garbage collected without being closed it is deleted by a
+ * background thread as a safety net, this is logged and counted as a leak
+ * (see {@link NativeResources#getLeakedContexts()}).
+ */
+public class Context implements AutoCloseable {
+
+	private static final Logger LOGGER = Logger.getLogger(Context.class);
+
+	private static final FinalizableReferenceQueue REFERENCE_QUEUE = new FinalizableReferenceQueue();
+	//the references must be reachable until they have been enqueued
+	private static final Set<Reference<?>> REFERENCES = Collections.newSetFromMap(new ConcurrentHashMap<Reference<?>, Boolean>());
+
+	//the state must not refer to the context, otherwise the context is never collected
+	private final State state;
+	private final Reference<Context> cleanup;
+
+	public Context() {
+		Pointer<UnboundLibrary.ub_ctx> ctx = UnboundLibrary.ub_ctx_create();
+		if(ctx == null){
+			throw new RuntimeException("Unable to create libunbound context");
+		}
+		NativeResources.contextCreated();
+
+		state = new State(ctx);
+		cleanup = new Cleanup(this, state);
+		REFERENCES.add(cleanup);
+	}
 
+	/**
+	 * @return the context or null if the context has been closed, use
+	 * {@link #acquireCtx()} for a lookup which may run while the context is closed
+	 */
 	public Pointer<UnboundLibrary.ub_ctx> getCtx() {
-		return ctx;
+		return state.ctx;
+	}
+
+	/**
+	 * Get the context for a lookup, the context is not deleted before
+	 * {@link #releaseCtx()} has been called.
+	 * @return the context or null if the context has been closed
+	 */
+	Pointer<UnboundLibrary.ub_ctx> acquireCtx() {
+		return state.acquire();
+	}
+
+	/**
+	 * The lookup which called {@link #acquireCtx()} has finished.
+	 */
+	void releaseCtx() {
+		state.release();
+	}
+
+	public boolean isClosed() {
+		return state.ctx == null;
+	}
+
+	/**
+	 * @return the event loop of this context, all resolvers which use this
+	 * context share the loop
+	 */
+	ResolverLoop getLoop() {
+		return state.getLoop();
+	}
+
+	/**
+	 * Stop the event loop of the async lookups and delete the context, new lookups
+	 * are rejected. The context is deleted when the lookups which are still running
+	 * have finished, by the thread of the last lookup. When called by a listener of
+	 * an async lookup, on the loop thread, the context is deleted by the loop thread
+	 * after the callback has returned.
+	 */
+	@Override
+	public void close() {
+		state.close(false);
+		REFERENCES.remove(cleanup);
+		cleanup.clear();
+	}
+
+	/**
+	 * Deletes the context after it has been garbage collected, a static class
+	 * because an inner class would keep the context reachable.
+	 */
+	private static class Cleanup extends FinalizablePhantomReference<Context> {
+
+		private final State state;
+
+		public Cleanup(Context referent, State state) {
+			super(referent, REFERENCE_QUEUE);
+			this.state = state;
+		}
+
+		@Override
+		public void finalizeReferent() {
+			REFERENCES.remove(this);
+			if(state.close(true)){
+				LOGGER.warn("libunbound context was not closed, deleted after garbage collection");
+			}
+		}
+	}
+
+	/**
+	 * Native resources of the context, used by close() and by the safety net.
+	 */
+	static class State {
+
+		private volatile Pointer<UnboundLibrary.ub_ctx> ctx;
+		//event loop for the async lookups, created on first use
+		private ResolverLoop loop;
+		//number of lookups which use the context now
+		private int inUse;
+		//deletes the context after the last lookup, set when closed while lookups are running
+		private Runnable delete;
+
+		public State(Pointer<UnboundLibrary.ub_ctx> ctx) {
+			this.ctx = ctx;
+		}
+
+		public synchronized ResolverLoop getLoop() {
+			if(ctx == null){
+				throw new IllegalStateException("Context has been closed");
+			}
+			if(loop == null){
+				loop = new ResolverLoop(ctx, this);
+			}
+			return loop;
+		}
+
+		/**
+		 * @return the context or null if it has been closed, call {@link #release()}
+		 * when the lookup has finished
+		 */
+		synchronized Pointer<UnboundLibrary.ub_ctx> acquire() {
+			if(ctx == null){
+				return null;
+			}
+			inUse++;
+			return ctx;
+		}
+
+		void release() {
+			Runnable run;
+			synchronized (this) {
+				inUse--;
+				if(inUse > 0 || delete == null){
+					return;
+				}
+				run = delete;
+				delete = null;
+			}
+			run.run();
+		}
+
+		/**
+		 * @return true if the context was deleted, false if it had already been closed
+		 */
+		public boolean close(boolean leaked) {
+			final Pointer<UnboundLibrary.ub_ctx> deleted;
+			ResolverLoop stopped;
+			//the loop is stopped without the lock, the loop thread may acquire the context
+			synchronized (this) {
+				if(ctx == null){
+					return false;
+				}
+				deleted = ctx;
+				ctx = null;
+				stopped = loop;
+				loop = null;
+			}
+
+			final boolean leak = leaked;
+			final Runnable delete = new Runnable() {
+				@Override
+				public void run() {
+					UnboundLibrary.ub_ctx_delete(deleted);
+					NativeResources.contextDeleted(leak);
+				}
+			};
+			Runnable deleteWhenUnused = new Runnable() {
+				@Override
+				public void run() {
+					synchronized (State.this) {
+						if(inUse > 0){
+							State.this.delete = delete;
+							return;
+						}
+					}
+					delete.run();
+				}
+			};
+			//the loop must stop using the context before it is deleted
+			if(stopped != null){
+				stopped.stop(deleteWhenUnused);
+			}else{
+				deleteWhenUnused.run();
+			}
+			return true;
+		}
 	}
-	
-	
 
 }
@@ -0,0 +1,20 @@
+package nl.sidn.dnslib.logic;
+
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+/**
+ * Synchronous lookup, implemented by the resolvers and by the layers which can
+ * be put in front of a resolver, such as {@link ResolverCache}.
+ */
+public interface LookupService {
+
+	/**
+	 * @param qName name to resolve
+	 * @param qType type of the question
+	 * @param qClazz class of the question
+	 * @param decode true to decode the answer packet into a Message
+	 * @return the result, check {@link LookupResult#isOk()} for errors
+	 */
+	LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode);
+}
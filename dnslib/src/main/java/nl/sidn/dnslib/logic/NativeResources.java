@@ -0,0 +1,79 @@
+package nl.sidn.dnslib.logic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the native resources used by the resolvers, export these to
+ * the metrics of the application to detect leaks. The counters of outstanding
+ * resources go back to 0 when all contexts have been closed.
+ */
+public final class NativeResources {
+
+	private static final AtomicLong BYTES = new AtomicLong();
+	private static final AtomicLong RESULTS = new AtomicLong();
+	private static final AtomicLong CONTEXTS = new AtomicLong();
+	private static final AtomicLong LEAKED_CONTEXTS = new AtomicLong();
+
+	private NativeResources() {
+	}
+
+	/**
+	 * @return bytes of native memory allocated for lookups which has not been freed,
+	 * the names, pointers and answer packets of the lookups in progress
+	 */
+	public static long getBytes() {
+		return BYTES.get();
+	}
+
+	/**
+	 * @return number of ub_result structs which have not been freed
+	 */
+	public static long getResults() {
+		return RESULTS.get();
+	}
+
+	/**
+	 * @return number of contexts which have not been deleted
+	 */
+	public static long getContexts() {
+		return CONTEXTS.get();
+	}
+
+	/**
+	 * @return number of contexts which were not closed but deleted after they
+	 * had been garbage collected
+	 */
+	public static long getLeakedContexts() {
+		return LEAKED_CONTEXTS.get();
+	}
+
+	static void allocated(long bytes) {
+		BYTES.addAndGet(bytes);
+	}
+
+	static void freed(long bytes) {
+		BYTES.addAndGet(-bytes);
+	}
+
+	static void resultReceived(long bytes) {
+		RESULTS.incrementAndGet();
+		BYTES.addAndGet(bytes);
+	}
+
+	static void resultFreed(long bytes) {
+		RESULTS.decrementAndGet();
+		BYTES.addAndGet(-bytes);
+	}
+
+	static void contextCreated() {
+		CONTEXTS.incrementAndGet();
+	}
+
+	static void contextDeleted(boolean leaked) {
+		CONTEXTS.decrementAndGet();
+		if (leaked) {
+			LEAKED_CONTEXTS.incrementAndGet();
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package nl.sidn.dnslib.logic;
+
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+/**
+ * Question of a lookup, names which only differ in case or a trailing dot
+ * are the same question. Only the ASCII letters are case insensitive (RFC 4343),
+ * the same as ResolverPool.indexOf, so the default locale does not matter.
+ */
+class QuestionKey {
+
+	private final String qName;
+	private final ResourceRecordType qType;
+	private final ResourceRecordClass qClazz;
+
+	public QuestionKey(String qName, ResourceRecordType qType, ResourceRecordClass qClazz) {
+		int length = qName.length();
+		if (length > 1 && qName.charAt(length - 1) == '.') {
+			length--;
+		}
+		char[] name = new char[length];
+		for (int i = 0; i < length; i++) {
+			char c = qName.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				c = (char) (c + ('a' - 'A'));
+			}
+			name[i] = c;
+		}
+		this.qName = new String(name);
+		this.qType = qType;
+		this.qClazz = qClazz;
+	}
+
+	@Override
+	public int hashCode() {
+		return (qName.hashCode() * 31 + qType.hashCode()) * 31 + qClazz.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof QuestionKey)) {
+			return false;
+		}
+		QuestionKey other = (QuestionKey) obj;
+		return qType == other.qType && qClazz == other.qClazz && qName.equals(other.qName);
+	}
+}
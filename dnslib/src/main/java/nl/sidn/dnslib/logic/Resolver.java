@@ -8,37 +8,118 @@ import nl.sidn.dnslib.types.RcodeType;
 import nl.sidn.dnslib.types.ResourceRecordClass;
 import nl.sidn.dnslib.types.ResourceRecordType;
 
+import org.bridj.BridJ;
 import org.bridj.Pointer;
 
-public class Resolver {
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Resolver which uses libunbound, close the resolver to delete the context.
+ */
+public class Resolver implements LookupService, AutoCloseable {
+	
+	private static final long RESULT_STRUCT_SIZE = BridJ.sizeOf(ub_result.class);
 	
-	private Pointer<UnboundLibrary.ub_ctx> ctx;
+	private Context context;
 		
 	public Resolver(){
-		ctx = UnboundLibrary.ub_ctx_create();
 		//start with iterator only
 		ResolverContextBuilder builder =  new ResolverContextBuilder();
-		ctx = builder.withIterator().build().getCtx();
+		context = builder.withIterator().build();
 		
 	}
 	
+	/**
+	 * @param ctx the context, closing the resolver also closes the context
+	 */
 	public Resolver(Context ctx){
-		this.ctx = ctx.getCtx();
+		this.context = ctx;
 	}
 	
 
+	@Override
 	public LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode ){
-
+		Pointer<UnboundLibrary.ub_ctx> ctx = context.acquireCtx();
+		if(ctx == null){
+			throw new IllegalStateException("Resolver has been closed");
+		}
+		try{
+			return lookup(ctx, qName, qType, qClazz, decode);
+		}finally{
+			//a close while ub_resolve was running deletes the context now
+			context.releaseCtx();
+		}
+	}
+	
+	private LookupResult lookup(Pointer<UnboundLibrary.ub_ctx> ctx, String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode){
 		Pointer<Byte> name = Pointer.pointerToCString(qName);
-
 		Pointer<Pointer<ub_result>> result = Pointer.allocatePointer(ub_result.class);
-		int status = UnboundLibrary.ub_resolve(ctx, name, qType.getValue(), qClazz.getValue(), result);
-				
-		//UnboundLibrary.ub_ctx_delete(ctx);
-		 
+		long allocated = nameSize(qName) + Pointer.SIZE;
+		NativeResources.allocated(allocated);
+		try{
+			int status = UnboundLibrary.ub_resolve(ctx, name, qType.getValue(), qClazz.getValue(), result);
+			
+			Pointer<ub_result> ubr = result.get();
+			if(ubr == null){
+				return createLookupResult(status, null, decode);
+			}
+			//the fields are copied, the result is freed right away
+			long resultSize = resultSize(ubr.get());
+			NativeResources.resultReceived(resultSize);
+			try{
+				return createLookupResult(status, ubr.get(), decode);
+			}finally{
+				UnboundLibrary.ub_resolve_free(ubr);
+				NativeResources.resultFreed(resultSize);
+			}
+		}finally{
+			name.release();
+			result.release();
+			NativeResources.freed(allocated);
+		}
+	}
+	
+	/**
+	 * @return bytes of the zero terminated name, names are ascii
+	 */
+	static long nameSize(String qName){
+		return qName.length() + 1;
+	}
+	
+	/**
+	 * @return bytes of the ub_result struct and the answer packet
+	 */
+	static long resultSize(ub_result ubr){
+		return RESULT_STRUCT_SIZE + ubr.answer_len();
+	}
+	
+	/**
+	 * Resolve the name without blocking, the queries of all resolvers which use the
+	 * same context are processed by a single event loop thread, so one context can
+	 * have many queries in flight.
+	 * 
+	 * The future is completed on the event loop thread, listeners which do more than
+	 * a little work should be added with an executor. Cancelling the future cancels
+	 * the query in libunbound.
+	 * 
+	 * The first async lookup of a context configures libunbound to use a thread
+	 * instead of a process for the background work, this only works when there
+	 * have been no lookups with the context before.
+	 */
+	public ListenableFuture<LookupResult> lookupAsync(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode){
+		return context.getLoop().submit(qName, qType, qClazz, decode);
+	}
+	
+	/**
+	 * Copy the result of libunbound into a LookupResult
+	 * @param status status of the lookup, 0 if OK
+	 * @param ubr result of libunbound, may be null if the status is an error
+	 */
+	static LookupResult createLookupResult(int status, ub_result ubr, boolean decode){
 		LookupResult lr = new LookupResult();
-		ub_result ubr = result.get().get();
-		lr.setRcode(RcodeType.fromValue(ubr.rcode()));		
+		if(ubr != null){
+			lr.setRcode(RcodeType.fromValue(ubr.rcode()));
+		}
 		if(status == 0){
 			lr.setOk(true);
 			/* lookup was successful, get the result */
@@ -90,10 +171,20 @@ public class Resolver {
 		
 	}
 	
+	/**
+	 * Close the context, new lookups are rejected and the async lookups in progress
+	 * are cancelled. The context is deleted when the synchronous lookups in progress
+	 * have finished.
+	 */
+	@Override
+	public void close(){
+		context.close();
+	}
+	
+	/**
+	 * @see #close()
+	 */
 	public void cleanup(){
-		if(ctx != null){
-			UnboundLibrary.ub_ctx_delete(ctx);
-			ctx = null;
-		}
+		close();
 	}
 }
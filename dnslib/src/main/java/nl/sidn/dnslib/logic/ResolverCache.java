@@ -0,0 +1,230 @@
+package nl.sidn.dnslib.logic;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.RRset;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.SOAResourceRecord;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.RcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * Answer cache in front of a resolver, a hit does not cross into libunbound
+ * and does not decode the packet again.
+ *
+ * An answer is cached for the lowest ttl of the rrs in the answer section. Negative
+ * answers (NXDOMAIN and NODATA) are cached for the lowest of the ttl and the
+ * minimum field of the SOA in the authority section (RFC 2308), negative answers
+ * without a SOA are not cached. Errors and bogus answers are never cached.
+ *
+ * The cached results are shared by all callers and must not be modified, the ttls
+ * of the rrs are the ttls of the original answer and are not decremented.
+ */
+public class ResolverCache implements LookupService {
+
+	/**
+	 * Default max time an answer is cached, in seconds
+	 */
+	public static final long DEFAULT_MAX_TTL = 86400;
+
+	private final LookupService resolver;
+	private final Cache<QuestionKey, Entry> cache;
+	private final Ticker ticker;
+	private final long maxTtl;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * @param resolver resolver for the lookups which are not in the cache
+	 * @param maximumSize max number of answers in the cache
+	 */
+	public ResolverCache(LookupService resolver, long maximumSize) {
+		this(resolver, maximumSize, DEFAULT_MAX_TTL, Ticker.systemTicker());
+	}
+
+	/**
+	 * @param resolver resolver for the lookups which are not in the cache
+	 * @param maximumSize max number of answers in the cache
+	 * @param maxTtl max time an answer is cached, in seconds
+	 * @param ticker time source of the expiration
+	 */
+	public ResolverCache(LookupService resolver, long maximumSize, long maxTtl, Ticker ticker) {
+		if (maxTtl < 1) {
+			throw new IllegalArgumentException("Invalid max ttl: " + maxTtl);
+		}
+		this.resolver = resolver;
+		this.maxTtl = maxTtl;
+		this.ticker = ticker;
+		//Guava has no ttl per entry, the max ttl is an upper bound and every entry is checked on lookup
+		cache = CacheBuilder.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(maxTtl, TimeUnit.SECONDS)
+				.ticker(ticker)
+				.removalListener(new RemovalListener<QuestionKey, Entry>() {
+					@Override
+					public void onRemoval(RemovalNotification<QuestionKey, Entry> notification) {
+						switch (notification.getCause()) {
+						case SIZE:
+							evictions.incrementAndGet();
+							break;
+						case EXPIRED:
+							expirations.incrementAndGet();
+							break;
+						default:
+							break;
+						}
+					}
+				})
+				.build();
+	}
+
+	/**
+	 * The answer is always decoded, also when decode is false, because the ttl
+	 * is needed for caching.
+	 */
+	@Override
+	public LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+		QuestionKey key = new QuestionKey(qName, qType, qClazz);
+		Entry entry = cache.getIfPresent(key);
+		if (entry != null) {
+			if (ticker.read() - entry.expiresAt < 0) {
+				hits.incrementAndGet();
+				return entry.result;
+			}
+			if (cache.asMap().remove(key, entry)) {
+				expirations.incrementAndGet();
+			}
+		}
+		misses.incrementAndGet();
+
+		LookupResult result = resolver.lookup(qName, qType, qClazz, true);
+		if (result.isOk() && result.getPacket() == null && result.getDatapacket() != null) {
+			Message msg = new Message();
+			msg.decode(new NetworkData(result.getDatapacket()));
+			result.setPacket(msg);
+		}
+
+		long ttl = ttlOf(result);
+		if (ttl > 0) {
+			//the message is shared by the threads which get a hit
+			result.getPacket().decodeFully();
+			cache.put(key, new Entry(result, ticker.read() + TimeUnit.SECONDS.toNanos(ttl)));
+		}
+		return result;
+	}
+
+	/**
+	 * @return seconds the result may be cached, 0 if it must not be cached
+	 */
+	private long ttlOf(LookupResult result) {
+		Message msg = result.getPacket();
+		if (!result.isOk() || result.isBogus() || msg == null) {
+			return 0;
+		}
+		//the rcode of libunbound, the header decoder does not know all rcodes
+		RcodeType rcode = result.getRcode() != null ? result.getRcode() : msg.getHeader().getRcode();
+		if (rcode != RcodeType.NO_ERROR && rcode != RcodeType.NXDOMAIN) {
+			return 0;
+		}
+
+		long ttl = -1;
+		if (rcode == RcodeType.NO_ERROR) {
+			ttl = minTtl(msg.getAnswer());
+		}
+		if (ttl < 0) {
+			//NXDOMAIN or NODATA, use the SOA of the authority section
+			for (RRset rrset : msg.getAuthority()) {
+				for (ResourceRecord rr : rrset.getAll()) {
+					if (rr instanceof SOAResourceRecord) {
+						long negative = Math.min(rr.getTtl(), ((SOAResourceRecord) rr).getMinimum());
+						ttl = ttl < 0 ? negative : Math.min(ttl, negative);
+					}
+				}
+			}
+		}
+		return ttl < 0 ? 0 : Math.min(ttl, maxTtl);
+	}
+
+	/**
+	 * @return lowest ttl of the rrs in the section or -1 if the section is empty
+	 */
+	private static long minTtl(List<RRset> section) {
+		long ttl = -1;
+		for (RRset rrset : section) {
+			for (ResourceRecord rr : rrset.getAll()) {
+				ttl = ttl < 0 ? rr.getTtl() : Math.min(ttl, rr.getTtl());
+			}
+		}
+		return ttl;
+	}
+
+	/**
+	 * @return number of lookups answered from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of lookups sent to the resolver
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of answers removed because the cache was full
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return number of answers removed because the ttl had expired
+	 */
+	public long getExpirations() {
+		return expirations.get();
+	}
+
+	/**
+	 * @return number of answers in the cache, including expired answers which
+	 * have not been removed yet
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Remove all answers from the cache.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	private static class Entry {
+
+		private final LookupResult result;
+		//ticker time in nanos
+		private final long expiresAt;
+
+		public Entry(LookupResult result, long expiresAt) {
+			this.result = result;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
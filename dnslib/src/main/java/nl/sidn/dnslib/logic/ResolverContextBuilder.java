@@ -1,11 +1,19 @@
 package nl.sidn.dnslib.logic;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import nl.sidn.dnslib.logic.unbound.UnboundLibrary;
 import nl.sidn.dnslib.trustanchor.TrustAnchor;
 import nl.sidn.dnslib.trustanchor.TrustAnchorService;
 
 import org.bridj.Pointer;
 
+/**
+ * Builder for the libunbound context of a resolver. The settings are recorded and
+ * applied to a new context by every call to {@link #build()}, so one builder can
+ * create multiple contexts with the same settings (see {@link ResolverPool}).
+ */
 public class ResolverContextBuilder {
 	
 	private static TrustAnchor ta;
@@ -15,7 +23,11 @@ public class ResolverContextBuilder {
 		init();
 	}
 	
-	private Context ctx = new Context();
+	//libunbound options in the order they have been set
+	private Map<String, String> options = new LinkedHashMap<>();
+	private int debugLevel = -1;
+	private boolean trustAnchor;
+	private String forwardingServer;
 	
 	private static synchronized void init() {
 		if(ta == null){
@@ -37,13 +49,13 @@ public class ResolverContextBuilder {
 	
 	public ResolverContextBuilder withDebug(DEBUGMODE mode) {
 		if(mode == DEBUGMODE.OFF){
-			UnboundLibrary.ub_ctx_debuglevel(ctx.getCtx(), 0);
+			debugLevel = 0;
 		}else if(mode == DEBUGMODE.MINIMAL){
-			UnboundLibrary.ub_ctx_debuglevel(ctx.getCtx(), 1);
+			debugLevel = 1;
 		}else if(mode == DEBUGMODE.VERBOSE){
-			UnboundLibrary.ub_ctx_debuglevel(ctx.getCtx(), 2);
+			debugLevel = 2;
 		}else if(mode == DEBUGMODE.EXTREME){
-			UnboundLibrary.ub_ctx_debuglevel(ctx.getCtx(), 3);
+			debugLevel = 3;
 		}
 		
 		addOption("logfile:", "/var/log/libunbound.log");
@@ -52,21 +64,14 @@ public class ResolverContextBuilder {
 	}
 	
 	private void addOption(String option, String value){
-		int status = UnboundLibrary.ub_ctx_set_option(ctx.getCtx(), Pointer.pointerToCString(option), Pointer.pointerToCString(value));
-		if (status != 0) {
-			throw new RuntimeException("Unable to add option to libunbound");
-		}
+		//an option which is set again keeps its position, the last value is used
+		options.put(option, value);
 	}
 	
 	public ResolverContextBuilder withDnsSecEnabled(){
 		addOption("module-config:", "validator iterator");
 		addOption("edns-buffer-size:", "4096");
-		
-		int status = UnboundLibrary.ub_ctx_add_ta(ctx.getCtx(), Pointer.pointerToCString(ds));
-		if (status != 0) {
-			throw new RuntimeException("Unable to add trust anchor to libunbound");
-		}
-		
+		trustAnchor = true;
 		return this;
 	}
 	
@@ -86,16 +91,51 @@ public class ResolverContextBuilder {
 	}
 	
 	public ResolverContextBuilder withForwardingServer(String fwd){
-		int status = UnboundLibrary.ub_ctx_set_fwd(ctx.getCtx(), Pointer.pointerToCString(fwd));
-		if (status != 0) {
-			throw new RuntimeException("Unable to set forwarding server for libunbound");
-		}
+		forwardingServer = fwd;
 		return this;
 	}
 	
+	/**
+	 * @return a new context with the settings of this builder
+	 * @throws RuntimeException when libunbound does not accept a setting
+	 */
 	public Context build(){
+		Context ctx = new Context();
+		try{
+			configure(ctx);
+		}catch(RuntimeException e){
+			ctx.close();
+			throw e;
+		}
 		return ctx;
 	}
+	
+	private void configure(Context ctx){
+		if(debugLevel != -1){
+			UnboundLibrary.ub_ctx_debuglevel(ctx.getCtx(), debugLevel);
+		}
+		
+		for (Map.Entry<String, String> option : options.entrySet()) {
+			int status = UnboundLibrary.ub_ctx_set_option(ctx.getCtx(), Pointer.pointerToCString(option.getKey()), Pointer.pointerToCString(option.getValue()));
+			if (status != 0) {
+				throw new RuntimeException("Unable to add option to libunbound");
+			}
+		}
+		
+		if(trustAnchor){
+			int status = UnboundLibrary.ub_ctx_add_ta(ctx.getCtx(), Pointer.pointerToCString(ds));
+			if (status != 0) {
+				throw new RuntimeException("Unable to add trust anchor to libunbound");
+			}
+		}
+		
+		if(forwardingServer != null){
+			int status = UnboundLibrary.ub_ctx_set_fwd(ctx.getCtx(), Pointer.pointerToCString(forwardingServer));
+			if (status != 0) {
+				throw new RuntimeException("Unable to set forwarding server for libunbound");
+			}
+		}
+	}
 
 
 }
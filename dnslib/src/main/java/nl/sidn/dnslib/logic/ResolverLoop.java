@@ -0,0 +1,278 @@
+package nl.sidn.dnslib.logic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nl.sidn.dnslib.logic.unbound.CLibrary;
+import nl.sidn.dnslib.logic.unbound.UnboundLibrary;
+import nl.sidn.dnslib.logic.unbound.ub_result;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.apache.log4j.Logger;
+import org.bridj.Pointer;
+import org.bridj.PointerIO;
+
+import com.google.common.util.concurrent.AbstractFuture;
+
+/**
+ * Event loop for the asynchronous lookups of a context. The queries are sent with
+ * ub_resolve_async from the thread which calls {@link #submit}, a single loop
+ * thread waits until the file descriptor of the context (ub_fd) is readable and
+ * calls ub_process, which calls the callback for every result that has arrived.
+ *
+ * All queries share one native callback, the id of the query is passed as the
+ * callback data and is used to find the future of the query.
+ *
+ * The futures are completed on the loop thread, listeners which do more than a
+ * little work should be added with an executor.
+ */
+class ResolverLoop implements Runnable {
+
+	private static final Logger LOGGER = Logger.getLogger(ResolverLoop.class);
+
+	//max time the loop waits for the fd, to check if the loop has been stopped
+	private static final int POLL_TIMEOUT = 100;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final Pointer<UnboundLibrary.ub_ctx> ctx;
+	//the context is deleted after the loop has stopped and the other threads have released it
+	private final Context.State state;
+	private final Pointer<Byte> pollfd;
+	private final ConcurrentMap<Long, AsyncLookup> pending = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+
+	//the native callback must not be garbage collected while the loop is running
+	private final UnboundLibrary.ub_callback_t callback = new ResultCallback();
+	private final Pointer<UnboundLibrary.ub_callback_t> callbackPointer;
+
+	private final Thread thread;
+	private volatile boolean running = true;
+	//run by the loop thread when it exits, when the loop was stopped by the loop thread
+	private Runnable afterStop;
+
+	public ResolverLoop(Pointer<UnboundLibrary.ub_ctx> ctx, Context.State state) {
+		this.ctx = ctx;
+		this.state = state;
+
+		/* use a thread for the background work of the async queries instead of
+		 * a forked process. This fails when the context is already finalized by
+		 * a lookup, unbound then keeps using a process.
+		 */
+		int status = UnboundLibrary.ub_ctx_async(ctx, 1);
+		if (status != 0) {
+			LOGGER.debug("Cannot use a thread for async lookups: " + UnboundLibrary.ub_strerror(status).getCString());
+		}
+
+		int fd = UnboundLibrary.ub_fd(ctx);
+		if (fd == -1) {
+			throw new RuntimeException("Unable to get the file descriptor of the libunbound context");
+		}
+		pollfd = Pointer.allocateBytes(CLibrary.POLLFD_SIZE);
+		pollfd.setInt(fd);
+		pollfd.offset(CLibrary.POLLFD_EVENTS_OFFSET).setShort(CLibrary.POLLIN);
+
+		callbackPointer = Pointer.pointerTo(callback);
+
+		thread = new Thread(this, "unbound-loop-" + THREAD_COUNT.incrementAndGet());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Send the query, the future is completed by the loop thread.
+	 */
+	public AsyncLookup submit(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+		Pointer<UnboundLibrary.ub_ctx> ctx = running ? state.acquire() : null;
+		if (ctx == null) {
+			throw new IllegalStateException("Resolver has been closed");
+		}
+		try {
+			AsyncLookup lookup = submit(ctx, qName, qType, qClazz, decode);
+			if (!running) {
+				//stopped while sending, the pending lookups may already have been cancelled
+				lookup.cancel(false);
+			}
+			return lookup;
+		} finally {
+			state.release();
+		}
+	}
+
+	private AsyncLookup submit(Pointer<UnboundLibrary.ub_ctx> ctx, String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+		//the id is passed as a pointer, start at 1 because 0 is NULL
+		long id = ids.incrementAndGet();
+		AsyncLookup lookup = new AsyncLookup(id, decode);
+		pending.put(id, lookup);
+
+		Pointer<Byte> name = Pointer.pointerToCString(qName);
+		Pointer<Integer> asyncId = Pointer.allocateInt();
+		long allocated = Resolver.nameSize(qName) + 4;
+		NativeResources.allocated(allocated);
+		try {
+			int status = UnboundLibrary.ub_resolve_async(ctx, name, qType.getValue(), qClazz.getValue(),
+					Pointer.pointerToAddress(id, PointerIO.getByteInstance()), callbackPointer, asyncId);
+			if (status != 0) {
+				pending.remove(id);
+				lookup.complete(Resolver.createLookupResult(status, null, false));
+			} else {
+				lookup.asyncId = asyncId.getInt();
+			}
+		} finally {
+			//unbound has copied the name
+			name.release();
+			asyncId.release();
+			NativeResources.freed(allocated);
+		}
+		return lookup;
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			int ready = CLibrary.poll(pollfd, 1, POLL_TIMEOUT);
+			if (ready > 0) {
+				int status = UnboundLibrary.ub_process(ctx);
+				if (status != 0) {
+					LOGGER.error("Error while processing async results: " + UnboundLibrary.ub_strerror(status).getCString());
+				}
+			} else if (ready < 0) {
+				//e.g. interrupted by a signal, do not spin when the error persists
+				LOGGER.error("Error while waiting for async results");
+				try {
+					Thread.sleep(POLL_TIMEOUT);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		if (afterStop != null) {
+			pollfd.release();
+			afterStop.run();
+		}
+	}
+
+	/**
+	 * @return number of queries without a result
+	 */
+	public int getPending() {
+		return pending.size();
+	}
+
+	/**
+	 * Stop the loop thread and cancel the queries without a result.
+	 *
+	 * When called by a listener on the loop thread the loop cannot be joined,
+	 * ub_process is still running. The loop then exits when the callback has
+	 * returned and runs afterStop on the loop thread.
+	 * @param afterStop run when the loop has stopped, e.g. to delete the context
+	 */
+	public void stop(Runnable afterStop) {
+		running = false;
+		if (Thread.currentThread() == thread) {
+			this.afterStop = afterStop;
+			cancelPending();
+			return;
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		cancelPending();
+		pollfd.release();
+		afterStop.run();
+	}
+
+	private void cancelPending() {
+		for (AsyncLookup lookup : pending.values()) {
+			lookup.cancel(false);
+		}
+	}
+
+	private void cancel(AsyncLookup lookup) {
+		if (pending.remove(lookup.id) == null) {
+			return;
+		}
+		Pointer<UnboundLibrary.ub_ctx> ctx = state.acquire();
+		if (ctx == null) {
+			//closed, deleting the context drops the query
+			return;
+		}
+		try {
+			int status = UnboundLibrary.ub_cancel(ctx, lookup.asyncId);
+			if (status != 0) {
+				//the result has already been delivered, the callback frees it
+				LOGGER.debug("Cannot cancel async lookup: " + UnboundLibrary.ub_strerror(status).getCString());
+			}
+		} finally {
+			state.release();
+		}
+	}
+
+	/**
+	 * Called by ub_process on the loop thread, exceptions must not be thrown into
+	 * the native code.
+	 */
+	private class ResultCallback extends UnboundLibrary.ub_callback_t {
+
+		@Override
+		public void apply(Pointer<?> mydata, int err, Pointer<ub_result> result) {
+			long resultSize = result == null ? 0 : Resolver.resultSize(result.get());
+			if (result != null) {
+				NativeResources.resultReceived(resultSize);
+			}
+			try {
+				AsyncLookup lookup = pending.remove(mydata.getPeer());
+				if (lookup != null && !lookup.isDone()) {
+					try {
+						lookup.complete(Resolver.createLookupResult(err, result == null ? null : result.get(), lookup.decode));
+					} catch (RuntimeException e) {
+						lookup.fail(e);
+					}
+				}
+			} finally {
+				if (result != null) {
+					UnboundLibrary.ub_resolve_free(result);
+					NativeResources.resultFreed(resultSize);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Future of an async lookup, cancelling the future cancels the query.
+	 */
+	class AsyncLookup extends AbstractFuture<LookupResult> {
+
+		private final long id;
+		private final boolean decode;
+		private volatile int asyncId;
+
+		private AsyncLookup(long id, boolean decode) {
+			this.id = id;
+			this.decode = decode;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			if (!super.cancel(mayInterruptIfRunning)) {
+				return false;
+			}
+			ResolverLoop.this.cancel(this);
+			return true;
+		}
+
+		private void complete(LookupResult result) {
+			set(result);
+		}
+
+		private void fail(Throwable t) {
+			setException(t);
+		}
+	}
+
+}
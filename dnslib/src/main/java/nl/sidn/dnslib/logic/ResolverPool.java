@@ -0,0 +1,166 @@
+package nl.sidn.dnslib.logic;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Pool of resolvers, each with its own libunbound context created with the same
+ * {@link ResolverContextBuilder} settings. Lookups on different contexts do not
+ * wait for each other, so the throughput scales with the number of contexts.
+ *
+ * A query is routed to a context by the hash of the qname, the same name always
+ * goes to the same context so the cache of every context stays warm for its
+ * part of the names.
+ */
+public class ResolverPool implements LookupService, AutoCloseable {
+
+	//completes the queue depth bookkeeping on the thread which completes the lookup
+	private static final Executor SAME_THREAD = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	private final Resolver[] resolvers;
+	//number of lookups in progress per context
+	private final AtomicIntegerArray depth;
+
+	/**
+	 * @param builder settings of the contexts
+	 * @param size number of contexts
+	 */
+	public ResolverPool(ResolverContextBuilder builder, int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Invalid pool size: " + size);
+		}
+		resolvers = new Resolver[size];
+		try {
+			for (int i = 0; i < size; i++) {
+				resolvers[i] = new Resolver(builder.build());
+			}
+		} catch (RuntimeException e) {
+			//close the contexts which have been created
+			for (Resolver resolver : resolvers) {
+				if (resolver != null) {
+					resolver.close();
+				}
+			}
+			throw e;
+		}
+		depth = new AtomicIntegerArray(size);
+	}
+
+	/**
+	 * Create a pool with a context for every processor.
+	 */
+	public ResolverPool(ResolverContextBuilder builder) {
+		this(builder, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @see Resolver#lookup(String, ResourceRecordType, ResourceRecordClass, boolean)
+	 */
+	@Override
+	public LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+		int index = indexOf(qName);
+		depth.incrementAndGet(index);
+		try {
+			return resolvers[index].lookup(qName, qType, qClazz, decode);
+		} finally {
+			depth.decrementAndGet(index);
+		}
+	}
+
+	/**
+	 * @see Resolver#lookupAsync(String, ResourceRecordType, ResourceRecordClass, boolean)
+	 */
+	public ListenableFuture<LookupResult> lookupAsync(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+		final int index = indexOf(qName);
+		depth.incrementAndGet(index);
+		ListenableFuture<LookupResult> future;
+		try {
+			future = resolvers[index].lookupAsync(qName, qType, qClazz, decode);
+		} catch (RuntimeException e) {
+			depth.decrementAndGet(index);
+			throw e;
+		}
+		future.addListener(new Runnable() {
+			@Override
+			public void run() {
+				depth.decrementAndGet(index);
+			}
+		}, SAME_THREAD);
+		return future;
+	}
+
+	/**
+	 * @return index of the context for the name, names which only differ in
+	 * case or a trailing dot go to the same context
+	 */
+	public int indexOf(String qName) {
+		int length = qName.length();
+		if (length > 1 && qName.charAt(length - 1) == '.') {
+			length--;
+		}
+		int hash = 0;
+		for (int i = 0; i < length; i++) {
+			char c = qName.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				c = (char) (c + ('a' - 'A'));
+			}
+			hash = 31 * hash + c;
+		}
+		//spread the high bits, the pool is usually small
+		hash ^= (hash >>> 16);
+		return (hash & 0x7FFFFFFF) % resolvers.length;
+	}
+
+	/**
+	 * @return number of contexts
+	 */
+	public int getSize() {
+		return resolvers.length;
+	}
+
+	/**
+	 * @return number of lookups in progress on the context, waiting for a result
+	 */
+	public int getQueueDepth(int index) {
+		return depth.get(index);
+	}
+
+	/**
+	 * @return number of lookups in progress per context
+	 */
+	public int[] getQueueDepths() {
+		int[] depths = new int[resolvers.length];
+		for (int i = 0; i < depths.length; i++) {
+			depths[i] = depth.get(i);
+		}
+		return depths;
+	}
+
+	/**
+	 * Close all contexts, the pool cannot be used anymore.
+	 */
+	@Override
+	public void close() {
+		for (Resolver resolver : resolvers) {
+			resolver.close();
+		}
+	}
+
+	/**
+	 * @see #close()
+	 */
+	public void cleanup() {
+		close();
+	}
+
+}
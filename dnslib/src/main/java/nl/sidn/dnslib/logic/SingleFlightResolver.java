@@ -0,0 +1,133 @@
+package nl.sidn.dnslib.logic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Merges concurrent lookups of the same question into one lookup. The first
+ * thread which asks a question does the lookup, the threads which ask the same
+ * question before it has finished wait for that lookup and get the same result.
+ * Nothing is kept after the lookup has finished, put a {@link ResolverCache}
+ * in front of this resolver to reuse the answers.
+ *
+ * The result is shared by all waiting threads and must not be modified. When
+ * the first thread did not ask for a decoded answer, the threads which did
+ * decode their own copy of the packet.
+ */
+public class SingleFlightResolver implements LookupService {
+
+	private final LookupService resolver;
+	private final ConcurrentMap<QuestionKey, SettableFuture<LookupResult>> flights = new ConcurrentHashMap<>();
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong merged = new AtomicLong();
+
+	/**
+	 * @param resolver resolver which does the lookups
+	 */
+	public SingleFlightResolver(LookupService resolver) {
+		this.resolver = resolver;
+	}
+
+	@Override
+	public LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+		requests.incrementAndGet();
+		QuestionKey key = new QuestionKey(qName, qType, qClazz);
+		SettableFuture<LookupResult> flight = SettableFuture.create();
+		SettableFuture<LookupResult> existing = flights.putIfAbsent(key, flight);
+		if (existing != null) {
+			merged.incrementAndGet();
+			return await(existing, decode);
+		}
+
+		try {
+			LookupResult result = resolver.lookup(qName, qType, qClazz, decode);
+			if (result.getPacket() != null) {
+				//the message is shared by the waiting threads
+				result.getPacket().decodeFully();
+			}
+			flights.remove(key, flight);
+			flight.set(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			flights.remove(key, flight);
+			flight.setException(e);
+			throw e;
+		}
+	}
+
+	private LookupResult await(SettableFuture<LookupResult> flight, boolean decode) {
+		LookupResult result;
+		try {
+			result = Uninterruptibles.getUninterruptibly(flight);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("Lookup failed", e.getCause());
+		}
+		if (decode && result.getPacket() == null && result.getDatapacket() != null) {
+			return decodedCopy(result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return copy of the result with a decoded packet, the raw packet is shared
+	 */
+	private LookupResult decodedCopy(LookupResult result) {
+		LookupResult copy = new LookupResult();
+		copy.setqName(result.getqName());
+		copy.setqType(result.getqType());
+		copy.setqClazz(result.getqClazz());
+		copy.setCanconname(result.getCanconname());
+		copy.setRcode(result.getRcode());
+		copy.setDatapacket(result.getDatapacket());
+		copy.setDatapacketLength(result.getDatapacketLength());
+		copy.setHaveData(result.isHaveData());
+		copy.setNxDomain(result.isNxDomain());
+		copy.setSecure(result.isSecure());
+		copy.setBogus(result.isBogus());
+		copy.setWhyBogus(result.getWhyBogus());
+		copy.setStatus(result.getStatus());
+		copy.setOk(result.isOk());
+
+		Message msg = new Message();
+		msg.decode(new NetworkData(result.getDatapacket()));
+		copy.setPacket(msg);
+		return copy;
+	}
+
+	/**
+	 * @return number of lookups
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * @return number of lookups which waited for the lookup of another thread
+	 * instead of asking the resolver
+	 */
+	public long getMerged() {
+		return merged.get();
+	}
+
+	/**
+	 * @return number of questions which are being resolved now
+	 */
+	public int getInFlight() {
+		return flights.size();
+	}
+
+}
@@ -0,0 +1,282 @@
+package nl.sidn.dnslib.logic;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.MessageView;
+import nl.sidn.dnslib.message.Question;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecordFactory;
+import nl.sidn.dnslib.message.records.SOAResourceRecord;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.message.util.TcpFramer;
+import nl.sidn.dnslib.types.MessageType;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.RcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+import nl.sidn.dnslib.types.SectionType;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Zone transfer client (AXFR RFC 5936, IXFR RFC 1995), the records are passed to
+ * a {@link RecordHandler} as soon as the message which contains them has been
+ * received. Only one message is kept in memory at a time, so the memory used does
+ * not depend on the size of the zone.
+ *
+ * All records are passed to the handler in the order of the transfer, including
+ * the SOA records which start and end the transfer. For an incremental transfer
+ * the SOA records separate the deleted and added records of each difference sequence.
+ */
+public class ZoneTransferClient {
+
+	private static final Logger LOGGER = Logger.getLogger(ZoneTransferClient.class);
+
+	public static final int DEFAULT_PORT = 53;
+
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * Receives the records of the transfer.
+	 */
+	public interface RecordHandler {
+
+		void onRecord(ResourceRecord rr);
+	}
+
+	private final InetSocketAddress server;
+	private int timeout = 30000;
+	private ResourceRecordClass classz = ResourceRecordClass.IN;
+	private Random random = new Random();
+
+	public ZoneTransferClient(String host){
+		this(new InetSocketAddress(host, DEFAULT_PORT));
+	}
+
+	public ZoneTransferClient(InetSocketAddress server){
+		this.server = server;
+	}
+
+	/**
+	 * @param timeout connect timeout and max time to wait for data from the server in millis
+	 */
+	public ZoneTransferClient withTimeout(int timeout) {
+		this.timeout = timeout;
+		return this;
+	}
+
+	public ZoneTransferClient withClass(ResourceRecordClass classz) {
+		this.classz = classz;
+		return this;
+	}
+
+	/**
+	 * Transfer the complete zone.
+	 * @param zone name of the zone
+	 * @param handler receives the records
+	 * @return number of records received
+	 * @throws IOException when the connection fails or is closed before the end of the transfer
+	 * @throws DnsDecodeException when the server returns an error or an invalid response
+	 */
+	public long axfr(String zone, RecordHandler handler) throws IOException {
+		return transfer(zone, ResourceRecordType.AXFR, 0, handler);
+	}
+
+	/**
+	 * Transfer the changes since a version of the zone, the server may also
+	 * respond with the complete zone or with only the SOA when the zone has not changed.
+	 * @param zone name of the zone
+	 * @param serial serial of the version of the zone the client has
+	 * @param handler receives the records
+	 * @return number of records received
+	 * @throws IOException when the connection fails or is closed before the end of the transfer
+	 * @throws DnsDecodeException when the server returns an error or an invalid response
+	 */
+	public long ixfr(String zone, long serial, RecordHandler handler) throws IOException {
+		return transfer(zone, ResourceRecordType.IXFR, serial, handler);
+	}
+
+	private long transfer(String zone, ResourceRecordType type, long serial, RecordHandler handler) throws IOException {
+		char id = (char)random.nextInt(65536);
+		Transfer transfer = new Transfer(id, type, serial, handler);
+		TcpFramer framer = new TcpFramer(transfer);
+
+		try(Socket socket = new Socket()){
+			socket.setSoTimeout(timeout);
+			socket.connect(server, timeout);
+
+			OutputStream out = socket.getOutputStream();
+			out.write(createQuery(id, zone, type, serial));
+			out.flush();
+
+			InputStream in = socket.getInputStream();
+			byte[] chunk = new byte[READ_BUFFER_SIZE];
+			while(!transfer.done){
+				int length = in.read(chunk);
+				if(length == -1){
+					throw new EOFException("Connection closed after " + transfer.records + " records, before the end of the transfer");
+				}
+				framer.feed(chunk, 0, length);
+			}
+		}
+
+		LOGGER.debug("Transfer of " + zone + " done, records: " + transfer.records + " messages: " + transfer.messages);
+		return transfer.records;
+	}
+
+	/**
+	 * @return the query including the tcp length field
+	 */
+	private byte[] createQuery(char id, String zone, ResourceRecordType type, long serial) {
+		NetworkData buffer = new NetworkData(512);
+		//length field, filled in at the end
+		buffer.writeChar(0);
+
+		Header header = new Header();
+		header.setId(id);
+		header.setQr(MessageType.QUERY);
+		header.setOpCode(OpcodeType.STANDARD);
+		header.setRcode(RcodeType.NO_ERROR);
+		header.setQdCount((char)1);
+		if(type == ResourceRecordType.IXFR){
+			header.setNsCount((char)1);
+		}
+		header.encode(buffer);
+
+		/* compression pointers are relative to the start of the message, the length
+		 * field is not part of the message so write the names without compression.
+		 */
+		buffer.setNameCompression(false);
+		new Question(zone, type, classz).encode(buffer);
+
+		if(type == ResourceRecordType.IXFR){
+			//the authority section has the SOA of the version the client has (RFC 1995 3)
+			SOAResourceRecord soa = new SOAResourceRecord();
+			soa.setName(zone);
+			soa.setType(ResourceRecordType.SOA);
+			soa.setClassz(classz);
+			soa.setmName(".");
+			soa.setrName(".");
+			soa.setSerial(serial);
+			soa.encode(buffer);
+		}
+
+		buffer.writeChar(0, buffer.getWriterIndex() - 2);
+		return buffer.write();
+	}
+
+	/**
+	 * Decodes the messages of a transfer and finds the end of the transfer.
+	 */
+	private static class Transfer implements TcpFramer.FrameHandler {
+
+		private final char id;
+		private final ResourceRecordType type;
+		private final long clientSerial;
+		private final RecordHandler handler;
+
+		private long records;
+		private long messages;
+		private boolean done;
+
+		//serial of the first SOA, the transfer ends with a SOA with this serial
+		private long endSerial;
+		private boolean incremental;
+		//incremental transfer is in the added records part of a difference sequence
+		private boolean adding;
+
+		public Transfer(char id, ResourceRecordType type, long clientSerial, RecordHandler handler) {
+			this.id = id;
+			this.type = type;
+			this.clientSerial = clientSerial;
+			this.handler = handler;
+		}
+
+		@Override
+		public void onFrame(ByteBuffer frame) {
+			if(done){
+				//ignore anything after the end of the transfer
+				return;
+			}
+			messages++;
+
+			//the rrs are decoded completely, nothing refers to the frame after this call
+			NetworkData data = new NetworkData(frame);
+
+			MessageView view = new MessageView(data);
+			if(view.getId() != id){
+				throw new DnsDecodeException("Unexpected message id: " + (int)view.getId() + " expected: " + (int)id);
+			}
+			if(view.getRcode() != RcodeType.NO_ERROR.getValue()){
+				throw new DnsDecodeException("Transfer refused by server, rcode: " + RcodeType.fromValue(view.getRcode()));
+			}
+
+			while(!done && view.nextRecord()){
+				if(view.getSection() != SectionType.ANSWER){
+					//e.g. a TSIG record in the additional section
+					break;
+				}
+				data.setReaderIndex(view.getRecordOffset());
+				ResourceRecord rr = ResourceRecordFactory.getInstance().createResourceRecord(view.getRecordType());
+				rr.decode(data);
+				record(rr);
+			}
+		}
+
+		private void record(ResourceRecord rr) {
+			boolean soa = rr instanceof SOAResourceRecord;
+			long serial = soa? ((SOAResourceRecord)rr).getSerial(): -1;
+
+			if(records == 0 && !soa){
+				throw new DnsDecodeException("Transfer does not start with a SOA record but with: " + rr);
+			}
+
+			records++;
+			handler.onRecord(rr);
+
+			if(records == 1){
+				endSerial = serial;
+				if(type == ResourceRecordType.IXFR && !isNewer(endSerial, clientSerial)){
+					//the client is up to date, the response is only the current SOA
+					done = true;
+				}
+				return;
+			}
+
+			if(!soa){
+				return;
+			}
+
+			if(records == 2 && type == ResourceRecordType.IXFR && serial != endSerial){
+				//SOA of the old version, starts the deleted records of the first difference sequence
+				incremental = true;
+				return;
+			}
+
+			if(!incremental || (adding && serial == endSerial)){
+				done = true;
+				return;
+			}
+			//switch between deleted and added records
+			adding = !adding;
+		}
+
+		/**
+		 * Serial number arithmetic (RFC 1982)
+		 */
+		private boolean isNewer(long serial, long other) {
+			long diff = (serial - other) & 0xFFFFFFFFL;
+			return diff != 0 && diff < 0x80000000L;
+		}
+	}
+
+}
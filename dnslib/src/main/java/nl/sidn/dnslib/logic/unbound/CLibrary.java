@@ -0,0 +1,42 @@
+package nl.sidn.dnslib.logic.unbound;
+
+import org.bridj.BridJ;
+import org.bridj.CRuntime;
+import org.bridj.Pointer;
+import org.bridj.ann.CLong;
+import org.bridj.ann.Library;
+import org.bridj.ann.Runtime;
+
+/**
+ * Wrapper for the part of the C library which is needed to wait on the file
+ * descriptor of an unbound context (see {@link UnboundLibrary#ub_fd(Pointer)}).
+ */
+@Library("c")
+@Runtime(CRuntime.class)
+public class CLibrary {
+	static {
+		BridJ.register();
+	}
+
+	/**
+	 * Size of struct pollfd: int fd, short events, short revents
+	 */
+	public static final int POLLFD_SIZE = 8;
+	public static final int POLLFD_EVENTS_OFFSET = 4;
+	public static final int POLLFD_REVENTS_OFFSET = 6;
+
+	/**
+	 * There is data to read
+	 */
+	public static final short POLLIN = 0x001;
+
+	/**
+	 * Wait for one of a set of file descriptors to become ready.<br>
+	 * @param fds: array of struct pollfd.<br>
+	 * @param nfds: number of structs in fds.<br>
+	 * @param timeout: max time to wait in millis, -1 is no timeout.<br>
+	 * @return number of ready file descriptors, 0 on timeout and -1 on error.<br>
+	 * Original signature : <code>int poll(pollfd*, nfds_t, int)</code><br>
+	 */
+	native public static int poll(Pointer<? > fds, @CLong long nfds, int timeout);
+}
@@ -0,0 +1,260 @@
+package nl.sidn.dnslib.message;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Decodes a batch of packets in parallel on a {@link ForkJoinPool}, the decoded
+ * messages are returned in the same order as the packets.
+ *
+ * The batch is split in chunks of at most chunkSize packets, each chunk is decoded
+ * by a single thread. The decoder is thread safe, call {@link #shutdown()} when
+ * the decoder is not used anymore to stop the threads of the pool.
+ *
+ * Unless the options decode lazily, the messages are decoded completely by the
+ * pool threads, so malformed rdata is handled by the error policy and the messages
+ * can be read by any thread.
+ *
+ * e.g.
+ * <pre>
+ * BatchDecoder decoder = new BatchDecoder().withParallelism(4).withErrorPolicy(ErrorPolicy.SKIP);
+ * List&lt;Message&gt; messages = decoder.decode(packets);
+ * </pre>
+ */
+public class BatchDecoder {
+
+	private static final Logger LOGGER = Logger.getLogger(BatchDecoder.class);
+
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+
+	/**
+	 * What to do with a packet which cannot be decoded.
+	 */
+	public enum ErrorPolicy {
+		//stop decoding and throw a DnsDecodeException for the first bad packet in the batch
+		FAIL,
+		//leave the bad packet out of the result
+		SKIP,
+		//return null for the bad packet so the result has the same size as the batch
+		NULL
+	}
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private ErrorPolicy errorPolicy = ErrorPolicy.FAIL;
+	private DecodeOptions options;
+	//created on first use
+	private ForkJoinPool pool;
+
+	/**
+	 * @param parallelism number of threads used to decode a batch, default is the number of cores
+	 */
+	public BatchDecoder withParallelism(int parallelism) {
+		if(parallelism < 1){
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * @param chunkSize max number of packets decoded by a thread in one go, default is 256
+	 */
+	public BatchDecoder withChunkSize(int chunkSize) {
+		if(chunkSize < 1){
+			throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	public BatchDecoder withErrorPolicy(ErrorPolicy errorPolicy) {
+		this.errorPolicy = errorPolicy;
+		return this;
+	}
+
+	/**
+	 * @param options options used to decode every packet, a record pool is
+	 * not allowed because the packets are decoded by multiple threads.
+	 */
+	public BatchDecoder withOptions(DecodeOptions options) {
+		if(options != null && options.getRecordPool() != null){
+			throw new IllegalArgumentException("A record pool cannot be shared by the decoding threads");
+		}
+		this.options = options;
+		return this;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public ErrorPolicy getErrorPolicy() {
+		return errorPolicy;
+	}
+
+	/**
+	 * @param packets packets which each contain a single message
+	 * @return the decoded messages in the same order as the packets
+	 */
+	public List<Message> decode(List<byte[]> packets) {
+		return decodeAll(packets);
+	}
+
+	/**
+	 * Decode the bytes between the position and limit of each buffer, the position
+	 * and limit are not changed. When the options decode lazily the buffers must not
+	 * be modified while the messages are in use, otherwise the buffers can be reused
+	 * as soon as this method returns.
+	 * @param packets packets which each contain a single message
+	 * @return the decoded messages in the same order as the packets
+	 */
+	public List<Message> decode(ByteBuffer[] packets) {
+		return decodeAll(Arrays.asList(packets));
+	}
+
+	/**
+	 * The packets are taken from the iterator in windows of one chunk for every
+	 * thread, a window is decoded before the next window is taken from the
+	 * iterator. Only a single window of packets is held at a time.
+	 * @param packets packets which each contain a single message
+	 * @return the decoded messages in the same order as the packets
+	 */
+	public List<Message> decode(Iterator<byte[]> packets) {
+		List<Message> messages = new ArrayList<>();
+		int windowSize = chunkSize * parallelism;
+		List<byte[]> window = new ArrayList<>(Math.min(windowSize, 4096));
+		int offset = 0;
+		while(packets.hasNext()){
+			window.add(packets.next());
+			if(window.size() == windowSize || !packets.hasNext()){
+				decodeAll(window, offset, messages);
+				offset += window.size();
+				window.clear();
+			}
+		}
+		return messages;
+	}
+
+	private List<Message> decodeAll(List<?> packets) {
+		List<Message> messages = new ArrayList<>(packets.size());
+		decodeAll(packets, 0, messages);
+		return messages;
+	}
+
+	/**
+	 * Decode the packets and add the messages to the result.
+	 * @param offset index of the first packet in the batch, used in the error messages
+	 */
+	private void decodeAll(List<?> packets, int offset, List<Message> messages) {
+		Message[] results = new Message[packets.size()];
+		RuntimeException[] errors = new RuntimeException[packets.size()];
+		DecodeTask task = new DecodeTask(packets, results, errors, 0, packets.size());
+
+		if(parallelism == 1 || packets.size() <= chunkSize){
+			//not worth handing over to the pool
+			task.compute();
+		}else{
+			getPool().invoke(task);
+		}
+
+		for (int i = 0; i < results.length; i++) {
+			if(errors[i] != null){
+				if(errorPolicy == ErrorPolicy.FAIL){
+					throw new DnsDecodeException("Cannot decode packet " + (offset + i) + " of the batch", errors[i]);
+				}
+				if(LOGGER.isDebugEnabled()){
+					LOGGER.debug("Cannot decode packet " + (offset + i) + " of the batch", errors[i]);
+				}
+				if(errorPolicy == ErrorPolicy.SKIP){
+					continue;
+				}
+			}
+			messages.add(results[i]);
+		}
+	}
+
+	private synchronized ForkJoinPool getPool() {
+		if(pool == null || pool.getParallelism() != parallelism){
+			if(pool != null){
+				pool.shutdown();
+			}
+			pool = new ForkJoinPool(parallelism);
+		}
+		return pool;
+	}
+
+	/**
+	 * Stop the threads of the pool, the decoder creates a new pool when it is used again.
+	 */
+	public synchronized void shutdown() {
+		if(pool != null){
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	private Message decode(Object packet) {
+		NetworkData data = packet instanceof ByteBuffer? new NetworkData((ByteBuffer)packet): new NetworkData((byte[])packet);
+		Message msg = new Message();
+		DecodeOptions decodeOptions = options != null? options: new DecodeOptions();
+		msg.decode(data, decodeOptions);
+		return msg;
+	}
+
+	private class DecodeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<?> packets;
+		private final Message[] results;
+		private final RuntimeException[] errors;
+		private final int from;
+		private final int to;
+
+		public DecodeTask(List<?> packets, Message[] results, RuntimeException[] errors, int from, int to) {
+			this.packets = packets;
+			this.results = results;
+			this.errors = errors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from > chunkSize){
+				int middle = (from + to) >>> 1;
+				invokeAll(new DecodeTask(packets, results, errors, from, middle),
+						new DecodeTask(packets, results, errors, middle, to));
+				return;
+			}
+
+			for (int i = from; i < to; i++) {
+				try{
+					results[i] = decode(packets.get(i));
+				}catch(RuntimeException e){
+					errors[i] = e;
+					if(errorPolicy == ErrorPolicy.FAIL){
+						//the batch fails, no need to decode the rest of this chunk
+						return;
+					}
+				}
+			}
+		}
+	}
+
+}
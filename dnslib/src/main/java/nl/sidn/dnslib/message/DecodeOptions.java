@@ -0,0 +1,120 @@
+package nl.sidn.dnslib.message;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+
+import nl.sidn.dnslib.message.records.ResourceRecordPool;
+import nl.sidn.dnslib.types.ResourceRecordType;
+import nl.sidn.dnslib.types.SectionType;
+
+/**
+ * Options for decoding a message, by default all sections and all
+ * resource record types are decoded when the message is created.
+ * 
+ * Sections which are not selected stay empty, records with a type which is
+ * not selected are skipped without creating a record object.
+ * 
+ * e.g. only decode the DNSSEC records:
+ * <pre>
+ * new DecodeOptions().withTypes(ResourceRecordType.DNSKEY, ResourceRecordType.RRSIG, ResourceRecordType.DS)
+ * </pre>
+ */
+public class DecodeOptions {
+	
+	private boolean lazy;
+	private boolean lazyRdata;
+	private EnumSet<SectionType> sections = EnumSet.allOf(SectionType.class);
+	//selected rr types, null if all types are selected
+	private BitSet types;
+	private ResourceRecordPool recordPool;
+	
+	/**
+	 * @param lazy true to decode only the header and questions when the message is created,
+	 * the selected sections are decoded when they are accessed.
+	 */
+	public DecodeOptions withLazy(boolean lazy) {
+		this.lazy = lazy;
+		return this;
+	}
+	
+	/**
+	 * @param lazyRdata true to parse the rdata of a record when one of its rdata
+	 * fields is accessed for the first time instead of when the message is decoded.
+	 * The records keep a reference to the message data, which must not be modified
+	 * (e.g. a reused receive buffer) as long as the message is used. Malformed rdata
+	 * is reported when the record is accessed instead of by decode.
+	 */
+	public DecodeOptions withLazyRdata(boolean lazyRdata) {
+		this.lazyRdata = lazyRdata;
+		return this;
+	}
+	
+	/**
+	 * Only decode the records in the given sections.
+	 */
+	public DecodeOptions withSections(SectionType... sections) {
+		this.sections = EnumSet.noneOf(SectionType.class);
+		for (SectionType section : sections) {
+			this.sections.add(section);
+		}
+		return this;
+	}
+	
+	/**
+	 * Only decode the records with one of the given types, can be 
+	 * called multiple times to add more types.
+	 */
+	public DecodeOptions withTypes(ResourceRecordType... types) {
+		if(this.types == null){
+			this.types = new BitSet();
+		}
+		for (ResourceRecordType type : types) {
+			this.types.set(type.getValue());
+		}
+		return this;
+	}
+	
+	/**
+	 * Take the rr objects from a pool instead of creating new ones, the rrs are
+	 * returned to the pool when the message is reset or used to decode the next message.
+	 * @param recordPool pool of the thread which decodes the message, see 
+	 * {@link ResourceRecordPool#forCurrentThread()}
+	 */
+	public DecodeOptions withRecordPool(ResourceRecordPool recordPool) {
+		this.recordPool = recordPool;
+		return this;
+	}
+	
+	public boolean isLazy() {
+		return lazy;
+	}
+	
+	public boolean isLazyRdata() {
+		return lazyRdata;
+	}
+	
+	public boolean isSectionSelected(SectionType section) {
+		return sections.contains(section);
+	}
+	
+	/**
+	 * @param type the numeric rr type
+	 */
+	public boolean isTypeSelected(int type) {
+		return types == null || types.get(type);
+	}
+	
+	/**
+	 * @return the pool to take rr objects from or null to create new rrs
+	 */
+	public ResourceRecordPool getRecordPool() {
+		return recordPool;
+	}
+	
+	@Override
+	public String toString() {
+		return "DecodeOptions [lazy=" + lazy + ", lazyRdata=" + lazyRdata + ", sections=" + sections + ", types=" + 
+				(types == null? "all": types.toString()) + ", recordPool=" + (recordPool != null) + "]";
+	}
+
+}
@@ -293,6 +293,8 @@ public class Header {
 			setOpCode(OpcodeType.INVERSE);
 		}else if((flags & OPCODE_STATUS_REQUEST_BIT_MASK) == OPCODE_STATUS_REQUEST_BIT_MASK){
 			setOpCode(OpcodeType.INVERSE);
+		}else{
+			setOpCode(null);
 		}
 		
 		/* AA  Authoritative Answer - this bit is valid in responses,
@@ -401,6 +403,35 @@ public class Header {
 		//write unique 16bit id for the packet
 		buffer.writeChar(getId()); 
 		
+		//write the flags
+		buffer.writeChar(encodeFlags());
+		//question count
+		buffer.writeChar((char) getQdCount());
+		//an count
+		buffer.writeChar((char) getAnCount());
+		//ns count
+		buffer.writeChar((char) getNsCount());
+		//ar count
+		buffer.writeChar((char) getArCount());
+		
+	}
+	
+	/**
+	 * Overwrite a header which has already been written, e.g. to set 
+	 * the TC flag and the counters after the message has been truncated.
+	 * @param buffer the message
+	 * @param index location of the header in the message
+	 */
+	public void encode(NetworkData buffer, int index) {
+		buffer.writeChar(index, getId());
+		buffer.writeChar(index + 2, encodeFlags());
+		buffer.writeChar(index + 4, getQdCount());
+		buffer.writeChar(index + 6, getAnCount());
+		buffer.writeChar(index + 8, getNsCount());
+		buffer.writeChar(index + 10, getArCount());
+	}
+	
+	private char encodeFlags() {
 		/* create a bitmask for the header status flags.
 		 * start with all flags to zero and flip the
 		 * bits where apropriate.
@@ -459,18 +490,8 @@ public class Header {
 		}else if(rcode == RcodeType.REFUSED){
 			flags = (char) (flags | 0x5); //0000 0000 0000 0101
 		}
-			
-		//write the flags
-		buffer.writeChar(flags);
-		//question count
-		buffer.writeChar((char) getQdCount());
-		//an count
-		buffer.writeChar((char) getAnCount());
-		//ns count
-		buffer.writeChar((char) getNsCount());
-		//ar count
-		buffer.writeChar((char) getArCount());
 		
+		return flags;
 	}
 
 	@Override
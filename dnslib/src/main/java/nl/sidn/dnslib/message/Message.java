@@ -3,7 +3,10 @@ package nl.sidn.dnslib.message;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
@@ -12,21 +15,37 @@ import javax.json.JsonObjectBuilder;
 import javax.json.JsonValue;
 import javax.json.JsonWriter;
 
+import nl.sidn.dnslib.message.records.AbstractResourceRecord;
 import nl.sidn.dnslib.message.records.ResourceRecord;
 import nl.sidn.dnslib.message.records.ResourceRecordFactory;
+import nl.sidn.dnslib.message.records.ResourceRecordPool;
 import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.DnsName;
 import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordClass;
 import nl.sidn.dnslib.types.ResourceRecordType;
+import nl.sidn.dnslib.types.SectionType;
 
 import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
 
-
+/**
+ * A DNS message. With lazy decoding the sections are decoded on first access,
+ * this moves the reader index of the message data. A lazily decoded message is
+ * therefore confined to one thread until {@link #decodeFully()} has been called,
+ * after that it can be read by multiple threads as long as it is not modified.
+ * Rdata which is parsed on first access (see {@link DecodeOptions#withLazyRdata(boolean)})
+ * does not move the reader index and can be read by multiple threads.
+ */
 public class Message {
 	
 	private static final Logger LOGGER = Logger.getLogger(Message.class);
 	
+	//max size of a message over tcp
+	public static final int MAX_MESSAGE_SIZE = 65535;
+	private static final int HEADER_SIZE = 12;
+	
 	private Header header;
 	
 	private List<Question> questions = new ArrayList<>();
@@ -34,12 +53,45 @@ public class Message {
 	private List<RRset> authority = new ArrayList<>();
 	private List<RRset> additional = new ArrayList<>();
 	
+	//index of the rrsets in each section, used to find the rrset for a new rr
+	private RRsetIndex answerIndex = new RRsetIndex();
+	private RRsetIndex authorityIndex = new RRsetIndex();
+	private RRsetIndex additionalIndex = new RRsetIndex();
+	
+	private DecodeOptions options;
+	
+	/* lazy decoding, the message data is kept until all sections have been decoded.
+	 * the rr count and start offset of each section, the offset is -1 until it is known.
+	 */
+	private NetworkData lazyData;
+	private int[] sectionCounts;
+	private int[] sectionOffsets;
+	private boolean[] sectionDecoded;
+	
+	//rrsets and questions of the previous message, reused when decoding with a record pool
+	private List<RRset> freeRRsets;
+	private List<Question> freeQuestions;
+	
 	public Message(){};
 	
 	public Message(NetworkData data){
 		decode(data);
 	};
 	
+	/**
+	 * @param data the message
+	 * @param lazy true to decode only the header and questions now, the other
+	 * sections are decoded when they are accessed. The data must not be modified 
+	 * until all sections have been decoded.
+	 */
+	public Message(NetworkData data, boolean lazy){
+		decode(data, lazy);
+	};
+	
+	public Message(NetworkData data, DecodeOptions options){
+		decode(data, options);
+	};
+	
 	public Header getHeader() {
 		return header;
 	}
@@ -57,9 +109,9 @@ public class Message {
 	
 	public void updateHeaderCounters() {
 		this.header.setQdCount((char)questions.size());
-		this.header.setAnCount((char)rrsetSize(answer));
-		this.header.setNsCount((char)rrsetSize(authority));
-		this.header.setArCount((char)rrsetSize(additional));
+		this.header.setAnCount((char)rrsetSize(getAnswer()));
+		this.header.setNsCount((char)rrsetSize(getAuthority()));
+		this.header.setArCount((char)rrsetSize(getAdditional()));
 	}
 	
 	private int rrsetSize(List<RRset> rrsets){
@@ -80,82 +132,144 @@ public class Message {
 	}
 	
 	public List<RRset> getAnswer() {
+		decodeLazySection(SectionType.ANSWER);
 		return answer;
 	}
 
-	private RRset findRRset(List<RRset> setList, ResourceRecord rr){
-		for (RRset rrset : setList) {
-			if(rrset.getOwner().equalsIgnoreCase(rr.getName()) &&
-					rrset.getClassz() == rr.getClassz() &&
-					rrset.getType() == rr.getType() ){
-				return rrset;
-			}
+	private RRsetIndex indexFor(List<RRset> setList){
+		if(setList == answer){
+			return answerIndex;
+		}else if(setList == authority){
+			return authorityIndex;
 		}
-		
-		return null;
+		return additionalIndex;
+	}
+	
+	private RRset findRRset(List<RRset> setList, ResourceRecord rr){
+		return indexFor(setList).find(setList, rr);
 	}
 	
 	private RRset createRRset(List<RRset> setList, ResourceRecord rr){
-		RRset rrset = RRset.createAs(rr);
-		setList.add(rrset);
+		RRset rrset;
+		if(freeRRsets != null && !freeRRsets.isEmpty()){
+			rrset = freeRRsets.remove(freeRRsets.size() - 1);
+			rrset.reset(rr.getDnsName(), rr.getClassz(), rr.getType());
+			rrset.add(rr);
+		}else{
+			rrset = RRset.createAs(rr);
+		}
+		addRRset(setList, rrset);
 		return rrset;
 	}
 	
+	private void addRRset(List<RRset> setList, RRset rrset){
+		setList.add(rrset);
+		indexFor(setList).add(setList, rrset);
+	}
+	
 	public void addAnswer(ResourceRecord answer) {
-		RRset rrset = findRRset(this.answer, answer);
-		if(rrset == null){
-			rrset = createRRset(this.answer, answer);
-		}else{
-			rrset.add(answer);
-		}
+		addResourceRecord(getAnswer(), answer);
 	}
 	
 	public void addAnswer(RRset rrset) {
-		answer.add(rrset);
+		addRRset(getAnswer(), rrset);
 	}
 
 	public List<RRset> getAuthority() {
+		decodeLazySection(SectionType.AUTHORITY);
 		return authority;
 	}
 
 	public void addAuthority(ResourceRecord authority) {
-		RRset rrset = findRRset(this.authority, authority);
-		if(rrset == null){
-			rrset = createRRset(this.authority, authority);
-		}else{
-			rrset.add(authority);
-		}
+		addResourceRecord(getAuthority(), authority);
 	}
 	
 	public void addAuthority(RRset authority) {
-		this.authority.add(authority);
+		addRRset(getAuthority(), authority);
 
 	}
 
 	public List<RRset> getAdditional() {
+		decodeLazySection(SectionType.ADDITIONAL);
 		return additional;
 	}
 
 	public void addAdditional(ResourceRecord rr) {
-		RRset rrset = findRRset(this.additional, rr);
+		addResourceRecord(getAdditional(), rr);
+	}
+	
+	public void addAdditional(RRset additional) {
+		if(additional.getType() != ResourceRecordType.OPT){
+			addRRset(getAdditional(), additional);
+		}
+	}
+	
+	private void addResourceRecord(List<RRset> section, ResourceRecord rr) {
+		RRset rrset = findRRset(section, rr);
 		if(rrset == null){
-			rrset = createRRset(this.additional, rr);
+			createRRset(section, rr);
 		}else{
 			rrset.add(rr);
 		}
 	}
 	
-	public void addAdditional(RRset additional) {
-		if(additional.getType() != ResourceRecordType.OPT){
-			this.additional.add(additional);
+	/**
+	 * @return true if all sections have been decoded, false if the message 
+	 * was decoded lazily and some sections have not been accessed yet.
+	 */
+	public boolean isDecoded() {
+		return lazyData == null;
+	}
+	
+	/**
+	 * Decode the lazy sections and the rdata of all rrs now instead of on first
+	 * access. After this the message can be read by multiple threads, as long
+	 * as it is not modified.
+	 */
+	public void decodeFully() {
+		decodeFully(getAnswer());
+		decodeFully(getAuthority());
+		decodeFully(getAdditional());
+	}
+	
+	private void decodeFully(List<RRset> section) {
+		for (RRset rrset : section) {
+			for (ResourceRecord rr : rrset.getAll()) {
+				if(rr instanceof AbstractResourceRecord){
+					((AbstractResourceRecord)rr).decodeFully();
+				}
+			}
 		}
 	}
 	
 
 	public void decode(NetworkData buffer) {
+		decode(buffer, false);
+	}
+	
+	/**
+	 * @param buffer the message
+	 * @param lazy true to only decode the header and questions and remember where
+	 * the answer section starts. The other sections are decoded on first access.
+	 */
+	public void decode(NetworkData buffer, boolean lazy) {
+		decode(buffer, new DecodeOptions().withLazy(lazy));
+	}
+	
+	/**
+	 * Decode a message, when this message has been used before it is reset first
+	 * so the same message object can be used to decode many messages.
+	 * @param buffer the message
+	 * @param options the sections and rr types to decode and whether to decode lazily
+	 */
+	public void decode(NetworkData buffer, DecodeOptions options) {
 		//LOGGER.debug("Message size: " + buffer.readableBytes());
+		reset();
+		this.options = options;
 		
-		header = new Header();
+		if(header == null){
+			header = new Header();
+		}
 		header.decode(buffer);
 		
 		//LOGGER.debug("decoded header:" + header);
@@ -167,23 +281,17 @@ public class Message {
 			addQuestion(question);
 		}
 		
-		for(int i = 0; i < header.getAnCount(); i++){
-			ResourceRecord rr = decodeResourceRecord(buffer);
-			//LOGGER.debug("decoded rr:" + rr);
-			addAnswer(rr);
-		}
-		
-		for(int i = 0; i < header.getNsCount(); i++){
-			ResourceRecord rr = decodeResourceRecord(buffer);
-			//LOGGER.debug("decoded rr:" + rr);
-			addAuthority(rr);
+		if(options.isLazy()){
+			lazyData = buffer;
+			sectionCounts = new int[]{header.getAnCount(), header.getNsCount(), header.getArCount()};
+			sectionOffsets = new int[]{buffer.getReaderIndex(), -1, -1};
+			sectionDecoded = new boolean[3];
+			return;
 		}
 		
-		for(int i = 0; i < header.getArCount(); i++){
-			ResourceRecord rr = decodeResourceRecord(buffer);
-			//LOGGER.debug("decoded rr:" + rr);
-			addAdditional(rr);
-		}
+		decodeSection(buffer, SectionType.ANSWER, answer, header.getAnCount());
+		decodeSection(buffer, SectionType.AUTHORITY, authority, header.getNsCount());
+		decodeSection(buffer, SectionType.ADDITIONAL, additional, header.getArCount());
 		
 		/* not all RR may have been decoded into the message
 		 * to make sure the section counters are correct do an update
@@ -192,32 +300,149 @@ public class Message {
 		updateHeaderCounters();
 	}
 	
+	/**
+	 * Clear the message so it can be reused to decode another message, the header
+	 * object and the lists are kept. When the message was decoded with a record pool 
+	 * (see {@link DecodeOptions#withRecordPool(ResourceRecordPool)}) all rrs are
+	 * returned to the pool and the rrsets and questions are kept for the next message,
+	 * these objects must not be used anymore after calling this method.
+	 */
+	public void reset() {
+		ResourceRecordPool pool = options != null? options.getRecordPool(): null;
+		if(pool != null){
+			if(freeRRsets == null){
+				freeRRsets = new ArrayList<>();
+				freeQuestions = new ArrayList<>();
+			}
+			recycle(answer, pool);
+			recycle(authority, pool);
+			recycle(additional, pool);
+			freeQuestions.addAll(questions);
+		}
+		
+		questions.clear();
+		answer.clear();
+		authority.clear();
+		additional.clear();
+		answerIndex.clear();
+		authorityIndex.clear();
+		additionalIndex.clear();
+		
+		options = null;
+		lazyData = null;
+		sectionCounts = null;
+		sectionOffsets = null;
+		sectionDecoded = null;
+	}
+	
+	private void recycle(List<RRset> section, ResourceRecordPool pool) {
+		for (RRset rrset : section) {
+			for (ResourceRecord rr : rrset.getAll()) {
+				pool.release(rr);
+			}
+			rrset.clear();
+			freeRRsets.add(rrset);
+		}
+	}
+	
+	private void decodeSection(NetworkData buffer, SectionType type, List<RRset> section, int count) {
+		if(!options.isSectionSelected(type)){
+			for(int i = 0; i < count; i++){
+				skipResourceRecord(buffer);
+			}
+			return;
+		}
+		
+		for(int i = 0; i < count; i++){
+			ResourceRecord rr = decodeResourceRecord(buffer);
+			//LOGGER.debug("decoded rr:" + rr);
+			if(rr != null){
+				addResourceRecord(section, rr);
+			}
+		}
+	}
+	
+	private void decodeLazySection(SectionType type) {
+		int section = type.ordinal();
+		if(lazyData == null || sectionDecoded[section]){
+			return;
+		}
+		lazyData.setReaderIndex(sectionOffset(section));
+		List<RRset> rrsets = type == SectionType.ANSWER? answer: type == SectionType.AUTHORITY? authority: additional;
+		decodeSection(lazyData, type, rrsets, sectionCounts[section]);
+		sectionDecoded[section] = true;
+		if(section + 1 < sectionOffsets.length){
+			sectionOffsets[section + 1] = lazyData.getReaderIndex();
+		}
+		
+		//same as updateHeaderCounters but only for this section
+		char count = (char)rrsetSize(rrsets);
+		if(type == SectionType.ANSWER){
+			header.setAnCount(count);
+		}else if(type == SectionType.AUTHORITY){
+			header.setNsCount(count);
+		}else{
+			header.setArCount(count);
+		}
+		
+		if(sectionDecoded[0] && sectionDecoded[1] && sectionDecoded[2]){
+			//release the message data
+			lazyData = null;
+		}
+	}
+	
+	private int sectionOffset(int section) {
+		if(sectionOffsets[section] == -1){
+			//skip the rrs of the previous section without decoding them
+			lazyData.setReaderIndex(sectionOffset(section - 1));
+			for(int i = 0; i < sectionCounts[section - 1]; i++){
+				skipResourceRecord(lazyData);
+			}
+			sectionOffsets[section] = lazyData.getReaderIndex();
+		}
+		return sectionOffsets[section];
+	}
+	
+	private void skipResourceRecord(NetworkData buffer) {
+		DNSStringUtil.skipName(buffer);
+		//skip type, class and ttl
+		buffer.skipBytes(8);
+		int rdLength = buffer.readUnsignedChar();
+		buffer.skipBytes(rdLength);
+	}
+	
 	private ResourceRecord decodeResourceRecord(NetworkData buffer) {
 		
 		/* read ahead to the type bytes to find out what
-		 * type of RR needs to be created.
+		 * type of RR needs to be created. the name is only skipped here
+		 * and decoded once by the rr itself.
 		 */
+		int start = buffer.getReaderIndex();
 
-		//skip 16bits with name
-		buffer.markReaderIndex();
-
-		//read the name so we kan get to the type bytes after the name
-		DNSStringUtil.readName(buffer);
-		
+		//skip the name so we kan get to the type bytes after the name
+		DNSStringUtil.skipName(buffer);
 		
 		//read 16 bits with type
-		
 		int type = buffer.readUnsignedChar();
 		
-		//LOGGER.debug("decoding rr with name:" + name + " and with type:" + type);
+		//LOGGER.debug("decoding rr with type:" + type);
+		
+		if(!options.isTypeSelected(type)){
+			//skip class and ttl and the rdata
+			buffer.skipBytes(6);
+			buffer.skipBytes(buffer.readUnsignedChar());
+			return null;
+		}
 		
-		//go back bits to the start of the RR
-		buffer.resetReaderIndex();
+		//go back to the start of the RR, do not use the mark, the rr uses it for the rdata 
+		buffer.setReaderIndex(start);
 		
-		ResourceRecord rr = ResourceRecordFactory.getInstance().createResourceRecord(type);
+		ResourceRecordPool pool = options.getRecordPool();
+		ResourceRecord rr = pool != null? pool.acquire(type): ResourceRecordFactory.getInstance().createResourceRecord(type);
 	
-		if(rr != null){
-			//decode the entire rr now
+		if(rr instanceof AbstractResourceRecord){
+			((AbstractResourceRecord)rr).decode(buffer, options.isLazyRdata());
+		}else if(rr != null){
 			rr.decode(buffer);
 		}
 		
@@ -225,9 +450,159 @@ public class Message {
 	}
 
 
+	/**
+	 * Encode the message, names are compressed when compression is enabled for the buffer.
+	 * The message must be the first data in the buffer because compression pointers
+	 * are relative to the start of the buffer.
+	 * @param buffer the buffer to write to
+	 * @return the number of bytes written
+	 */
+	public int encode(NetworkData buffer) {
+		return encode(buffer, MAX_MESSAGE_SIZE);
+	}
+	
+	/**
+	 * Encode the message, when the message does not fit in maxSize then rrsets are left 
+	 * out. Rrsets are never split (RFC 2181 9), when an rrset from the answer or authority 
+	 * section does not fit the rest of the message is left out and the TC flag is set. 
+	 * Rrsets from the additional section which do not fit are left out without setting 
+	 * the TC flag. The OPT pseudo-RR is always written, also when the message is 
+	 * truncated (RFC 6891 7), its size is reserved before the other sections are written.
+	 * The header counters and TC flag of this message are not changed.
+	 * @param buffer the buffer to write to
+	 * @param maxSize max number of bytes to write, e.g. the EDNS0 udp payload size
+	 * @return the number of bytes written
+	 */
+	public int encode(NetworkData buffer, int maxSize) {
+		boolean tc = header.isTc();
+		char qdCount = header.getQdCount();
+		char anCount = header.getAnCount();
+		char nsCount = header.getNsCount();
+		char arCount = header.getArCount();
+		try{
+			//the counters are set for the encoded header only
+			updateHeaderCounters();
+			
+			int start = buffer.getWriterIndex();
+			int limit = start + maxSize;
+			header.encode(buffer);
+			
+			for (Question question : questions) {
+				question.encode(buffer);
+			}
+			
+			RRset opt = findOpt();
+			int sectionLimit = opt == null? limit: limit - encodedSize(opt.getAll());
+			
+			int[] counts = new int[3];
+			boolean truncated = !encodeSection(buffer, getAnswer(), sectionLimit, counts, 0, false, null) ||
+					!encodeSection(buffer, getAuthority(), sectionLimit, counts, 1, false, null);
+			if(!truncated){
+				encodeSection(buffer, getAdditional(), sectionLimit, counts, 2, true, opt);
+			}
+			if(opt != null){
+				encodeSection(buffer, Collections.singletonList(opt), limit, counts, 2, true, null);
+			}
+			
+			if(truncated || counts[2] != header.getArCount()){
+				//write the header again with the counters of what has actually been written
+				header.setTc(tc || truncated);
+				header.setAnCount((char)counts[0]);
+				header.setNsCount((char)counts[1]);
+				header.setArCount((char)counts[2]);
+				header.encode(buffer, start);
+			}
+			
+			return buffer.getWriterIndex() - start;
+		}finally{
+			header.setTc(tc);
+			header.setQdCount(qdCount);
+			header.setAnCount(anCount);
+			header.setNsCount(nsCount);
+			header.setArCount(arCount);
+		}
+	}
+	
+	/**
+	 * @param skip true to skip an rrset which does not fit and try the next rrset
+	 * @param exclude rrset which is not written, may be null
+	 * @return false when an rrset did not fit
+	 */
+	private boolean encodeSection(NetworkData buffer, List<RRset> section, int limit, int[] counts, int index, boolean skip, RRset exclude) {
+		boolean complete = true;
+		for (RRset rrset : section) {
+			if(rrset == exclude){
+				continue;
+			}
+			int mark = buffer.getWriterIndex();
+			for (ResourceRecord rr : rrset.getAll()) {
+				rr.encode(buffer);
+			}
+			if(buffer.getWriterIndex() > limit){
+				buffer.truncate(mark);
+				complete = false;
+				if(!skip){
+					break;
+				}
+			}else{
+				counts[index] = counts[index] + rrset.size();
+			}
+		}
+		return complete;
+	}
+	
+	/**
+	 * @return the rrset with the OPT pseudo-RR or null if the message has no OPT
+	 */
+	private RRset findOpt() {
+		for (RRset rrset : getAdditional()) {
+			if(rrset.getType() == ResourceRecordType.OPT){
+				return rrset;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return size of the rrs encoded without name compression, the rdlength of
+	 * rrs created with the setters is not known before they have been encoded
+	 */
+	private static int encodedSize(List<ResourceRecord> rrs) {
+		NetworkData scratch = new NetworkData(512);
+		scratch.setNameCompression(false);
+		for (ResourceRecord rr : rrs) {
+			rr.encode(scratch);
+		}
+		return scratch.getWriterIndex();
+	}
+	
+	/**
+	 * Estimate the encoded size of the message, e.g. to allocate a buffer. The rrs
+	 * are encoded without name compression to find their size, so the estimate is an
+	 * upper bound of the size written by {@link #encode(NetworkData)}.
+	 * @return estimated number of bytes
+	 */
+	public int estimateSize() {
+		int size = HEADER_SIZE;
+		for (Question question : questions) {
+			size = size + question.size();
+		}
+		size = size + estimateSize(getAnswer()) + estimateSize(getAuthority()) + estimateSize(getAdditional());
+		return size;
+	}
+	
+	private int estimateSize(List<RRset> section) {
+		int size = 0;
+		for (RRset rrset : section) {
+			size = size + encodedSize(rrset.getAll());
+		}
+		return size;
+	}
+
 	private Question decodeQuestion(NetworkData buffer) {
 		
-		Question question = new Question();
+		Question question = freeQuestions != null && !freeQuestions.isEmpty()? 
+				freeQuestions.remove(freeQuestions.size() - 1): new Question();
 		
 		question.decode(buffer);
 			
@@ -251,21 +626,21 @@ public class Message {
 		
 		builder.append("answer\n");
 		builder.append("_______________________________________________\n");
-		for (RRset rrset : answer) {
+		for (RRset rrset : getAnswer()) {
 			builder.append(rrset.toString());
 			builder.append("\n");
 		}
 		
 		builder.append("authority\n");
 		builder.append("_______________________________________________\n");
-		for (RRset rrset : authority) {
+		for (RRset rrset : getAuthority()) {
 			builder.append(rrset.toString());
 			builder.append("\n");
 		}
 		
 		builder.append("additional\n");
 		builder.append("_______________________________________________\n");
-		for (RRset rrset : additional) {
+		for (RRset rrset : getAdditional()) {
 			builder.append(rrset.toString());
 			builder.append("\n");
 		}
@@ -280,19 +655,19 @@ public class Message {
 		int maxLength = maxLength();
 		System.out.println("maxlength = " + maxLength);
 		builder.append("; answer section:\n");
-		for (RRset rrset : answer) {
+		for (RRset rrset : getAnswer()) {
 			builder.append(rrset.toZone(maxLength));
 			//builder.append("\n");
 		}
 		
 		builder.append("; authority section:\n");
-		for (RRset rrset : authority) {
+		for (RRset rrset : getAuthority()) {
 			builder.append(rrset.toZone(maxLength));
 			//builder.append("\n");
 		}
 		
 		builder.append("; additional section:\n");
-		for (RRset rrset : additional) {
+		for (RRset rrset : getAdditional()) {
 			builder.append(rrset.toZone(maxLength));
 			//builder.append("\n");
 		}
@@ -312,19 +687,19 @@ public class Message {
 		builder.add("question", questionsBuilder.build());
 		
 		JsonArrayBuilder rrBuilder = Json.createArrayBuilder();
-		for (RRset rrset : answer) {
+		for (RRset rrset : getAnswer()) {
 			rrBuilder.add(rrset.toJSon());
 		}
 		builder.add("answer", rrBuilder.build());
 		
 		rrBuilder = Json.createArrayBuilder();
-		for (RRset rrset : authority) {
+		for (RRset rrset : getAuthority()) {
 			rrBuilder.add(rrset.toJSon());
 		}
 		builder.add("authority", rrBuilder.build());
 		
 		rrBuilder = Json.createArrayBuilder();
-		for (RRset rrset : additional) {
+		for (RRset rrset : getAdditional()) {
 			rrBuilder.add(rrset.toJSon());
 		}
 		builder.add("additional", rrBuilder.build());
@@ -335,19 +710,19 @@ public class Message {
 	public int maxLength() {
 		int length = 0;
 		
-		for (RRset rrset : answer) {
+		for (RRset rrset : getAnswer()) {
 			if(rrset.getOwner().length() > length){
 				length = rrset.getOwner().length();
 			}
 		}
 		
-		for (RRset rrset : authority) {
+		for (RRset rrset : getAuthority()) {
 			if(rrset.getOwner().length() > length){
 				length = rrset.getOwner().length();
 			}
 		}
 		
-		for (RRset rrset : additional) {
+		for (RRset rrset : getAdditional()) {
 			if(rrset.getOwner().length() > length){
 				length = rrset.getOwner().length();
 			}
@@ -371,28 +746,28 @@ public class Message {
 				}
 				g.writeEndArray();
 			}
-			if(answer.size() > 0){
+			if(getAnswer().size() > 0){
 				g.writeArrayFieldStart("answer");
 				
-				for (RRset rrset : answer) {
+				for (RRset rrset : getAnswer()) {
 					rrset.toJSon(g);
 				}
 				
 				g.writeEndArray();
 			}
-			if(authority.size() > 0){
+			if(getAuthority().size() > 0){
 				g.writeArrayFieldStart("authority");
 				
-				for (RRset rrset : authority) {
+				for (RRset rrset : getAuthority()) {
 					rrset.toJSon(g);
 				}
 				
 				g.writeEndArray();
 			}
-			if(additional.size() > 0){
+			if(getAdditional().size() > 0){
 				g.writeArrayFieldStart("additional");
 	
-				for (RRset rrset : additional) {
+				for (RRset rrset : getAdditional()) {
 					rrset.toJSon(g);
 				}
 				g.writeEndArray();
@@ -410,4 +785,94 @@ public class Message {
 	}
 
 	
-}
+	/**
+	 * Hash index of the rrsets in a section on (owner, class, type), this keeps
+	 * adding rrs to a section with many rrsets linear instead of quadratic.
+	 */
+	private static class RRsetIndex {
+		
+		private Map<RRsetKey, RRset> rrsets = new HashMap<>();
+		//the section size after the last update of the index
+		private int indexedSize;
+		//key used for lookups, only keys of added rrsets are created
+		private RRsetKey probe = new RRsetKey(null, null, null);
+		
+		public RRset find(List<RRset> section, ResourceRecord rr){
+			if(section.size() != indexedSize){
+				//the section list has been modified directly, rebuild the index
+				rebuild(section);
+			}
+			probe.set(rr.getDnsName(), rr.getClassz(), rr.getType());
+			RRset rrset = rrsets.get(probe);
+			probe.set(null, null, null);
+			return rrset;
+		}
+		
+		public void clear(){
+			rrsets.clear();
+			indexedSize = 0;
+		}
+		
+		public void add(List<RRset> section, RRset rrset){
+			if(section.size() != indexedSize + 1){
+				rebuild(section);
+				return;
+			}
+			put(rrset);
+			indexedSize = section.size();
+		}
+		
+		private void rebuild(List<RRset> section){
+			rrsets.clear();
+			for (RRset rrset : section) {
+				put(rrset);
+			}
+			indexedSize = section.size();
+		}
+		
+		private void put(RRset rrset){
+			RRsetKey key = new RRsetKey(rrset.getDnsName(), rrset.getClassz(), rrset.getType());
+			//keep the first rrset when the same rrset is added more than once
+			if(!rrsets.containsKey(key)){
+				rrsets.put(key, rrset);
+			}
+		}
+	}
+	
+	private static class RRsetKey {
+		
+		private DnsName owner;
+		private ResourceRecordClass classz;
+		private ResourceRecordType type;
+		
+		public RRsetKey(DnsName owner, ResourceRecordClass classz, ResourceRecordType type) {
+			set(owner, classz, type);
+		}
+		
+		private void set(DnsName owner, ResourceRecordClass classz, ResourceRecordType type) {
+			this.owner = owner;
+			this.classz = classz;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = 31 + owner.hashCode();
+			result = 31 * result + (classz == null ? 0 : classz.hashCode());
+			return 31 * result + (type == null ? 0 : type.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj){
+				return true;
+			}
+			if (!(obj instanceof RRsetKey)){
+				return false;
+			}
+			RRsetKey other = (RRsetKey) obj;
+			return classz == other.classz && type == other.type && owner.equals(other.owner);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,322 @@
+package nl.sidn.dnslib.message;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.DnsName;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.SectionType;
+
+/**
+ * Read-only view on a message which reads the fields directly from the packet
+ * bytes, for filtering packets without decoding them.
+ *
+ * The header fields and the type and class of the first question are returned
+ * as primitives, names can be compared with a {@link DnsName} without decoding them.
+ * The records of the answer, authority and additional sections are visited with
+ * {@link #nextRecord()}, the fields of the current record are returned as primitives
+ * and offsets in the message. A view can be reused for the next packet by calling
+ * {@link #wrap(NetworkData)}, none of these methods create objects.
+ *
+ * e.g.
+ * <pre>
+ * if(view.wrap(data).getQtype() == ResourceRecordType.DNSKEY.getValue()){
+ *     Message msg = view.toMessage();
+ * }
+ * </pre>
+ *
+ * The view uses the reader index of the data, the data must not be used by
+ * another reader at the same time.
+ */
+public class MessageView {
+
+	private static final int HEADER_SIZE = 12;
+	private static final SectionType[] SECTIONS = SectionType.values();
+
+	private static final int QR_BIT_MASK = 0x8000;
+	private static final int AA_BIT_MASK = 0x0400;
+	private static final int TC_BIT_MASK = 0x0200;
+	private static final int RD_BIT_MASK = 0x0100;
+	private static final int RA_BIT_MASK = 0x0080;
+	private static final int AD_BIT_MASK = 0x0020;
+	private static final int CD_BIT_MASK = 0x0010;
+
+	private NetworkData data;
+
+	//offset of the type of the first question and the end of the question section, -1 until known
+	private int questionTypeOffset;
+	private int questionEnd;
+
+	//record cursor, nextOffset is -1 before the first call to nextRecord
+	private int nextOffset;
+	private int sectionIndex;
+	private int remaining;
+	private int recordOffset;
+	private int rdataOffset;
+
+	public MessageView(){}
+
+	public MessageView(NetworkData data){
+		wrap(data);
+	}
+
+	/**
+	 * Use this view for another message.
+	 * @param data the message, index 0 must be the start of the message
+	 * @return this view
+	 */
+	public MessageView wrap(NetworkData data){
+		if(data.readableBytes() < HEADER_SIZE){
+			throw new DnsDecodeException("Message too short: " + data.readableBytes() + " bytes");
+		}
+		this.data = data;
+		questionTypeOffset = -1;
+		questionEnd = -1;
+		rewind();
+		return this;
+	}
+
+	/**
+	 * Start visiting the records from the first record of the answer section again.
+	 */
+	public void rewind(){
+		nextOffset = -1;
+		sectionIndex = -1;
+		remaining = 0;
+		recordOffset = -1;
+		rdataOffset = -1;
+	}
+
+	public char getId(){
+		return data.getUnsignedChar(0);
+	}
+
+	/**
+	 * @return the 16 bit flags field
+	 */
+	public char getFlags(){
+		return data.getUnsignedChar(2);
+	}
+
+	public boolean isResponse(){
+		return (getFlags() & QR_BIT_MASK) != 0;
+	}
+
+	public int getOpcode(){
+		return (getFlags() >> 11) & 0x0f;
+	}
+
+	public boolean isAa(){
+		return (getFlags() & AA_BIT_MASK) != 0;
+	}
+
+	public boolean isTc(){
+		return (getFlags() & TC_BIT_MASK) != 0;
+	}
+
+	public boolean isRd(){
+		return (getFlags() & RD_BIT_MASK) != 0;
+	}
+
+	public boolean isRa(){
+		return (getFlags() & RA_BIT_MASK) != 0;
+	}
+
+	public boolean isAd(){
+		return (getFlags() & AD_BIT_MASK) != 0;
+	}
+
+	public boolean isCd(){
+		return (getFlags() & CD_BIT_MASK) != 0;
+	}
+
+	/**
+	 * @return the 4 bit rcode from the header, without the EDNS extended rcode
+	 */
+	public int getRcode(){
+		return getFlags() & 0x0f;
+	}
+
+	public char getQdCount(){
+		return data.getUnsignedChar(4);
+	}
+
+	public char getAnCount(){
+		return data.getUnsignedChar(6);
+	}
+
+	public char getNsCount(){
+		return data.getUnsignedChar(8);
+	}
+
+	public char getArCount(){
+		return data.getUnsignedChar(10);
+	}
+
+	/**
+	 * @return offset of the name of the first question
+	 */
+	public int getQuestionOffset(){
+		return HEADER_SIZE;
+	}
+
+	/**
+	 * @return type of the first question or -1 if the message has no question
+	 */
+	public int getQtype(){
+		skipQuestions();
+		return questionTypeOffset == -1? -1: data.getUnsignedChar(questionTypeOffset);
+	}
+
+	/**
+	 * @return class of the first question or -1 if the message has no question
+	 */
+	public int getQclass(){
+		skipQuestions();
+		return questionTypeOffset == -1? -1: data.getUnsignedChar(questionTypeOffset + 2);
+	}
+
+	/**
+	 * @param name name to compare with
+	 * @return true if the message has a question and the name of the first question is equal to the name
+	 */
+	public boolean questionNameEquals(DnsName name){
+		return getQdCount() > 0 && name.matches(data, HEADER_SIZE);
+	}
+
+	/**
+	 * Decode the name of the first question, this creates a new name.
+	 * @return the name or null if the message has no question
+	 */
+	public DnsName getQuestionName(){
+		if(getQdCount() == 0){
+			return null;
+		}
+		return readName(HEADER_SIZE);
+	}
+
+	private void skipQuestions(){
+		if(questionEnd != -1){
+			return;
+		}
+		data.setReaderIndex(HEADER_SIZE);
+		int count = getQdCount();
+		for (int i = 0; i < count; i++) {
+			DNSStringUtil.skipName(data);
+			if(i == 0){
+				questionTypeOffset = data.getReaderIndex();
+			}
+			data.skipBytes(4);
+		}
+		questionEnd = data.getReaderIndex();
+	}
+
+	/**
+	 * Move to the next record, the records of the answer, authority and additional
+	 * section are visited in the order in which they are in the message.
+	 * @return false if there are no more records
+	 */
+	public boolean nextRecord(){
+		if(nextOffset == -1){
+			skipQuestions();
+			nextOffset = questionEnd;
+		}
+		while(remaining == 0){
+			if(sectionIndex == SECTIONS.length - 1){
+				return false;
+			}
+			sectionIndex++;
+			remaining = data.getUnsignedChar(6 + sectionIndex * 2);
+		}
+		remaining--;
+
+		recordOffset = nextOffset;
+		data.setReaderIndex(recordOffset);
+		DNSStringUtil.skipName(data);
+		//type, class and ttl are followed by the rdlength
+		rdataOffset = data.getReaderIndex() + 10;
+		if(rdataOffset > data.readableBytes() || rdataOffset + getRdlength() > data.readableBytes()){
+			throw new DnsDecodeException("Record at offset " + recordOffset + " exceeds the message");
+		}
+		nextOffset = rdataOffset + getRdlength();
+		return true;
+	}
+
+	/**
+	 * @return section of the current record
+	 */
+	public SectionType getSection(){
+		return SECTIONS[sectionIndex];
+	}
+
+	/**
+	 * @return offset of the owner name of the current record
+	 */
+	public int getRecordOffset(){
+		return recordOffset;
+	}
+
+	public int getRecordType(){
+		return data.getUnsignedChar(rdataOffset - 10);
+	}
+
+	public int getRecordClass(){
+		return data.getUnsignedChar(rdataOffset - 8);
+	}
+
+	public long getTtl(){
+		return data.getUnsignedInt(rdataOffset - 6);
+	}
+
+	public char getRdlength(){
+		return data.getUnsignedChar(rdataOffset - 2);
+	}
+
+	/**
+	 * @return offset of the first byte of the rdata of the current record
+	 */
+	public int getRdataOffset(){
+		return rdataOffset;
+	}
+
+	/**
+	 * @param name name to compare with
+	 * @return true if the owner name of the current record is equal to the name
+	 */
+	public boolean ownerNameEquals(DnsName name){
+		return name.matches(data, recordOffset);
+	}
+
+	/**
+	 * Decode the owner name of the current record, this creates a new name.
+	 * @return the owner name
+	 */
+	public DnsName getOwnerName(){
+		return readName(recordOffset);
+	}
+
+	private DnsName readName(int offset){
+		data.setReaderIndex(offset);
+		return DNSStringUtil.readDnsName(data);
+	}
+
+	/**
+	 * Decode the complete message, e.g. when the packet has passed the filter.
+	 * The rdata of the records is parsed from the data on first use, so the
+	 * data must not be modified or reused while the message is in use.
+	 * @return the decoded message
+	 */
+	public Message toMessage(){
+		return toMessage(new DecodeOptions());
+	}
+
+	/**
+	 * Decode the message with the given options, see {@link #toMessage()}.
+	 * @param options the decode options
+	 * @return the decoded message
+	 */
+	public Message toMessage(DecodeOptions options){
+		data.setReaderIndex(0);
+		return new Message(data, options);
+	}
+
+}
@@ -9,27 +9,38 @@ import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonProcessingException;
 
 import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.DnsName;
 import nl.sidn.dnslib.message.util.NetworkData;
 import nl.sidn.dnslib.types.ResourceRecordClass;
 import nl.sidn.dnslib.types.ResourceRecordType;
 
 public class Question {
 	
-	private String qName;
+	private DnsName qName;
 	private ResourceRecordType qType;
 	private ResourceRecordClass qClass;
 	
 	public Question(){};
 	
 	public Question(String qName, ResourceRecordType qType,	ResourceRecordClass qClass) {
+		this(DnsName.fromString(qName), qType, qClass);
+	}
+	
+	public Question(DnsName qName, ResourceRecordType qType,	ResourceRecordClass qClass) {
 		this.qName = qName;
 		this.qType = qType;
 		this.qClass = qClass;
 	}
 	public String getqName() {
-		return qName;
+		return qName != null? qName.toString(): null;
 	}
 	public void setqName(String qName) {
+		this.qName = DnsName.fromString(qName);
+	}
+	public DnsName getDnsName() {
+		return qName;
+	}
+	public void setDnsName(DnsName qName) {
 		this.qName = qName;
 	}
 	public ResourceRecordType getqType() {
@@ -47,7 +58,7 @@ public class Question {
 
 	public void decode(NetworkData buffer) {
 	
-		setqName(DNSStringUtil.readName(buffer));
+		setDnsName(DNSStringUtil.readDnsName(buffer));
 		
 		char type = buffer.readUnsignedChar();
 		setqType(ResourceRecordType.fromValue(type));
@@ -56,6 +67,23 @@ public class Question {
 		setqClass(ResourceRecordClass.fromValue(qClass));
 		
 	}
+	
+	public void encode(NetworkData buffer) {
+		
+		DNSStringUtil.writeName(getqName(), buffer);
+		
+		buffer.writeChar(qType.getValue());
+		
+		buffer.writeChar(qClass.getValue());
+	}
+	
+	/**
+	 * @return size of the question in wire format, without name compression
+	 */
+	public int size() {
+		//name + 16 bits type + 16 bits class
+		return qName.length() + 4;
+	}
 
 
 	@Override
@@ -66,7 +94,7 @@ public class Question {
 	
 	public JsonObject toJSon(){
 		return Json.createObjectBuilder().
-			add("qName", qName).
+			add("qName", getqName()).
 			add("qType", qType != null?qType.name(): "").
 			add("qClass", qClass != null?qClass.name(): "").
 			build();
@@ -76,7 +104,7 @@ public class Question {
 		
 		try {
 			g.writeStartObject();
-			g.writeObjectField("qName", qName);
+			g.writeObjectField("qName", getqName());
 			g.writeObjectField("qType", qType != null?qType.name(): "");
 			g.writeObjectField("qClass", qClass != null?qClass.name(): "");
 			g.writeEndObject();
@@ -15,6 +15,7 @@ import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
 
 import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.util.DnsName;
 import nl.sidn.dnslib.types.ResourceRecordClass;
 import nl.sidn.dnslib.types.ResourceRecordType;
 
@@ -23,23 +24,31 @@ public class RRset implements Serializable {
 	private static final long serialVersionUID = -8053869237612837919L;
 	
 	private List<ResourceRecord> data = new ArrayList<>();
-	private String owner;
+	private DnsName owner;
 	private ResourceRecordClass classz;
 	private ResourceRecordType type;
 	
 	public RRset(String owner, ResourceRecordClass classz,ResourceRecordType type) {
+		this(DnsName.fromString(owner), classz, type);
+	}
+	
+	public RRset(DnsName owner, ResourceRecordClass classz,ResourceRecordType type) {
 		this.owner = owner;
 		this.classz = classz;
 		this.type = type;
 	}
 	
 	public static RRset createAs(ResourceRecord rr){
-		RRset rrset = new RRset(rr.getName(), rr.getClassz(), rr.getType());
+		RRset rrset = new RRset(rr.getDnsName(), rr.getClassz(), rr.getType());
 		rrset.add(rr);
 		return rrset;
 	}
 	
 	public String getOwner() {
+		return owner.toString();
+	}
+	
+	public DnsName getDnsName() {
 		return owner;
 	}
 
@@ -52,12 +61,12 @@ public class RRset implements Serializable {
 	}
 	
 	public void add(ResourceRecord rr){
-		if(rr.getName() == null){
+		if(rr.getDnsName() == null){
 			throw new IllegalArgumentException("Trying to add an Invalid rr to the rrset: " + rr);
 		}
 		if(rr.getClassz() == classz &&
 				rr.getType() == type &&
-				rr.getName().equalsIgnoreCase(owner)){
+				owner.equals(rr.getDnsName())){
 			data.add(rr);
 		}else{
 			throw new IllegalArgumentException("Trying to add an Invalid rr to the rrset: " + rr);
@@ -67,7 +76,7 @@ public class RRset implements Serializable {
 	public void remove(ResourceRecord rr){
 		if(rr.getClassz() == classz &&
 				rr.getType() == type &&
-				rr.getName().equalsIgnoreCase(owner)){
+				owner.equals(rr.getDnsName())){
 			data.remove(rr);
 		}else{
 			throw new IllegalArgumentException("Trying to remove an Invalid rr from the rrset: " + rr);
@@ -78,6 +87,17 @@ public class RRset implements Serializable {
 		data.clear();
 	}
 	
+	/**
+	 * Clear the rrset and give it a new owner, class and type so the
+	 * object can be reused by the message that created it.
+	 */
+	void reset(DnsName owner, ResourceRecordClass classz, ResourceRecordType type){
+		data.clear();
+		this.owner = owner;
+		this.classz = classz;
+		this.type = type;
+	}
+	
 	public List<ResourceRecord> getAll(){
 		return data;
 	}
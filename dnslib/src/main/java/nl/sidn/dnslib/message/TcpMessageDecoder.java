@@ -0,0 +1,96 @@
+package nl.sidn.dnslib.message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.message.util.TcpFramer;
+
+/**
+ * Decodes the messages of a DNS over TCP stream, data is pushed into the decoder
+ * in chunks of any size and each complete message is passed to the {@link MessageHandler}.
+ * The messages are only copied when the options decode lazily, use {@link TcpFramer}
+ * directly to get the raw messages without copying them.
+ *
+ * A decoder is not thread safe, use one decoder per connection.
+ */
+public class TcpMessageDecoder implements TcpFramer.FrameHandler {
+
+	/**
+	 * Receives the decoded messages from the stream.
+	 */
+	public interface MessageHandler {
+
+		void onMessage(Message message);
+	}
+
+	private final TcpFramer framer;
+	private final MessageHandler handler;
+	private final DecodeOptions options;
+
+	public TcpMessageDecoder(MessageHandler handler){
+		this(handler, new DecodeOptions());
+	}
+
+	/**
+	 * @param handler receives the messages
+	 * @param options options used to decode every message
+	 */
+	public TcpMessageDecoder(MessageHandler handler, DecodeOptions options){
+		this(handler, options, TcpFramer.MAX_FRAME_SIZE);
+	}
+
+	/**
+	 * @param handler receives the messages
+	 * @param options options used to decode every message
+	 * @param maxMessageSize max size of a message, a larger message is an error
+	 */
+	public TcpMessageDecoder(MessageHandler handler, DecodeOptions options, int maxMessageSize){
+		this.handler = handler;
+		this.options = options;
+		this.framer = new TcpFramer(this, maxMessageSize);
+	}
+
+	@Override
+	public void onFrame(ByteBuffer frame) {
+		if(options.isLazy() || options.isLazyRdata()){
+			/* the frame is only valid during this call, the message is copied because
+			 * the lazy parts are decoded from the message data on first use.
+			 */
+			byte[] data = new byte[frame.remaining()];
+			frame.get(data);
+			handler.onMessage(new Message(new NetworkData(data), options));
+			return;
+		}
+		handler.onMessage(new Message(new NetworkData(frame), options));
+	}
+
+	public void feed(ByteBuffer data){
+		framer.feed(data);
+	}
+
+	public void feed(byte[] data, int offset, int length){
+		framer.feed(data, offset, length);
+	}
+
+	/**
+	 * @see TcpFramer#read(InputStream)
+	 */
+	public void read(InputStream in) throws IOException {
+		framer.read(in);
+	}
+
+	/**
+	 * @see TcpFramer#read(ReadableByteChannel)
+	 */
+	public int read(ReadableByteChannel channel) throws IOException {
+		return framer.read(channel);
+	}
+
+	public TcpFramer getFramer() {
+		return framer;
+	}
+
+}
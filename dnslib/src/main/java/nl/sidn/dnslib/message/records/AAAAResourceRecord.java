@@ -27,77 +27,94 @@ public class AAAAResourceRecord extends AbstractResourceRecord {
 	
 	 */
 	
+	//textual representation of the address, created on demand
 	private String address;
 	private byte[] ipv6Bytes;
 
 	public String getAddress() {
+		parseRdata();
+		if(address == null && ipv6Bytes != null){
+			//create a textual representation of the address
+			InetAddress ipv6Addres;
+			try {
+				ipv6Addres = InetAddress.getByAddress(ipv6Bytes);
+			} catch (UnknownHostException e) {
+				throw new RuntimeException("Illegal ipv6 address", e);
+			}
+			address = InetAddresses.toAddrString(ipv6Addres);
+		}
 		return address;
 	}
 
 	public void setAddress(String address) {
+		parseRdata();
 		this.address = address;
 	}
 	
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	public void reset() {
+		super.reset();
+		address = null;
+		ipv6Bytes = null;
+	}
+	
+	@Override
+	protected void decodeRdata(NetworkData buffer) {
 		
 		//get the 16 raw bytes for the ipv6 address
 		ipv6Bytes = new byte[16];
 		buffer.readBytes(ipv6Bytes);
-		
-		//create a textual representation of the address
-		InetAddress ipv6Addres;
-		try {
-			ipv6Addres = InetAddress.getByAddress(ipv6Bytes);
-		} catch (UnknownHostException e) {
-			throw new RuntimeException("Illegal ipv6 address", e);
-		}
-		
-		setAddress(InetAddresses.toAddrString(ipv6Addres));
 	}
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
 		//write rdlength
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		buffer.writeBytes(ipv6Bytes);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	@Override
 	public String toString() {
-		return super.toString() + " AAAAResourceRecord [address=" + address + "]";
+		parseRdata();
+		return super.toString() + " AAAAResourceRecord [address=" + getAddress() + "]";
 	}
 	
 	public String getCacheId(){
-		return address;
+		parseRdata();
+		return getAddress();
 	}
 	
 	@Override
 	public String toZone(int maxLength) {
-		return super.toZone(maxLength) + "\t" + address;
+		parseRdata();
+		return super.toZone(maxLength) + "\t" + getAddress();
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
-				add("address", address)).
+				add("address", getAddress())).
 			build();
 	}
 
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
 			g.writeObjectFieldStart("rdata");
-			g.writeObjectField("address", address);
+			g.writeObjectField("address", getAddress());
 			g.writeEndObject();
 			g.writeEndObject();
 		} catch (IOException e) {
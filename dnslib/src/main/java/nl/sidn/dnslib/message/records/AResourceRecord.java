@@ -18,10 +18,12 @@ public class AResourceRecord extends AbstractResourceRecord {
 	private int[] ipv4Bytes;
 	
 	public String getAddress() {
+		parseRdata();
 		return address;
 	}
 
 	public void setAddress(String address) {
+		parseRdata();
 		this.address = address;
 	}
 	
@@ -29,8 +31,7 @@ public class AResourceRecord extends AbstractResourceRecord {
 	
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 			
 		if(rdLength != 4){
 			//an address is 4bytes, so throw an error
@@ -54,32 +55,39 @@ public class AResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
 		//write rdlength
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		for (int i = 0; i < 4; i++) {
 			buffer.writeByte( ipv4Bytes[i]);	
 		}
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return address;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return super.toString() + " AResourceRecord [address=" + address + "]";
 	}
 	
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + address;
 	}
 
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -89,6 +97,7 @@ public class AResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -1,6 +1,7 @@
 package nl.sidn.dnslib.message.records;
 
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import javax.json.Json;
@@ -11,7 +12,9 @@ import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonProcessingException;
 
+import nl.sidn.dnslib.message.DecodeOptions;
 import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.DnsName;
 import nl.sidn.dnslib.message.util.NetworkData;
 import nl.sidn.dnslib.types.ResourceRecordClass;
 import nl.sidn.dnslib.types.ResourceRecordType;
@@ -20,6 +23,8 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 	
 	private static final long serialVersionUID = 1L;
 	
+	protected DnsName dnsName;
+	//presentation format of the owner name, created on demand
 	protected String name;
 	protected char rawType;
 	protected char rawClassz;
@@ -28,12 +33,37 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 	protected long ttl;
 	protected char rdLength;
 	protected byte[] rdata;
+	
+	/* view on the rdata in the decoded message when the rr was decoded with lazy
+	 * rdata, the rdata is parsed by decodeRdata when a field of the rdata is accessed
+	 * for the first time. The view is never used to read directly, parsing uses a
+	 * private duplicate so the reader index of the message is not moved.
+	 */
+	private transient NetworkData data;
+	private transient int rdataOffset;
+	private transient volatile boolean rdataPending;
+	//true while decodeRdata runs, guarded by the lock of this rr
+	private transient boolean rdataParsing;
 
 	public String getName() {
+		if(name == null && dnsName != null){
+			name = dnsName.toString();
+		}
 		return name;
 	}
 	public void setName(String name) {
 		this.name = name;
+		this.dnsName = null;
+	}
+	public DnsName getDnsName() {
+		if(dnsName == null && getName() != null){
+			dnsName = DnsName.fromString(getName());
+		}
+		return dnsName;
+	}
+	public void setDnsName(DnsName dnsName) {
+		this.dnsName = dnsName;
+		this.name = null;
 	}
 	public ResourceRecordType getType() {
 		return type;
@@ -59,7 +89,17 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 	
 	@Override
 	public void decode(NetworkData buffer) {
-		setName(DNSStringUtil.readName(buffer));
+		decode(buffer, false);
+	}
+	
+	/**
+	 * Decode the rr at the reader index of the buffer.
+	 * @param buffer the message
+	 * @param lazyRdata false to parse the rdata now, true to only remember where 
+	 * the rdata is and parse it on first access, see {@link DecodeOptions#withLazyRdata(boolean)}
+	 */
+	public void decode(NetworkData buffer, boolean lazyRdata) {
+		setDnsName(DNSStringUtil.readDnsName(buffer));
 		
 		rawType = buffer.readUnsignedChar();
 		setType(ResourceRecordType.fromValue(rawType));
@@ -70,9 +110,91 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 		//read 16 bits rdlength field 
 		rdLength = buffer.readUnsignedChar();
 	
-		rdata = readRdata(rdLength, buffer);
+		rdataOffset = buffer.getReaderIndex();
+		if(lazyRdata){
+			//do not parse the rdata now, only remember where it is and skip it
+			data = buffer;
+			rdata = null;
+			rdataPending = true;
+			buffer.skipBytes(rdLength);
+			return;
+		}
 		
+		data = null;
+		rdataPending = false;
+		rdata = new byte[rdLength];
+		buffer.readBytes(rdata);
+		buffer.setReaderIndex(rdataOffset);
+		decodeRdata(buffer);
+		buffer.setReaderIndex(rdataOffset + rdLength);
+	}
+	
+	/**
+	 * Parse the rdata fields, the reader index of the buffer is at the start
+	 * of the rdata and rdLength has been set. Subclasses must override this to
+	 * decode their rdata fields.
+	 * @param buffer the message the rr was decoded from
+	 */
+	protected void decodeRdata(NetworkData buffer) {
+		//no rdata fields
+	}
+	
+	/**
+	 * Make sure the rdata fields have been parsed, all methods of subclasses which
+	 * use rdata fields must call this first. The message the rr was decoded from 
+	 * must not have been modified. When the rdata is malformed every call throws
+	 * the decode exception, not only the first. The rdata is parsed once, also when
+	 * the rr is read by multiple threads.
+	 */
+	protected void parseRdata() {
+		if(rdataPending){
+			parsePendingRdata();
+		}
+	}
+	
+	private synchronized void parsePendingRdata() {
+		//decodeRdata may use the getters, these must not parse again
+		if(!rdataPending || rdataParsing){
+			return;
+		}
+		rdataParsing = true;
+		try{
+			decodeRdata(data.duplicate(rdataOffset));
+			rdataPending = false;
+		}finally{
+			rdataParsing = false;
+		}
+	}
+	
+	/**
+	 * Parse the rdata now instead of on first use.
+	 */
+	public void decodeFully() {
+		parseRdata();
+	}
+	
+	/**
+	 * Clear this rr so the object can be reused to decode another rr, see
+	 * {@link ResourceRecordPool}. Subclasses which keep state that is not
+	 * overwritten by decodeRdata (cached values, lists) must override this
+	 * and call super.reset().
+	 */
+	public void reset() {
+		dnsName = null;
+		name = null;
+		rawType = 0;
+		rawClassz = 0;
+		type = null;
+		classz = null;
+		ttl = 0;
+		rdLength = 0;
+		rdata = null;
+		data = null;
+		rdataOffset = 0;
+		rdataPending = false;
+		rdataParsing = false;
 	}
+	
 	@Override
 	public void encode(NetworkData buffer) {
 		DNSStringUtil.writeName(getName(), buffer);
@@ -87,31 +209,65 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 	
 	@Override
 	public String toString() {
-		return "name=" + name + ", type=" + type
+		return "name=" + getName() + ", type=" + type
 				+ ", classz=" + classz + ", ttl=" + ttl + " rdlength=" + (int)rdLength;
 	}
 
-	protected byte[] readRdata(int rdlength, NetworkData buffer){
-		buffer.markReaderIndex();
-		byte[] rdata = new byte[rdlength];
-		buffer.readBytes(rdata);
-		buffer.resetReaderIndex();
-		return rdata;
+	/**
+	 * Write a placeholder for the rdlength, the actual length is filled in by 
+	 * {@link #writeRdlength(NetworkData, int)} after the rdata has been written.
+	 * This is needed because the length of compressed names is not known up front.
+	 * @param buffer the message to write to
+	 * @return the location of the rdlength field
+	 */
+	protected int writeRdlengthPlaceholder(NetworkData buffer){
+		int index = buffer.getWriterIndex();
+		buffer.writeChar(0);
+		return index;
 	}
 	
+	protected void writeRdlength(NetworkData buffer, int index){
+		rdLength = (char)(buffer.getWriterIndex() - (index + 2));
+		buffer.writeChar(index, rdLength);
+	}
+
 	@Override
 	public char getRdlength() {
 		return rdLength;
 	}
 	
+	/**
+	 * @return the raw rdata, for rrs decoded with lazy rdata this is copied from
+	 * the message on first use
+	 */
 	@Override
 	public byte[] getRdata() {
+		if(data != null){
+			return copyRdata();
+		}
+		return rdata;
+	}
+	
+	private synchronized byte[] copyRdata() {
+		if(rdata == null){
+			byte[] copy = new byte[rdLength];
+			data.duplicate(rdataOffset).readBytes(copy);
+			rdata = copy;
+		}
 		return rdata;
 	}
 	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		//the message view is not serialized, parse the rdata first
+		parseRdata();
+		getRdata();
+		out.defaultWriteObject();
+	}
+	
 	@Override
 	public String toZone(int maxLength) {
 		
+		String name = getName();
 		int paddedSize = ( maxLength - name.length() ) + name.length();
 		String ownerWithPadding = StringUtils.rightPad(name, paddedSize, " ");
 		return ownerWithPadding + "\t" + ttl + "\t" + classz + "\t" + type;
@@ -119,7 +275,7 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 	
 	public JsonObjectBuilder createJsonBuilder(){
 		return Json.createObjectBuilder().
-			add("name", name).
+			add("name", getName()).
 			add("type", type.name()).
 			add("class", classz.name()).	
 			add("ttl", ttl).
@@ -138,7 +294,7 @@ public abstract class AbstractResourceRecord implements ResourceRecord, Serializ
 		
 		try {
 			g.writeStartObject();
-			g.writeObjectField("name", name);
+			g.writeObjectField("name", getName());
 			g.writeObjectField("type", type.name());
 			g.writeObjectField("class", classz.name());	
 			g.writeObjectField("ttl", ttl);
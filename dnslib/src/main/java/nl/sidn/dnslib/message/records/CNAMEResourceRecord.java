@@ -18,44 +18,50 @@ public class CNAMEResourceRecord extends AbstractResourceRecord {
 	private String cname;
 	
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 	
 		cname = DNSStringUtil.readName(buffer);
 	}
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		//write rdlength
-		buffer.writeChar(cname.length()+2);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		DNSStringUtil.writeName(cname, buffer);
 		
+		writeRdlength(buffer, rdLengthIndex);
+		
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	public String getCname() {
+		parseRdata();
 		return cname;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "CNAMEResourceRecord [cname=" + cname + "]";
 	}
 	
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + cname;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -65,6 +71,7 @@ public class CNAMEResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -19,40 +19,47 @@ public class HINFOResourceRecord extends AbstractResourceRecord {
 	private String os;		
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 		
-		cpu = DNSStringUtil.readName(buffer);
+		cpu = DNSStringUtil.readCharacterString(buffer);
 		
-		os = DNSStringUtil.readName(buffer);
+		os = DNSStringUtil.readCharacterString(buffer);
 	}
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(cpu.length() + os.length() + 4);
-		DNSStringUtil.writeName(cpu, buffer);
-		DNSStringUtil.writeName(os, buffer);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
+		//character-strings, not names
+		DNSStringUtil.writeCharacterString(cpu, buffer);
+		DNSStringUtil.writeCharacterString(os, buffer);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "HINFOResourceRecord [cpu=" + cpu + ", os=" + os + "]";
 	}
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + cpu + " " + os;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -63,6 +70,7 @@ public class HINFOResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -1,8 +1,6 @@
 package nl.sidn.dnslib.message.records;
 
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 
 import javax.json.Json;
 import javax.json.JsonObject;
@@ -22,16 +20,6 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 
 	private static final Logger LOGGER = Logger.getLogger(LOCResourceRecord.class);
 
-	private static NumberFormat w2, w3;
-
-	static {
-		w2 = new DecimalFormat();
-		w2.setMinimumIntegerDigits(2);
-
-		w3 = new DecimalFormat();
-		w3.setMinimumIntegerDigits(3);
-	}
-
 	/*
 	 * MSB LSB +--+--+--+--+--+--+--+--+--+--+--+--+--+--+--+--+ 0| VERSION |
 	 * SIZE | +--+--+--+--+--+--+--+--+--+--+--+--+--+--+--+--+ 2| HORIZ PRE |
@@ -57,8 +45,7 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 	private long altitude;
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 
 		version = buffer.readUnsignedByte();
 		if (version != 0) {
@@ -88,9 +75,10 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 
 		buffer.writeByte(version);
 
@@ -105,87 +93,108 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 		buffer.writeInt(longitude);
 
 		buffer.writeInt(altitude);
-
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	public String getCacheId() {
+		parseRdata();
 		return null;
 	}
 
 	public short getVersion() {
+		parseRdata();
 		return version;
 	}
 
 	public void setVersion(short version) {
+		parseRdata();
 		this.version = version;
 	}
 
 	public short getSize() {
+		parseRdata();
 		return size;
 	}
 
 	public void setSize(short size) {
+		parseRdata();
 		this.size = size;
 	}
 
 	public short getSize_base() {
+		parseRdata();
 		return size_base;
 	}
 
 	public void setSize_base(short size_base) {
+		parseRdata();
 		this.size_base = size_base;
 	}
 
 	public short getSize_power() {
+		parseRdata();
 		return size_power;
 	}
 
 	public void setSize_power(short size_power) {
+		parseRdata();
 		this.size_power = size_power;
 	}
 
 	public short getHorizontalPrecision() {
+		parseRdata();
 		return horizontalPrecision;
 	}
 
 	public void setHorizontalPrecision(short horizontalPrecision) {
+		parseRdata();
 		this.horizontalPrecision = horizontalPrecision;
 	}
 
 	public short getVerticalPrecision() {
+		parseRdata();
 		return verticalPrecision;
 	}
 
 	public void setVerticalPrecision(short verticalPrecision) {
+		parseRdata();
 		this.verticalPrecision = verticalPrecision;
 	}
 
 	public long getLatitude() {
+		parseRdata();
 		return latitude;
 	}
 
 	public void setLatitude(long latitude) {
+		parseRdata();
 		this.latitude = latitude;
 	}
 
 	public long getLongitude() {
+		parseRdata();
 		return longitude;
 	}
 
 	public void setLongitude(long longitude) {
+		parseRdata();
 		this.longitude = longitude;
 	}
 
 	public long getAltitude() {
+		parseRdata();
 		return altitude;
 	}
 
 	public void setAltitude(long altitude) {
+		parseRdata();
 		this.altitude = altitude;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "LOCResourceRecord [version=" + version + ", size=" + size
 				+ ", size_base=" + size_base + ", size_power=" + size_power
 				+ ", horizontalPrecision=" + horizontalPrecision
@@ -200,6 +209,7 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 	 */
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 
 		StringBuffer sb = new StringBuffer();
 
@@ -214,19 +224,19 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 		sb.append(" ");
 
 		/* Altitude */
-		renderFixedPoint(sb, w2, altitude - 10000000, 100);
+		renderFixedPoint(sb, 2, altitude - 10000000, 100);
 		sb.append("m ");
 
 		/* Size */
-		renderFixedPoint(sb, w2, size, 100);
+		renderFixedPoint(sb, 2, size, 100);
 		sb.append("m ");
 
 		/* Horizontal precision */
-		renderFixedPoint(sb, w2, horizontalPrecision, 100);
+		renderFixedPoint(sb, 2, horizontalPrecision, 100);
 		sb.append("m ");
 
 		/* Vertical precision */
-		renderFixedPoint(sb, w2, verticalPrecision, 100);
+		renderFixedPoint(sb, 2, verticalPrecision, 100);
 		sb.append("m");
 
 		return sb.toString();
@@ -235,6 +245,7 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -250,6 +261,7 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -288,7 +300,7 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 		temp = temp % (60 * 1000);
 		sb.append(" ");
 
-		renderFixedPoint(sb, w3, temp, 1000); /* seconds */
+		renderFixedPoint(sb, 3, temp, 1000); /* seconds */
 		sb.append(" ");
 
 		sb.append(direction);
@@ -296,13 +308,26 @@ public class LOCResourceRecord extends AbstractResourceRecord {
 		return sb.toString();
 	}
 
-	private void renderFixedPoint(StringBuffer sb, NumberFormat formatter,
+	/**
+	 * Zero padding is done here instead of with a shared NumberFormat, a NumberFormat
+	 * is not thread safe.
+	 * @param digits min number of digits of the fraction
+	 */
+	private void renderFixedPoint(StringBuffer sb, int digits,
 			long value, long divisor) {
 		sb.append(value / divisor);
 		value %= divisor;
 		if (value != 0) {
 			sb.append(".");
-			sb.append(formatter.format(value));
+			if(value < 0){
+				sb.append("-");
+				value = -value;
+			}
+			String fraction = Long.toString(value);
+			for (int i = fraction.length(); i < digits; i++) {
+				sb.append("0");
+			}
+			sb.append(fraction);
 		}
 	}
 
@@ -20,8 +20,7 @@ public class MXResourceRecord extends AbstractResourceRecord {
 	
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 		
 		preference = buffer.readUnsignedChar();
 		
@@ -31,35 +30,40 @@ public class MXResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		//write rdlength exchange lentg + prefix and postfix and 2 bytes for preference
-		
-		buffer.writeChar(exchange.length() + 2 + 2);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		//write prefs
 		buffer.writeChar(preference);
 		
 		DNSStringUtil.writeName(exchange, buffer);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "MXResourceRecord [preference=" + (int)preference + ", exchange="
 				+ exchange + "]";
 	}
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + (int)preference + " " + exchange;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -70,6 +74,7 @@ public class MXResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
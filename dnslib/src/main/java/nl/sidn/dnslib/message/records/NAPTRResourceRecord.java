@@ -25,8 +25,7 @@ public class NAPTRResourceRecord extends AbstractResourceRecord {
 	private int length;
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 	
 		order = buffer.readUnsignedChar();
 		
@@ -53,9 +52,12 @@ public class NAPTRResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(length);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
+		
+		buffer.writeChar(order);
 		
 		buffer.writeChar(preference);
 		
@@ -65,15 +67,20 @@ public class NAPTRResourceRecord extends AbstractResourceRecord {
 		
 		DNSStringUtil.writeCharacterString(regexp, buffer);
 		
-		DNSStringUtil.writeName(replacement, buffer);
+		//the replacement must not be compressed (rfc3403)
+		DNSStringUtil.writeName(replacement, buffer, false);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "NAPTRResourceRecord [" + super.toString() + ", order=" + (int)order + ", preference="
 				+ (int)preference + ", flags=" + flags + ", services=" + services
 				+ ", regexp=" + regexp + ", replacement=" + replacement
@@ -82,6 +89,7 @@ public class NAPTRResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + (int)order + " " + preference +
 				" \"" + flags + "\" " + "\"" + services + "\" " +
 				"\"" + regexp + "\" "+ replacement;
@@ -90,6 +98,7 @@ public class NAPTRResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -105,6 +114,7 @@ public class NAPTRResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -19,16 +19,17 @@ public class NSResourceRecord extends AbstractResourceRecord {
 	
 
 	public String getNameserver() {
+		parseRdata();
 		return nameserver;
 	}
 
 	public void setNameserver(String nameserver) {
+		parseRdata();
 		this.nameserver = nameserver;
 	}
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 		
 		setNameserver(DNSStringUtil.readName(buffer));
 		
@@ -36,33 +37,39 @@ public class NSResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		//write rdlength
-		buffer.writeChar(nameserver.length() + 2); //+ 2 for leading lenght byte + the terminating root
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		DNSStringUtil.writeName(nameserver, buffer);
 		
+		writeRdlength(buffer, rdLengthIndex);
+		
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return nameserver;
 	}
 	
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return super.toString() + " NSResourceRecord [nameserver=" + nameserver + "]";
 	}
 
 	
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + nameserver;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -72,6 +79,7 @@ public class NSResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -10,42 +10,30 @@ import nl.sidn.dnslib.message.util.NetworkData;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang.StringUtils;
-import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonGenerator;
 
+/**
+ * Rr of a type which is not supported, the rdata is kept as opaque data and
+ * is only formatted when requested (RFC 3597).
+ */
 public class NotImplementedResourceRecord extends AbstractResourceRecord {
 	
 	private static final long serialVersionUID = 1L;
-	private static final Logger LOGGER = Logger.getLogger(NotImplementedResourceRecord.class);
-
-	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
-		
-		LOGGER.debug("decode unknown RR with name: " + getName());
-		
-		LOGGER.debug(" Unknown RR has size: " + (int)rdLength);
-		
-		LOGGER.debug(toZone(100));
-		
-		if(rdLength > 0 ){
-			buffer.setReaderIndex(buffer.getReaderIndex()+rdLength);
-		}
-	
-	}
 
 	@Override
 	public void encode(NetworkData buffer) {
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
-		buffer.writeBytes(rdata);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
+		buffer.writeBytes(getRdata());
 		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	@Override
 	public String toZone(int maxLength) {
 		StringBuffer b = new StringBuffer();
+		String name = getName();
 		int paddedSize = ( maxLength - name.length() ) + name.length();
 		String ownerWithPadding = StringUtils.rightPad(name, paddedSize, " ");
 		
@@ -68,7 +56,7 @@ public class NotImplementedResourceRecord extends AbstractResourceRecord {
 		b.append("\\# " + (int)rdLength);
 		
 		if(rdLength > 0){
-			b.append(" " + Hex.encodeHexString(rdata));
+			b.append(" " + Hex.encodeHexString(getRdata()));
 		}
 		
 		
@@ -98,7 +86,7 @@ public class NotImplementedResourceRecord extends AbstractResourceRecord {
 				add("class", actualClass).
 				add("type", actualType).
 				add("rdlength", (int)rdLength).
-				add("rdata", Hex.encodeHexString(rdata))).
+				add("rdata", Hex.encodeHexString(getRdata()))).
 			build();
 	}
 	
@@ -125,7 +113,7 @@ public class NotImplementedResourceRecord extends AbstractResourceRecord {
 			g.writeObjectField("class", actualClass);
 			g.writeObjectField("type", actualType);
 			g.writeNumberField("rdLength", rdLength);
-			g.writeObjectField("rdata",  Hex.encodeHexString(rdata));
+			g.writeObjectField("rdata",  Hex.encodeHexString(getRdata()));
 			g.writeEndObject();
 			g.writeEndObject();
 		} catch (IOException e) {
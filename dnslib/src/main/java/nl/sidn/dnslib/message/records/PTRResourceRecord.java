@@ -19,40 +19,45 @@ public class PTRResourceRecord extends AbstractResourceRecord {
 	
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 		
 		ptrDname = DNSStringUtil.readName(buffer);
 	}
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-
-		buffer.writeChar(ptrDname.length() + 2); 
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		DNSStringUtil.writeName(ptrDname, buffer);
 		
+		writeRdlength(buffer, rdLengthIndex);
+		
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "PTRResourceRecord [ptrDname=" + ptrDname + "]";
 	}
 	
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + ptrDname;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -62,6 +67,7 @@ public class PTRResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -4,6 +4,7 @@ import javax.json.JsonObject;
 
 import org.codehaus.jackson.JsonGenerator;
 
+import nl.sidn.dnslib.message.util.DnsName;
 import nl.sidn.dnslib.message.util.NetworkData;
 import nl.sidn.dnslib.types.ResourceRecordClass;
 import nl.sidn.dnslib.types.ResourceRecordType;
@@ -13,6 +14,10 @@ public interface ResourceRecord{
 	String getName();
 
 	void setName(String name);
+	
+	DnsName getDnsName();
+	
+	void setDnsName(DnsName name);
 
 	ResourceRecordType getType();
 
@@ -1,5 +1,8 @@
 package nl.sidn.dnslib.message.records;
 
+import java.util.Arrays;
+import java.util.ServiceLoader;
+
 import nl.sidn.dnslib.message.records.dnssec.DNSKEYResourceRecord;
 import nl.sidn.dnslib.message.records.dnssec.DSResourceRecord;
 import nl.sidn.dnslib.message.records.dnssec.NSEC3ParamResourceRecord;
@@ -10,6 +13,18 @@ import nl.sidn.dnslib.message.records.edns0.OPTResourceRecord;
 
 import org.apache.log4j.Logger;
 
+import com.google.common.base.Supplier;
+
+/**
+ * Creates the rr object for a type. The supplier for each of the 65536 possible types 
+ * is kept in a table, so finding the supplier is a single array lookup. Types without
+ * a supplier of their own are decoded as opaque data (RFC 3597) by 
+ * {@link NotImplementedResourceRecord}.
+ * 
+ * Additional types can be registered with {@link #register(int, Supplier)} or by a
+ * {@link ResourceRecordProvider} which is found by the {@link ServiceLoader} when the
+ * factory is created.
+ */
 public class ResourceRecordFactory {
 	
 	private static final Logger LOGGER = Logger.getLogger(ResourceRecordFactory.class);
@@ -42,67 +57,197 @@ public class ResourceRecordFactory {
 		NSEC3			50
 	 */
 	
+	private static final int TYPES = 65536;
+	
+	private static final Supplier<ResourceRecord> UNKNOWN = new Supplier<ResourceRecord>() {
+		@Override
+		public ResourceRecord get() {
+			return new NotImplementedResourceRecord();
+		}
+	};
+	
 	private static ResourceRecordFactory instance = new ResourceRecordFactory();
+	
+	/* supplier for every type, a new table is created when a type is registered
+	 * so the table can be used without locking.
+	 */
+	private volatile Supplier<? extends ResourceRecord>[] suppliers;
 
-	private ResourceRecordFactory(){};
+	@SuppressWarnings("unchecked")
+	private ResourceRecordFactory(){
+		Supplier<? extends ResourceRecord>[] table = (Supplier<? extends ResourceRecord>[])new Supplier<?>[TYPES];
+		Arrays.fill(table, UNKNOWN);
+		suppliers = table;
+		
+		registerDefaults();
+		
+		for (ResourceRecordProvider provider : ServiceLoader.load(ResourceRecordProvider.class)) {
+			LOGGER.debug("Register rr types of provider: " + provider.getClass().getName());
+			provider.registerTypes(this);
+		}
+	};
 	
 	public static ResourceRecordFactory getInstance() {
 		return instance;
 	}
 
 	public ResourceRecord createResourceRecord(int type){
-
-		switch (type) {
-		case 1:
-			return new AResourceRecord();
-		case 2:
-			return new NSResourceRecord();
-		case 28:
-			return new AAAAResourceRecord();
-		case 5:
-			return new CNAMEResourceRecord();	
-		case 6:
-			return new SOAResourceRecord();
-		case 12:
-			return new PTRResourceRecord();
-		case 13:
-			return new HINFOResourceRecord();
-		case 15:
-			return new MXResourceRecord();	
-		case 16:
-			return new TXTResourceRecord();
-		case 29:
-			return new LOCResourceRecord();
-		case 33:
-			return new SRVResourceRecord();
-		case 35:
-			return new NAPTRResourceRecord();			
-		case 41:
-			return new OPTResourceRecord();
-		case 43:
-			return new DSResourceRecord();
-		case 44:
-			return new SSHFPResourceRecord();
-		case 46:
-			return new RRSIGResourceRecord();
-		case 47:
-			return new NSECResourceRecord();
-		case 48:
-			return new DNSKEYResourceRecord();
-		case 50:
-			return new NSEC3ResourceRecord();
-		case 51:
-			return new NSEC3ParamResourceRecord();
-		case 99:
-			return new SPFResourceRecord();
-			
-			
-			
+		return suppliers[type & 0xFFFF].get();
 	}
-		
-		LOGGER.debug("Unknown RR with type " + type);
-		return new NotImplementedResourceRecord();
+	
+	/**
+	 * Use a supplier to create the rrs of a type, replaces the current supplier of the type.
+	 * @param type the rr type
+	 * @param supplier creates a new rr for each call
+	 */
+	public synchronized void register(int type, Supplier<? extends ResourceRecord> supplier){
+		if(type < 0 || type >= TYPES){
+			throw new IllegalArgumentException("Invalid rr type: " + type);
+		}
+		if(supplier == null){
+			throw new IllegalArgumentException("No supplier for rr type: " + type);
+		}
+		Supplier<? extends ResourceRecord>[] table = Arrays.copyOf(suppliers, TYPES);
+		table[type] = supplier;
+		suppliers = table;
+	}
+	
+	/**
+	 * @param type the rr type
+	 * @return true if the type has a supplier, false if the type is decoded as opaque data
+	 */
+	public boolean isRegistered(int type){
+		return suppliers[type & 0xFFFF] != UNKNOWN;
+	}
+	
+	private void registerDefaults(){
+		Supplier<? extends ResourceRecord>[] table = suppliers;
+		table[1] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new AResourceRecord();
+			}
+		};
+		table[2] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new NSResourceRecord();
+			}
+		};
+		table[5] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new CNAMEResourceRecord();
+			}
+		};
+		table[6] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new SOAResourceRecord();
+			}
+		};
+		table[12] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new PTRResourceRecord();
+			}
+		};
+		table[13] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new HINFOResourceRecord();
+			}
+		};
+		table[15] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new MXResourceRecord();
+			}
+		};
+		table[16] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new TXTResourceRecord();
+			}
+		};
+		table[28] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new AAAAResourceRecord();
+			}
+		};
+		table[29] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new LOCResourceRecord();
+			}
+		};
+		table[33] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new SRVResourceRecord();
+			}
+		};
+		table[35] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new NAPTRResourceRecord();
+			}
+		};
+		table[41] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new OPTResourceRecord();
+			}
+		};
+		table[43] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new DSResourceRecord();
+			}
+		};
+		table[44] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new SSHFPResourceRecord();
+			}
+		};
+		table[46] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new RRSIGResourceRecord();
+			}
+		};
+		table[47] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new NSECResourceRecord();
+			}
+		};
+		table[48] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new DNSKEYResourceRecord();
+			}
+		};
+		table[50] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new NSEC3ResourceRecord();
+			}
+		};
+		table[51] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new NSEC3ParamResourceRecord();
+			}
+		};
+		table[99] = new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new SPFResourceRecord();
+			}
+		};
 	}
-
 
 }
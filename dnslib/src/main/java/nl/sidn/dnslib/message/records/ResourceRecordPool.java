@@ -0,0 +1,164 @@
+package nl.sidn.dnslib.message.records;
+
+/**
+ * Pool of rr objects which can be reused to decode the next message, the rrs
+ * are kept per type. A pool is not thread safe, use {@link #forCurrentThread()}
+ * to get the pool of the current thread.
+ *
+ * e.g. a decoding worker which reuses the same message and rr objects:
+ * <pre>
+ * DecodeOptions options = new DecodeOptions().withRecordPool(ResourceRecordPool.forCurrentThread());
+ * Message msg = new Message();
+ * for(NetworkData data: packets){
+ *     msg.decode(data, options);
+ *     ...
+ * }
+ * </pre>
+ *
+ * Only subclasses of {@link AbstractResourceRecord} are pooled, other rrs are ignored by release.
+ */
+public class ResourceRecordPool {
+
+	public static final int DEFAULT_MAX_PER_TYPE = 256;
+
+	//registered types from 1 to MAX_TYPE-1 have their own list, all unregistered types share list 0
+	private static final int MAX_TYPE = 256;
+	//registered types above MAX_TYPE are not pooled
+	private static final int NO_LIST = -1;
+
+	private static final ThreadLocal<ResourceRecordPool> POOLS = new ThreadLocal<ResourceRecordPool>(){
+		@Override
+		protected ResourceRecordPool initialValue() {
+			return new ResourceRecordPool();
+		}
+	};
+
+	private final int maxPerType;
+	private final AbstractResourceRecord[][] free = new AbstractResourceRecord[MAX_TYPE][];
+	private final int[] sizes = new int[MAX_TYPE];
+
+	private long created;
+	private long reused;
+
+	public ResourceRecordPool(){
+		this(DEFAULT_MAX_PER_TYPE);
+	}
+
+	/**
+	 * @param maxPerType max number of free rrs kept for each type, more rrs are left to the gc
+	 */
+	public ResourceRecordPool(int maxPerType){
+		if(maxPerType < 1){
+			throw new IllegalArgumentException("Invalid pool size: " + maxPerType);
+		}
+		this.maxPerType = maxPerType;
+	}
+
+	/**
+	 * @return the pool of the current thread
+	 */
+	public static ResourceRecordPool forCurrentThread(){
+		return POOLS.get();
+	}
+
+	/**
+	 * Get an rr for the type, a free rr is reused if available
+	 * otherwise a new rr is created by the {@link ResourceRecordFactory}.
+	 * @param type the rr type
+	 * @return an empty rr
+	 */
+	public ResourceRecord acquire(int type){
+		int index = index(type);
+		int size = index == NO_LIST? 0: sizes[index];
+		if(size > 0){
+			size--;
+			AbstractResourceRecord rr = free[index][size];
+			free[index][size] = null;
+			sizes[index] = size;
+			reused++;
+			return rr;
+		}
+		created++;
+		return ResourceRecordFactory.getInstance().createResourceRecord(type);
+	}
+
+	/**
+	 * Return an rr to the pool, the rr is reset and must not be used anymore by the caller.
+	 * @param rr rr which is not used anymore
+	 */
+	public void release(ResourceRecord rr){
+		if(!(rr instanceof AbstractResourceRecord)){
+			return;
+		}
+		int index = 0;
+		if(!(rr instanceof NotImplementedResourceRecord)){
+			if(rr.getType() == null){
+				return;
+			}
+			index = index(rr.getType().getValue());
+			if(index == NO_LIST || index == 0){
+				//type without a list of its own
+				return;
+			}
+		}
+
+		int size = sizes[index];
+		if(size == maxPerType){
+			return;
+		}
+		AbstractResourceRecord[] list = free[index];
+		if(list == null || list.length == size){
+			AbstractResourceRecord[] larger = new AbstractResourceRecord[Math.min(maxPerType, Math.max(16, size * 2))];
+			if(list != null){
+				System.arraycopy(list, 0, larger, 0, size);
+			}
+			free[index] = list = larger;
+		}
+		AbstractResourceRecord record = (AbstractResourceRecord)rr;
+		record.reset();
+		list[size] = record;
+		sizes[index] = size + 1;
+	}
+
+	/**
+	 * @return list of the type, 0 for unregistered types or NO_LIST for registered
+	 * types without a list of their own
+	 */
+	private int index(int type){
+		if(!ResourceRecordFactory.getInstance().isRegistered(type)){
+			return 0;
+		}
+		return type > 0 && type < MAX_TYPE? type: NO_LIST;
+	}
+
+	/**
+	 * @return number of free rrs in the pool
+	 */
+	public int size(){
+		int size = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			size = size + sizes[i];
+		}
+		return size;
+	}
+
+	/**
+	 * @return number of rrs created because no free rr was available
+	 */
+	public long getCreated() {
+		return created;
+	}
+
+	/**
+	 * @return number of rrs which have been reused
+	 */
+	public long getReused() {
+		return reused;
+	}
+
+	@Override
+	public String toString() {
+		return "ResourceRecordPool [size=" + size() + ", created=" + created + ", reused=" + reused + "]";
+	}
+
+}
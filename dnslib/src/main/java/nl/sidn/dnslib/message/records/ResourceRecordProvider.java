@@ -0,0 +1,15 @@
+package nl.sidn.dnslib.message.records;
+
+/**
+ * Registers additional rr types with the {@link ResourceRecordFactory}, e.g. private
+ * types. Implementations are found with the {@link java.util.ServiceLoader}, list the
+ * implementation class in META-INF/services/nl.sidn.dnslib.message.records.ResourceRecordProvider
+ */
+public interface ResourceRecordProvider {
+
+	/**
+	 * Register the types of this provider with {@link ResourceRecordFactory#register(int, com.google.common.base.Supplier)}
+	 * @param factory the factory
+	 */
+	void registerTypes(ResourceRecordFactory factory);
+}
@@ -25,8 +25,7 @@ public class SOAResourceRecord extends AbstractResourceRecord {
 	
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 	
 		mName = DNSStringUtil.readName(buffer);
 		
@@ -45,15 +44,11 @@ public class SOAResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		/* length is names + leading size byte and terminating zero byte
-		 * plus 5 4byte fields. 
-		 */
-	    char rdLength = (char) ((mName.length() + 2) + (rName.length() + 2) +  (5 * 4));
-	    
-	    //write rdlength
-		buffer.writeChar(rdLength);
+		//length depends on the compression of the names, write it afterwards
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		DNSStringUtil.writeName(mName, buffer);
 		
@@ -69,14 +64,17 @@ public class SOAResourceRecord extends AbstractResourceRecord {
 		
 		buffer.writeInt( (int) minimum);
 		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "SOAResourceRecord [mName=" + mName + ", rName=" + rName
 				+ ", serial=" + serial + ", refresh=" + refresh + ", retry="
 				+ retry + ", expire=" + expire + ", minimum=" + minimum + "]";
@@ -84,12 +82,14 @@ public class SOAResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + mName + " " + rName + " " + serial + " " + refresh + " "
 				+ retry + " " + expire + " " + minimum;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -105,6 +105,7 @@ public class SOAResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 		try {
 			super.toJSon(g);
 			g.writeObjectFieldStart("rdata");
@@ -123,66 +124,82 @@ public class SOAResourceRecord extends AbstractResourceRecord {
 	}
 	
 	public String getmName() {
+		parseRdata();
 		return mName;
 	}
 
 	public void setmName(String mName) {
+		parseRdata();
 		this.mName = mName;
 	}
 
 	public String getrName() {
+		parseRdata();
 		return rName;
 	}
 
 	public void setrName(String rName) {
+		parseRdata();
 		this.rName = rName;
 	}
 
 	public long getSerial() {
+		parseRdata();
 		return serial;
 	}
 
 	public void setSerial(long serial) {
+		parseRdata();
 		this.serial = serial;
 	}
 
 	public long getRefresh() {
+		parseRdata();
 		return refresh;
 	}
 
 	public void setRefresh(long refresh) {
+		parseRdata();
 		this.refresh = refresh;
 	}
 
 	public long getRetry() {
+		parseRdata();
 		return retry;
 	}
 
 	public void setRetry(long retry) {
+		parseRdata();
 		this.retry = retry;
 	}
 
 	public long getExpire() {
+		parseRdata();
 		return expire;
 	}
 
 	public void setExpire(long expire) {
+		parseRdata();
 		this.expire = expire;
 	}
 
 	public long getMinimum() {
+		parseRdata();
 		return minimum;
 	}
 
 	public void setMinimum(long minimum) {
+		parseRdata();
 		this.minimum = minimum;
 	}
 
 	public char getRdLength() {
+		parseRdata();
 		return rdLength;
 	}
 
 	public void setRdLength(char rdLength) {
+		parseRdata();
 		this.rdLength = rdLength;
 	}
 	
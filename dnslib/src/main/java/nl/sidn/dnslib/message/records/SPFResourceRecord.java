@@ -23,12 +23,14 @@ public class SPFResourceRecord extends TXTResourceRecord {
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "SPFResourceRecord [value=" + value + "]";
 	}
 	
 
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -38,6 +40,7 @@ public class SPFResourceRecord extends TXTResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
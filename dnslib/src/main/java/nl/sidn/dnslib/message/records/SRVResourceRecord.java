@@ -22,8 +22,7 @@ public class SRVResourceRecord extends AbstractResourceRecord {
 
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 	
 		priority = buffer.readUnsignedChar();
 		
@@ -36,9 +35,10 @@ public class SRVResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(6 + target.length() + 2);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		buffer.writeChar(priority);
 		
@@ -46,15 +46,20 @@ public class SRVResourceRecord extends AbstractResourceRecord {
 		
 		buffer.writeChar(port);
 
-		DNSStringUtil.writeName(target, buffer);
+		//the target must not be compressed (rfc2782)
+		DNSStringUtil.writeName(target, buffer, false);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
+		parseRdata();
 		return null;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "SRVResourceRecord [" + super.toString() + ", priority=" + (int)priority + ", weight=" + (int)weight
 				+ ", port=" + (int)port + ", target=" + target + "]";
 	}
@@ -62,6 +67,7 @@ public class SRVResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + (int)priority + " " + (int)weight
 				+ " " + (int)port + " " + target;
 	}
@@ -69,6 +75,7 @@ public class SRVResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -81,6 +88,7 @@ public class SRVResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -22,8 +22,7 @@ public class SSHFPResourceRecord extends AbstractResourceRecord {
 	
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 			
 		algorithm = buffer.readUnsignedByte();
 		
@@ -35,46 +34,57 @@ public class SSHFPResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
 		//write rdlength
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
-		buffer.writeBytes(rdata);
+		buffer.writeBytes(getRdata());
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	public short getAlgorithm() {
+		parseRdata();
 		return algorithm;
 	}
 
 	public void setAlgorithm(short algorithm) {
+		parseRdata();
 		this.algorithm = algorithm;
 	}
 
 	public short getFingerprintType() {
+		parseRdata();
 		return fingerprintType;
 	}
 
 	public void setFingerprintType(short fingerprintType) {
+		parseRdata();
 		this.fingerprintType = fingerprintType;
 	}
 
 	public byte[] getFingerprint() {
+		parseRdata();
 		return fingerprint;
 	}
 
 	public void setFingerprint(byte[] fingerprint) {
+		parseRdata();
 		this.fingerprint = fingerprint;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "SSHFPResourceRecord [algorithm=" + algorithm
 				+ ", fingerprintType=" + fingerprintType + "]";
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -86,6 +96,7 @@ public class SSHFPResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -19,8 +19,14 @@ public class TXTResourceRecord extends AbstractResourceRecord {
 
 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	public void reset() {
+		super.reset();
+		value = "";
+		data = null;
+	}
+	
+	@Override
+	protected void decodeRdata(NetworkData buffer) {
 		//the txt rdata contains <length byte><string bytes>
 		int bytesRead = 0;
 		
@@ -35,13 +41,23 @@ public class TXTResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 
 		//write rdlength
-		buffer.writeChar(rdLength);
-		buffer.writeByte(data.length);
-		buffer.writeBytes(data);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
+		
+		//write the value as one or more character-strings of max 255 bytes
+		byte[] bytes = value.getBytes();
+		int offset = 0;
+		do{
+			int length = Math.min(bytes.length - offset, 255);
+			buffer.writeByte(length);
+			buffer.writeBytes(bytes, offset, length);
+			offset = offset + length;
+		}while(offset < bytes.length);
 		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 	
 	public String getCacheId(){
@@ -50,17 +66,20 @@ public class TXTResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "TXTResourceRecord [value=" + value + "]";
 	}
 
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + "\t" + value;
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -70,6 +89,7 @@ public class TXTResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -83,10 +103,12 @@ public class TXTResourceRecord extends AbstractResourceRecord {
 	}
 
 	public String getValue() {
+		parseRdata();
 		return value;
 	}
 
 	public void setValue(String value) {
+		parseRdata();
 		this.value = value;
 	}
 
@@ -19,6 +19,9 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 	
 	private static final long serialVersionUID = 1L;
 	
+	//thread safe, shared by all records
+	private static final Base64 ZONE_BASE64 = new Base64(36, "\n\t\t\t\t\t\t".getBytes());
+	
 	/*
 	   The RDATA for a DNSKEY RR consists of a 2 octet Flags Field, a 1
 	   octet Protocol Field, a 1 octet Algorithm Field, and the Public Key
@@ -49,8 +52,13 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 	
 	
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	public void reset() {
+		super.reset();
+		publicKey = null;
+	}
+	
+	@Override
+	protected void decodeRdata(NetworkData buffer) {
 		
 		flags = buffer.readUnsignedChar();
 		
@@ -63,9 +71,7 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 		keydata = new byte[keysize];
 		buffer.readBytes(keydata);
 	
-		publicKey = KeyUtil.createRSAPublicKey(keydata);
-		
-		keytag =  KeyUtil.createKeyTag(rdata, algorithm);
+		keytag =  KeyUtil.createKeyTag(getRdata(), algorithm);
 		
 		isZoneKey = KeyUtil.isZoneKey(this);
 		
@@ -73,6 +79,7 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 	}
 	
 	public boolean isValid(){
+		parseRdata();
 
 		if(protocol != 3){
 			//invalid key, skip checking this rrsig
@@ -91,9 +98,10 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		buffer.writeChar(flags);
 		
@@ -102,10 +110,13 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 		buffer.writeByte(algorithm.getValue());
 		
 		buffer.writeBytes(keydata);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "DNSKEYResourceRecord [flags=" + (int) flags + ", protocol="
 				+ protocol + ", algorithm=" + algorithm + ", rdLength=" + (int)rdLength
 				+ ", isZoneKey=" + isZoneKey + ", isSepKey=" + isSepKey + ", keytag=" + keytag + "]";
@@ -115,12 +126,14 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		return super.toZone(maxLength) + " " + (int)flags + " " + protocol + " " + algorithm.getValue() +
-				"(\n\t\t\t\t\t\t" + new Base64(36, "\n\t\t\t\t\t\t".getBytes()).encodeAsString(keydata) + " )";
+				"(\n\t\t\t\t\t\t" + ZONE_BASE64.encodeAsString(keydata) + " )";
 	}
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -135,6 +148,7 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -154,26 +168,32 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 	}
 
 	public char getFlags() {
+		parseRdata();
 		return flags;
 	}
 
 	public void setFlags(char flags) {
+		parseRdata();
 		this.flags = flags;
 	}
 
 	public short getProtocol() {
+		parseRdata();
 		return protocol;
 	}
 
 	public void setProtocol(byte protocol) {
+		parseRdata();
 		this.protocol = protocol;
 	}
 
 	public AlgorithmType getAlgorithm() {
+		parseRdata();
 		return algorithm;
 	}
 
 	public void setAlgorithm(AlgorithmType algorithm) {
+		parseRdata();
 		this.algorithm = algorithm;
 	}
 
@@ -181,38 +201,50 @@ public class DNSKEYResourceRecord extends AbstractResourceRecord {
 	
 	
 	public PublicKey getPublicKey() {
+		parseRdata();
+		if(publicKey == null && keydata != null){
+			//creating the key is expensive, only do this when the key is used
+			publicKey = KeyUtil.createRSAPublicKey(keydata);
+		}
 		return publicKey;
 	}
 
 	public void setPublicKey(PublicKey publicKey) {
+		parseRdata();
 		this.publicKey = publicKey;
 	}
 
 	
 
 	public byte[] getKeydata() {
+		parseRdata();
 		return keydata;
 	}
 
 	public void setKeydata(byte[] keydata) {
+		parseRdata();
 		this.keydata = keydata;
 	}
 	
 
 
 	public int getKeytag() {
+		parseRdata();
 		return keytag;
 	}
 
 	public void setKeytag(int keytag) {
+		parseRdata();
 		this.keytag = keytag;
 	}
 
 	public boolean isZoneKey() {
+		parseRdata();
 		return isZoneKey;
 	}
 
 	public boolean isSepKey() {
+		parseRdata();
 		return isSepKey;
 	}
 
@@ -44,12 +44,18 @@ public class DSResourceRecord extends AbstractResourceRecord {
 	private DigestType digestType;
 	private byte[] digest;
 	
+	//hex presentation of the digest, created on demand
 	private String hex;
 	
 	
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	public void reset() {
+		super.reset();
+		hex = null;
+	}
+	
+	@Override
+	protected void decodeRdata(NetworkData buffer) {
 			
 		keytag = buffer.readUnsignedChar();
 		
@@ -61,16 +67,15 @@ public class DSResourceRecord extends AbstractResourceRecord {
 		
 		digest = new byte[rdLength - 4];
 		buffer.readBytes(digest);
-	
-		hex = new String(Hex.encodeHex(digest));
 	}
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		buffer.writeChar(keytag);
 	
@@ -79,11 +84,13 @@ public class DSResourceRecord extends AbstractResourceRecord {
 		buffer.writeByte(digestType.getValue());
 		
 		buffer.writeBytes(digest);
-	
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "DSResourceRecord [rdLength=" + (int) rdLength + ", keytag=" + (int)keytag
 				+ ", algorithm=" + algorithm + ", digestType=" + digestType
 				+ ", digest=" + Arrays.toString(digest) + "]";
@@ -91,18 +98,20 @@ public class DSResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
 				add("keytag", (int)keytag).
 				add("algorithm", algorithm != null?algorithm.name() : "").
 				add("digest-type", digestType.name()).
-				add("digest", hex)).
+				add("digest", getReadableHash())).
 			build();
 	}
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -110,7 +119,7 @@ public class DSResourceRecord extends AbstractResourceRecord {
 			g.writeNumberField("flags", (int)keytag);
 			g.writeObjectField("algorithm", algorithm != null?algorithm.name() : "");
 			g.writeObjectField("digest-type", digestType.name());
-			g.writeObjectField("digest", hex);
+			g.writeObjectField("digest", getReadableHash());
 			
 			g.writeEndObject();
 			g.writeEndObject();
@@ -120,42 +129,55 @@ public class DSResourceRecord extends AbstractResourceRecord {
 	}
 
 	public char getKeytag() {
+		parseRdata();
 		return keytag;
 	}
 
 	public void setKeytag(char keytag) {
+		parseRdata();
 		this.keytag = keytag;
 	}
 
 	public AlgorithmType getAlgorithm() {
+		parseRdata();
 		return algorithm;
 	}
 
 	public void setAlgorithm(AlgorithmType algorithm) {
+		parseRdata();
 		this.algorithm = algorithm;
 	}
 
 	public DigestType getDigestType() {
+		parseRdata();
 		return digestType;
 	}
 
 	public void setDigestType(DigestType digestType) {
+		parseRdata();
 		this.digestType = digestType;
 	}
 
 	public byte[] getDigest() {
+		parseRdata();
 		return digest;
 	}
 
 	public void setDigest(byte[] digest) {
+		parseRdata();
 		this.digest = digest;
 	}
 
 	public String getReadableHash() {
+		parseRdata();
+		if(hex == null && digest != null){
+			hex = new String(Hex.encodeHex(digest));
+		}
 		return hex;
 	}
 	
 	public void setReadableHash(String hex) {
+		parseRdata();
 		this.hex = hex;
 	}
 
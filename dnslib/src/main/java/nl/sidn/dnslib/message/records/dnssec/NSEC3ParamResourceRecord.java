@@ -53,8 +53,7 @@ public class NSEC3ParamResourceRecord extends AbstractResourceRecord{
 	private byte[] salt;
 		
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 		
 		hashAlgorithm = DigestType.fromValue(buffer.readUnsignedByte());
 		
@@ -76,55 +75,69 @@ public class NSEC3ParamResourceRecord extends AbstractResourceRecord{
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
-		buffer.writeBytes(rdata);
+		buffer.writeBytes(getRdata());
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	public DigestType getHashAlgorithm() {
+		parseRdata();
 		return hashAlgorithm;
 	}
 
 	public void setHashAlgorithm(DigestType hashAlgorithm) {
+		parseRdata();
 		this.hashAlgorithm = hashAlgorithm;
 	}
 
 	public short getFlags() {
+		parseRdata();
 		return flags;
 	}
 
 	public void setFlags(short flags) {
+		parseRdata();
 		this.flags = flags;
 	}
 
 	public long getIterations() {
+		parseRdata();
 		return iterations;
 	}
 
 	public void setIterations(char iterations) {
+		parseRdata();
 		this.iterations = iterations;
 	}
 
 	public short getSaltLength() {
+		parseRdata();
 		return saltLength;
 	}
 
 	public void setSaltLength(short saltLength) {
+		parseRdata();
 		this.saltLength = saltLength;
 	}
 
 	public byte[] getSalt() {
+		parseRdata();
 		return salt;
 	}
 
 	public void setSalt(byte[] salt) {
+		parseRdata();
 		this.salt = salt;
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "NSEC3Param [ " +super.toString() + " hashAlgorithm=" + hashAlgorithm + ", flags="
 				+ flags + ", optout=" + optout + ", iterations=" + (int)iterations + ", saltLength="
 				+ saltLength + "]";
@@ -132,6 +145,7 @@ public class NSEC3ParamResourceRecord extends AbstractResourceRecord{
 	
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		StringBuffer b = new StringBuffer();
 		b.append(super.toZone(maxLength) + "\t" + hashAlgorithm.getValue() + " " + flags + " " +
 				+ (int)iterations + " ");
@@ -147,6 +161,7 @@ public class NSEC3ParamResourceRecord extends AbstractResourceRecord{
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
 			add("rdata", Json.createObjectBuilder().
@@ -161,6 +176,7 @@ public class NSEC3ParamResourceRecord extends AbstractResourceRecord{
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
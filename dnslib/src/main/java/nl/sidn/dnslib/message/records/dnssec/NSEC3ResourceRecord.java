@@ -1,7 +1,6 @@
 package nl.sidn.dnslib.message.records.dnssec;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -13,6 +12,7 @@ import javax.json.JsonObjectBuilder;
 import nl.sidn.dnslib.message.records.AbstractResourceRecord;
 import nl.sidn.dnslib.message.util.NetworkData;
 import nl.sidn.dnslib.types.DigestType;
+import nl.sidn.dnslib.types.ResourceRecordType;
 import nl.sidn.dnslib.types.TypeMap;
 
 import org.apache.commons.codec.binary.Base32;
@@ -51,23 +51,33 @@ public class NSEC3ResourceRecord extends AbstractResourceRecord {
 	 */
 
 	private DigestType hashAlgorithm;
+	//algorithm octet as found on the wire, also for algorithms without a DigestType
+	private short hashAlgorithmValue;
 	private short flags;
 	private char iterations;
 	private short saltLength;
 	private byte[] salt;
 	private short hashLength;
+	private byte[] nexthash;
+	//base32 presentation of the next hashed owner, created on demand
 	private String nexthashedownername;
-	protected List<TypeMap> types = new ArrayList<>();
+	protected TypeBitmap types = new TypeBitmap();
 	private boolean optout;
 	
 	private static final int RDATA_FIXED_FIELDS_LENGTH = 6;
 	private static final byte FLAG_OPTOUT_MASK = 0x01; 
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	public void reset() {
+		super.reset();
+		nexthashedownername = null;
+		types.clear();
+	}
+	
+	@Override
+	protected void decodeRdata(NetworkData buffer) {
 	
-		short ha = buffer.readUnsignedByte();
-		hashAlgorithm = DigestType.fromValue(ha);
+		hashAlgorithmValue = buffer.readUnsignedByte();
+		hashAlgorithm = DigestType.fromValue(hashAlgorithmValue);
 		
 		flags = buffer.readUnsignedByte();
 		optout = (flags & FLAG_OPTOUT_MASK) == FLAG_OPTOUT_MASK;
@@ -81,30 +91,38 @@ public class NSEC3ResourceRecord extends AbstractResourceRecord {
 		}
 		
 		hashLength = buffer.readUnsignedByte();
-		byte[] hash = new byte[hashLength];
+		nexthash = new byte[hashLength];
 		if(hashLength > 0){
-			buffer.readBytes(hash);
+			buffer.readBytes(nexthash);
 		}
 		
-		Base32 b32 = new Base32(true);
-		nexthashedownername = b32.encodeAsString(hash);
-		
 		int octetAvailable = rdLength - (RDATA_FIXED_FIELDS_LENGTH + saltLength + hashLength);
-		new NSECTypeDecoder().decode(octetAvailable, buffer, types);
+		types.decode(buffer, octetAvailable);
 			
 	}
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
+		
+		buffer.writeByte(hashAlgorithmValue);
+		buffer.writeByte(flags);
+		buffer.writeChar(iterations);
+		buffer.writeByte(salt.length);
+		buffer.writeBytes(salt);
+		buffer.writeByte(nexthash.length);
+		buffer.writeBytes(nexthash);
+		types.encode(buffer);
 		
-		buffer.writeBytes(rdata);
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "NSEC3ResourceRecord ["+ super.toString() + " hashAlgorithm="
 				+ hashAlgorithm + ", flags=" + flags + ", iterations="
 				+ (int)iterations + ", saltLength=" + saltLength + ", salt="
@@ -114,20 +132,21 @@ public class NSEC3ResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		builder.
 			add("rdata", Json.createObjectBuilder().
-				add("hash-algorithm", hashAlgorithm.name()).
+				add("hash-algorithm", getHashAlgorithmName()).
 				add("flags", flags).
 				add("iterations", (int)iterations).
 				add("salt-length", saltLength).
 				add("salt", Hex.encodeHexString(salt)).
 				add("hash-length", (int)hashLength).
-				add("nxt-own-name", nexthashedownername));
+				add("nxt-own-name", getNexthashedownername()));
 				
 				JsonArrayBuilder typeBuilder = Json.createArrayBuilder();
-				for (TypeMap type : types) {
-					typeBuilder.add(type.getType().name());
+				for (int type = types.next(0); type != -1; type = types.next(type + 1)) {
+					typeBuilder.add(TypeBitmap.typeOf(type).name());
 				}
 			return builder.add("types", typeBuilder.build()).
 			build();
@@ -135,21 +154,22 @@ public class NSEC3ResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
 			g.writeObjectFieldStart("rdata");
-			g.writeObjectField("hash-algorithm",  hashAlgorithm.name());
+			g.writeObjectField("hash-algorithm",  getHashAlgorithmName());
 			g.writeNumberField("flags", flags);
 			g.writeNumberField("iterations", (int)iterations);
 			g.writeNumberField("salt-length", saltLength);
 			g.writeObjectField("salt", Hex.encodeHexString(salt));
 			g.writeNumberField("hash-length", (int)hashLength);
-			g.writeObjectField("nxt-own-name", nexthashedownername);
+			g.writeObjectField("nxt-own-name", getNexthashedownername());
 			
 			g.writeArrayFieldStart("types");
-			for (TypeMap type : types) {
-				g.writeString(type.getType().name());
+			for (int type = types.next(0); type != -1; type = types.next(type + 1)) {
+				g.writeString(TypeBitmap.typeOf(type).name());
 			}
 			g.writeEndArray();
 			
@@ -161,78 +181,123 @@ public class NSEC3ResourceRecord extends AbstractResourceRecord {
 	}
 
 	public DigestType getHashAlgorithm() {
+		parseRdata();
 		return hashAlgorithm;
 	}
 
 	public void setHashAlgorithm(DigestType hashAlgorithm) {
+		parseRdata();
 		this.hashAlgorithm = hashAlgorithm;
+		this.hashAlgorithmValue = (short)hashAlgorithm.getValue();
+	}
+
+	private String getHashAlgorithmName() {
+		return hashAlgorithm != null ? hashAlgorithm.name() : String.valueOf(hashAlgorithmValue);
 	}
 
 	public short getFlags() {
+		parseRdata();
 		return flags;
 	}
 
 	public void setFlags(short flags) {
+		parseRdata();
 		this.flags = flags;
 	}
 
 	public char getIterations() {
+		parseRdata();
 		return iterations;
 	}
 
 	public void setIterations(char iterations) {
+		parseRdata();
 		this.iterations = iterations;
 	}
 
 	public short getSaltLength() {
+		parseRdata();
 		return saltLength;
 	}
 
 	public void setSaltLength(short saltLength) {
+		parseRdata();
 		this.saltLength = saltLength;
 	}
 
 	public byte[] getSalt() {
+		parseRdata();
 		return salt;
 	}
 
 	public void setSalt(byte[] salt) {
+		parseRdata();
 		this.salt = salt;
 	}
 
 	public short getHashLength() {
+		parseRdata();
 		return hashLength;
 	}
 
 	public void setHashLength(short hashLength) {
+		parseRdata();
 		this.hashLength = hashLength;
 	}
 
 	public String getNexthashedownername() {
+		parseRdata();
+		if(nexthashedownername == null && nexthash != null){
+			nexthashedownername = new Base32(true).encodeAsString(nexthash);
+		}
 		return nexthashedownername;
 	}
 
 	public void setNexthashedownername(String nexthashedownername) {
+		parseRdata();
 		this.nexthashedownername = nexthashedownername;
+		nexthash = new Base32(true).decode(nexthashedownername);
+		hashLength = (short)nexthash.length;
 	}
 
+	/**
+	 * @return a new list with the types, use {@link #hasType(ResourceRecordType)} or
+	 * {@link #getTypeBitmap()} to check for a type.
+	 */
 	public List<TypeMap> getTypes() {
-		return types;
+		parseRdata();
+		return types.toTypeMaps();
 	}
 
 	public void setTypes(List<TypeMap> types) {
-		this.types = types;
+		parseRdata();
+		this.types.clear();
+		for (TypeMap type : types) {
+			this.types.add(type.getValue());
+		}
+	}
+
+	public TypeBitmap getTypeBitmap() {
+		parseRdata();
+		return types;
+	}
+
+	public boolean hasType(ResourceRecordType type) {
+		parseRdata();
+		return types.contains(type);
 	}
 
 	public boolean getOptout() {
+		parseRdata();
 		return optout;
 	}
 
 	
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		StringBuffer b = new StringBuffer();
-		b.append(super.toZone(maxLength) + "\t" + hashAlgorithm.getValue() + " " + flags + " " +
+		b.append(super.toZone(maxLength) + "\t" + hashAlgorithmValue + " " + flags + " " +
 				+ (int)iterations + " ");
 		
 		if(saltLength == 0){
@@ -241,10 +306,10 @@ public class NSEC3ResourceRecord extends AbstractResourceRecord {
 			b.append(Hex.encodeHexString(salt) + " ");
 		}
 		
-		b.append(nexthashedownername + " ");
+		b.append(getNexthashedownername() + " ");
 		
-		for (TypeMap type : types) {
-			b.append(type.name() + " ");
+		for (int type = types.next(0); type != -1; type = types.next(type + 1)) {
+			b.append(TypeBitmap.typeName(type) + " ");
 		}
 	
 		
@@ -1,7 +1,6 @@
 package nl.sidn.dnslib.message.records.dnssec;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.json.Json;
@@ -12,6 +11,7 @@ import javax.json.JsonObjectBuilder;
 import nl.sidn.dnslib.message.records.AbstractResourceRecord;
 import nl.sidn.dnslib.message.util.DNSStringUtil;
 import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordType;
 import nl.sidn.dnslib.types.TypeMap;
 
 import org.apache.commons.codec.binary.Hex;
@@ -38,16 +38,23 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 	
 
 	private String nextDomainName;
-	protected List<TypeMap> types = new ArrayList<>();
+	protected TypeBitmap types = new TypeBitmap();
 	
 	
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	public void reset() {
+		super.reset();
+		types.clear();
+	}
+	
+	@Override
+	protected void decodeRdata(NetworkData buffer) {
 
+		int start = buffer.getReaderIndex();
 		nextDomainName = DNSStringUtil.readName(buffer);
-		int octetAvailable = rdLength - (nextDomainName.length() + 1);
-		new NSECTypeDecoder().decode(octetAvailable, buffer, types);
+		//use the bytes read, the text length differs from the wire length for the root
+		int octetAvailable = rdLength - (buffer.getReaderIndex() - start);
+		types.decode(buffer, octetAvailable);
 	}
 	
 	
@@ -56,17 +63,22 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
-		//DNSStringUtil.writeName(nextDomainName, buffer);
-			
-		buffer.writeBytes(getRdata());
+		//the next domain name must not be compressed (rfc4034)
+		DNSStringUtil.writeName(nextDomainName, buffer, false);
+		
+		types.encode(buffer);
+		
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "NSECResourceRecord [rdLength=" + (int)rdLength + ", nextDomainName="
 				+ nextDomainName + "]";
 	}
@@ -74,11 +86,12 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toZone(int maxLength) {
+		parseRdata();
 		StringBuffer b = new StringBuffer();
 		b.append(super.toZone(maxLength) + "\t" + nextDomainName + " ");
 		
-		for (TypeMap type : types) {
-			b.append(type.name() + " ");
+		for (int type = types.next(0); type != -1; type = types.next(type + 1)) {
+			b.append(TypeBitmap.typeName(type) + " ");
 		}
 		
 		return b.toString();
@@ -86,14 +99,15 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public JsonObject toJSon(){
+		parseRdata();
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		builder.
 			add("rdata", Json.createObjectBuilder().
 				add("next-domainname", nextDomainName));
 		
 		JsonArrayBuilder typeBuilder = Json.createArrayBuilder();
-		for (TypeMap type : types) {
-			typeBuilder.add(type.getType().name());
+		for (int type = types.next(0); type != -1; type = types.next(type + 1)) {
+			typeBuilder.add(TypeBitmap.typeOf(type).name());
 		}
 		return builder.add("types", typeBuilder.build()).
 			   build();
@@ -101,6 +115,7 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -109,8 +124,8 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 			
 			
 			g.writeArrayFieldStart("types");
-			for (TypeMap type : types) {
-				g.writeString(type.getType().name());
+			for (int type = types.next(0); type != -1; type = types.next(type + 1)) {
+				g.writeString(TypeBitmap.typeOf(type).name());
 			}
 			g.writeEndArray();
 			
@@ -124,6 +139,7 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 
 
 	public String getNextDomainName() {
+		parseRdata();
 		return nextDomainName;
 	}
 
@@ -131,10 +147,25 @@ public class NSECResourceRecord extends AbstractResourceRecord {
 
 
 
+	/**
+	 * @return a new list with the types, use {@link #hasType(ResourceRecordType)} or
+	 * {@link #getTypeBitmap()} to check for a type.
+	 */
 	public List<TypeMap> getTypes() {
+		parseRdata();
+		return types.toTypeMaps();
+	}
+
+	public TypeBitmap getTypeBitmap() {
+		parseRdata();
 		return types;
 	}
 
+	public boolean hasType(ResourceRecordType type) {
+		parseRdata();
+		return types.contains(type);
+	}
+
 
 	
 	
@@ -1,8 +1,6 @@
 package nl.sidn.dnslib.message.records.dnssec;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.TimeZone;
 
 import javax.json.Json;
@@ -15,10 +13,10 @@ import nl.sidn.dnslib.message.util.NetworkData;
 import nl.sidn.dnslib.types.AlgorithmType;
 import nl.sidn.dnslib.types.ResourceRecordType;
 import nl.sidn.dnslib.types.TypeMap;
-import nl.sidn.dnslib.util.LabelUtil;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang.time.FastDateFormat;
 import org.apache.log4j.Logger;
 import org.codehaus.jackson.JsonGenerator;
 
@@ -27,7 +25,11 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 	private static final long serialVersionUID = 1L;
 	
 	private static final Logger LOGGER = Logger.getLogger(RRSIGResourceRecord.class);
-	private static final SimpleDateFormat DATE_FMT = new SimpleDateFormat("YYYYMMddHHmmss");
+	/* the formatters are immutable and shared by all threads, records are decoded
+	 * and formatted concurrently (see BatchDecoder).
+	 */
+	private static final FastDateFormat DATE_FMT = FastDateFormat.getInstance("yyyyMMddHHmmss", TimeZone.getTimeZone("UTC"));
+	private static final Base64 ZONE_BASE64 = new Base64(36, "\n\t\t\t\t\t".getBytes());
 	
 	
 	/*
@@ -73,8 +75,7 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 	private boolean wildcard;
 		
 	@Override
-	public void decode(NetworkData buffer) {
-		super.decode(buffer);
+	protected void decodeRdata(NetworkData buffer) {
 			
 		char type = buffer.readUnsignedChar();
 
@@ -90,7 +91,7 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 		
 		labels = buffer.readUnsignedByte();
 		//check if wildacrd was used
-		wildcard =  LabelUtil.count(getName()) > labels;
+		wildcard =  getDnsName().getLabelCount() > labels;
 		
 		originalTtl = buffer.readUnsignedInt();
 		
@@ -116,18 +117,17 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 		signature = new byte[signatureLength];
 			
 		buffer.readBytes(signature);
-		
-		DATE_FMT.setTimeZone(TimeZone.getTimeZone("UTC"));
 	}
 	
 	
 
 	@Override
 	public void encode(NetworkData buffer) {
+		parseRdata();
 		
 		super.encode(buffer);
 		
-		buffer.writeChar(rdLength);
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
 		
 		buffer.writeChar(typeCovered.getValue());
 		
@@ -143,74 +143,93 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 		
 		buffer.writeChar(keytag);
 		
-		DNSStringUtil.writeName(signerName, buffer);
+		//the signer name must not be compressed (rfc4034)
+		DNSStringUtil.writeName(signerName, buffer, false);
 	
 		buffer.writeBytes(signature);
 		
+		writeRdlength(buffer, rdLengthIndex);
+		
 	}
 
 
 	public AlgorithmType getAlgorithm() {
+		parseRdata();
 		return algorithm;
 	}
 
 	public void setAlgorithm(AlgorithmType algorithm) {
+		parseRdata();
 		this.algorithm = algorithm;
 	}
 
 	public short getLabels() {
+		parseRdata();
 		return labels;
 	}
 
 	public void setLabels(short labels) {
+		parseRdata();
 		this.labels = labels;
 	}
 
 	public long getOriginalTtl() {
+		parseRdata();
 		return originalTtl;
 	}
 
 	public void setOriginalTtl(long originalTtl) {
+		parseRdata();
 		this.originalTtl = originalTtl;
 	}
 
 	public long getSignatureExpiration() {
+		parseRdata();
 		return signatureExpiration;
 	}
 
 	public void setSignatureExpiration(long signatureExpiration) {
+		parseRdata();
 		this.signatureExpiration = signatureExpiration;
 	}
 
 	public long getSignatureInception() {
+		parseRdata();
 		return signatureInception;
 	}
 
 	public void setSignatureInception(long signatureInception) {
+		parseRdata();
 		this.signatureInception = signatureInception;
 	}
 
 	public char getKeytag() {
+		parseRdata();
 		return keytag;
 	}
 
 	public void setKeytag(char keytag) {
+		parseRdata();
 		this.keytag = keytag;
 	}
 
 	public String getSignerName() {
+		parseRdata();
 		return signerName;
 	}
 
 	public void setSignerName(String signerName) {
+		parseRdata();
 		this.signerName = signerName;
 	}
 
 	public byte[] getSignature() {
+		parseRdata();
 		return signature;
 	}
 
 	public void setSignature(byte[] signature) {
+		parseRdata();
 		this.signature = signature;
 	}
 
@@ -224,6 +243,7 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toString() {
+		parseRdata();
 		return "RRSIGResourceRecord [typeCovered=" + typeCovered
 				+ ", algorithm=" + algorithm + ", labels=" + labels
 				+ ", originalTtl=" + originalTtl + ", signatureExpiration="
@@ -235,33 +255,18 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 
 	@Override
 	public String toZone(int maxLength) {
-		
-		Date exp = new Date();
-		exp.setTime((long)(signatureExpiration * 1000));
-		
-		Date incep = new Date();
-		incep.setTime((long)(signatureInception * 1000));
-		
-		SimpleDateFormat fmt = new SimpleDateFormat("YYYYMMddHHmmss");
-		fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
+		parseRdata();
 		
 		return super.toZone(maxLength) + "\t" + typeCovered.name() + " " + algorithm.getValue() + " " + labels +
-				" " + originalTtl + " " + fmt.format(exp) +
-				"(\n\t\t\t\t\t" + fmt.format(incep) + " " + (int)keytag + " " + signerName +
-				 "\n\t\t\t\t\t" + new Base64(36, "\n\t\t\t\t\t".getBytes()).encodeAsString(signature) + " )" ;
+				" " + originalTtl + " " + DATE_FMT.format(signatureExpiration * 1000) +
+				"(\n\t\t\t\t\t" + DATE_FMT.format(signatureInception * 1000) + " " + (int)keytag + " " + signerName +
+				 "\n\t\t\t\t\t" + ZONE_BASE64.encodeAsString(signature) + " )" ;
 	}
 	
 	
 	@Override
 	public JsonObject toJSon(){
-		//SimpleDateFormat fmt = new SimpleDateFormat("YYYYMMddHHmmss");
-//		DATE_FMT.setTimeZone(TimeZone.getTimeZone("UTC"));
-		
-		Date exp = new Date();
-		exp.setTime((long)(signatureExpiration * 1000));
-		
-		Date incep = new Date();
-		incep.setTime((long)(signatureInception * 1000));
+		parseRdata();
 		
 		JsonObjectBuilder builder = super.createJsonBuilder();
 		return builder.
@@ -270,24 +275,18 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 				add("algorithm", algorithm.name()).
 				add("labels", labels).
 				add("original-ttl", originalTtl).
-				add("sig-exp", DATE_FMT.format(exp)).
-				add("sig-inc", DATE_FMT.format(incep)).
+				add("sig-exp", DATE_FMT.format(signatureExpiration * 1000)).
+				add("sig-inc", DATE_FMT.format(signatureInception * 1000)).
 				add("keytag", (int)keytag).
 				add("signer-name", signerName).
-				add("signature", new Base64(Integer.MAX_VALUE, "".getBytes()).encodeAsString(signature))).
+				add("signature", Base64.encodeBase64String(signature))).
 			build();
 	}
 	
 	
 	@Override
 	public void toJSon(JsonGenerator g) {
-		
-		Date exp = new Date();
-		exp.setTime((long)(signatureExpiration * 1000));
-		
-		Date incep = new Date();
-		incep.setTime((long)(signatureInception * 1000));
-		
+		parseRdata();
 
 		try {
 			super.toJSon(g);
@@ -297,11 +296,11 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 			g.writeObjectField("algorithm", algorithm.name());
 			g.writeNumberField("labels", labels);
 			g.writeNumberField("original-ttl", originalTtl);
-			g.writeObjectField("sig-exp", DATE_FMT.format(exp));
-			g.writeObjectField("sig-inc", DATE_FMT.format(incep));
+			g.writeObjectField("sig-exp", DATE_FMT.format(signatureExpiration * 1000));
+			g.writeObjectField("sig-inc", DATE_FMT.format(signatureInception * 1000));
 			g.writeNumberField("keytag", (int)keytag);
 			g.writeObjectField("signer-name", signerName);
-			g.writeObjectField("signature", new Base64(Integer.MAX_VALUE, "".getBytes()).encodeAsString(signature));
+			g.writeObjectField("signature", Base64.encodeBase64String(signature));
 			
 			g.writeEndObject();
 			g.writeEndObject();
@@ -311,6 +310,7 @@ public class RRSIGResourceRecord extends AbstractResourceRecord {
 	}
 
 	public boolean getWildcard() {
+		parseRdata();
 		return wildcard;
 	}
 
@@ -0,0 +1,354 @@
+package nl.sidn.dnslib.message.records.dnssec;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordType;
+import nl.sidn.dnslib.types.TypeMap;
+
+/**
+ * Type bit maps field of the NSEC and NSEC3 RR (RFC 4034 4.1.2).
+ *
+ * The types are split into 256 windows of 256 types, only the windows which
+ * contain a type are stored, as 4 longs (32 bytes) per window. A second bitmap
+ * records which windows are present, the position of a window in the array is
+ * the number of present windows before it. This makes {@link #contains(int)} O(1)
+ * without allocating a bitmap for all 65536 types.
+ *
+ * Bit n of a window is bit (n % 64) of long (n / 64), so the types can be iterated
+ * in ascending order with {@link Long#numberOfTrailingZeros(long)}. On the wire
+ * the bits of each byte are in the reverse order, the first type is the most
+ * significant bit.
+ */
+public class TypeBitmap implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int WINDOW_LONGS = 4;
+	private static final int MAX_WINDOW_LENGTH = 32;
+
+	private static final long[] EMPTY = new long[0];
+
+	//bit n is set when window n is present
+	private final long[] windowMask = new long[WINDOW_LONGS];
+	//bits of the present windows, in ascending window order
+	private long[] bits = EMPTY;
+	private int windows;
+
+	public TypeBitmap() {
+	}
+
+	public TypeBitmap(int... types) {
+		for (int type : types) {
+			add(type);
+		}
+	}
+
+	/**
+	 * Decode the type bitmap of the NSEC and NSEC3 RR, any types already in this
+	 * bitmap are kept.
+	 * @param buffer buffer positioned at the first window
+	 * @param length number of bytes of the type bitmap
+	 * @throws DnsDecodeException when a window does not fit in the length or has
+	 * an invalid length
+	 */
+	public void decode(NetworkData buffer, int length) {
+		int octetsRead = 0;
+		while (octetsRead < length) {
+			if (length - octetsRead < 2) {
+				throw new DnsDecodeException("Type bitmap window header exceeds rdata, remaining: " + (length - octetsRead));
+			}
+			int window = buffer.readUnsignedByte();
+			int windowLength = buffer.readUnsignedByte();
+			octetsRead = octetsRead + 2;
+
+			if (windowLength == 0 || windowLength > MAX_WINDOW_LENGTH || windowLength > length - octetsRead) {
+				throw new DnsDecodeException("Invalid type bitmap length: " + windowLength + " for window: " + window);
+			}
+
+			int offset = windowOffset(window, true);
+			for (int i = 0; i < windowLength; i++) {
+				//reverse the bits, the first type of the byte is the msb on the wire
+				long flags = Integer.reverse(buffer.readUnsignedByte()) >>> 24;
+				bits[offset + (i >>> 3)] |= flags << ((i & 7) * 8);
+			}
+			octetsRead = octetsRead + windowLength;
+		}
+
+		if ((windowMask[0] & 1L) != 0) {
+			//type 0 is reserved and must be ignored (RFC 4034 4.1.2)
+			bits[0] &= ~1L;
+		}
+	}
+
+	/**
+	 * Write the type bitmap in the wire format, windows without types are left out
+	 * and every window is cut off after the last byte with a type.
+	 */
+	public void encode(NetworkData buffer) {
+		for (int window = nextWindow(0); window != -1; window = nextWindow(window + 1)) {
+			int offset = windowOffset(window, false);
+			int windowLength = windowLength(offset);
+			if (windowLength == 0) {
+				continue;
+			}
+			buffer.writeByte(window);
+			buffer.writeByte(windowLength);
+			for (int i = 0; i < windowLength; i++) {
+				int flags = (int) (bits[offset + (i >>> 3)] >>> ((i & 7) * 8)) & 0xFF;
+				buffer.writeByte(Integer.reverse(flags) >>> 24);
+			}
+		}
+	}
+
+	/**
+	 * @return number of bytes written by {@link #encode(NetworkData)}
+	 */
+	public int encodedLength() {
+		int length = 0;
+		for (int window = nextWindow(0); window != -1; window = nextWindow(window + 1)) {
+			int windowLength = windowLength(windowOffset(window, false));
+			if (windowLength > 0) {
+				length = length + 2 + windowLength;
+			}
+		}
+		return length;
+	}
+
+	public void add(int type) {
+		checkType(type);
+		int offset = windowOffset(type >>> 8, true);
+		bits[offset + ((type & 0xFF) >>> 6)] |= 1L << type;
+	}
+
+	public void add(ResourceRecordType type) {
+		add(type.getValue());
+	}
+
+	public void remove(int type) {
+		checkType(type);
+		int offset = windowOffset(type >>> 8, false);
+		if (offset != -1) {
+			bits[offset + ((type & 0xFF) >>> 6)] &= ~(1L << type);
+		}
+	}
+
+	public boolean contains(int type) {
+		if (type < 0 || type > 0xFFFF) {
+			return false;
+		}
+		int offset = windowOffset(type >>> 8, false);
+		return offset != -1 && (bits[offset + ((type & 0xFF) >>> 6)] & (1L << type)) != 0;
+	}
+
+	public boolean contains(ResourceRecordType type) {
+		return contains(type.getValue());
+	}
+
+	/**
+	 * Iterate over the types in ascending order:
+	 * <pre>
+	 * for (int type = bitmap.next(0); type != -1; type = bitmap.next(type + 1))
+	 * </pre>
+	 * @param from first type to check
+	 * @return the first type which is equal to or larger than from, -1 if none
+	 */
+	public int next(int from) {
+		if (from < 0) {
+			from = 0;
+		}
+		for (int window = nextWindow(from >>> 8); window != -1; window = nextWindow(window + 1)) {
+			int offset = windowOffset(window, false);
+			int first = window == from >>> 8 ? from & 0xFF : 0;
+			for (int i = first >>> 6; i < WINDOW_LONGS; i++) {
+				long word = bits[offset + i];
+				if (i == first >>> 6) {
+					//skip the types before from
+					word &= -1L << first;
+				}
+				if (word != 0) {
+					return (window << 8) | (i << 6) | Long.numberOfTrailingZeros(word);
+				}
+			}
+		}
+		return -1;
+	}
+
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < windows * WINDOW_LONGS; i++) {
+			size = size + Long.bitCount(bits[i]);
+		}
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return next(0) == -1;
+	}
+
+	/**
+	 * Remove all types, the memory of the windows is kept for the next decode.
+	 */
+	public void clear() {
+		Arrays.fill(windowMask, 0);
+		Arrays.fill(bits, 0);
+		windows = 0;
+	}
+
+	public int[] toArray() {
+		int[] types = new int[size()];
+		int i = 0;
+		for (int type = next(0); type != -1; type = next(type + 1)) {
+			types[i++] = type;
+		}
+		return types;
+	}
+
+	/**
+	 * @return a new list with a TypeMap for every type, types without a
+	 * ResourceRecordType are RESERVED
+	 */
+	public List<TypeMap> toTypeMaps() {
+		List<TypeMap> types = new ArrayList<>();
+		for (int type = next(0); type != -1; type = next(type + 1)) {
+			types.add(new TypeMap(typeOf(type), (char) type));
+		}
+		return types;
+	}
+
+	/**
+	 * @return the type, RESERVED if the type is not known
+	 */
+	public static ResourceRecordType typeOf(int type) {
+		ResourceRecordType rrType = ResourceRecordType.fromValue(type);
+		return rrType == null ? ResourceRecordType.RESERVED : rrType;
+	}
+
+	/**
+	 * @return presentation name of the type, TYPEnnn for unknown types (RFC 3597)
+	 */
+	public static String typeName(int type) {
+		ResourceRecordType rrType = ResourceRecordType.fromValue(type);
+		return rrType == null || rrType == ResourceRecordType.RESERVED ? "TYPE" + type : rrType.name();
+	}
+
+	/**
+	 * @return the types separated by a space, in the zone file format
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		for (int type = next(0); type != -1; type = next(type + 1)) {
+			if (b.length() > 0) {
+				b.append(" ");
+			}
+			b.append(typeName(type));
+		}
+		return b.toString();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TypeBitmap)) {
+			return false;
+		}
+		TypeBitmap other = (TypeBitmap) obj;
+		int type = next(0);
+		int otherType = other.next(0);
+		while (type == otherType && type != -1) {
+			type = next(type + 1);
+			otherType = other.next(otherType + 1);
+		}
+		return type == otherType;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int type = next(0); type != -1; type = next(type + 1)) {
+			hash = 31 * hash + type;
+		}
+		return hash;
+	}
+
+	private void checkType(int type) {
+		if (type < 0 || type > 0xFFFF) {
+			throw new IllegalArgumentException("Invalid type: " + type);
+		}
+	}
+
+	/**
+	 * @return first present window which is equal to or larger than from, -1 if none
+	 */
+	private int nextWindow(int from) {
+		if (from > 0xFF) {
+			return -1;
+		}
+		int i = from >>> 6;
+		long word = windowMask[i] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (i << 6) | Long.numberOfTrailingZeros(word);
+			}
+			if (++i == WINDOW_LONGS) {
+				return -1;
+			}
+			word = windowMask[i];
+		}
+	}
+
+	/**
+	 * @param create add the window when it is not present
+	 * @return index of the first long of the window in bits, -1 if the window is not present
+	 */
+	private int windowOffset(int window, boolean create) {
+		int word = window >>> 6;
+		long bit = 1L << window;
+		//rank of the window, the number of present windows before it
+		int rank = Long.bitCount(windowMask[word] & (bit - 1));
+		for (int i = 0; i < word; i++) {
+			rank = rank + Long.bitCount(windowMask[i]);
+		}
+
+		if ((windowMask[word] & bit) == 0) {
+			if (!create) {
+				return -1;
+			}
+			insertWindow(rank);
+			windowMask[word] |= bit;
+		}
+		return rank * WINDOW_LONGS;
+	}
+
+	private void insertWindow(int rank) {
+		int used = windows * WINDOW_LONGS;
+		if (bits.length < used + WINDOW_LONGS) {
+			bits = Arrays.copyOf(bits, used + WINDOW_LONGS);
+		}
+		int offset = rank * WINDOW_LONGS;
+		System.arraycopy(bits, offset, bits, offset + WINDOW_LONGS, used - offset);
+		Arrays.fill(bits, offset, offset + WINDOW_LONGS, 0);
+		windows++;
+	}
+
+	/**
+	 * @return number of bytes of the window up to and including the last byte with a type
+	 */
+	private int windowLength(int offset) {
+		for (int i = WINDOW_LONGS - 1; i >= 0; i--) {
+			long word = bits[offset + i];
+			if (word != 0) {
+				return i * 8 + (63 - Long.numberOfLeadingZeros(word)) / 8 + 1;
+			}
+		}
+		return 0;
+	}
+
+}
@@ -42,19 +42,29 @@ public class OPTResourceRecord extends AbstractResourceRecord {
 	private ResourceRecordType type = ResourceRecordType.OPT;
 	private char udpPlayloadSize = 4096;
 
-	private char rdLeng = 0;
-	
 	private short rcode;
 	private short version;
-	private char flags;
+	//dnssec enabled by default, signal with do bit is on
+	private char flags = DNSSEC_DO_BIT_MASK;
+	
+	private boolean dnssecDo = true;
+	
+	//the options are not parsed, they are kept to encode them again
+	private byte[] options = new byte[0];
 	
-	private boolean dnssecDo;
+	public OPTResourceRecord() {
+		//the type is needed to group the rr into an rrset
+		setType(ResourceRecordType.OPT);
+	}
 	
 	
+	/**
+	 * The options are always copied, lazyRdata is ignored.
+	 */
 	@Override
-	public void decode(NetworkData buffer) {
-		//name
-		name = DNSStringUtil.readName(buffer);
+	public void decode(NetworkData buffer, boolean lazyRdata) {
+		//name, always root
+		name = DNSStringUtil.readDnsName(buffer).toString();
 		
 		char type = buffer.readUnsignedChar();
 		setType(ResourceRecordType.fromValue(type));
@@ -69,7 +79,10 @@ public class OPTResourceRecord extends AbstractResourceRecord {
 		
 		dnssecDo = (flags & DNSSEC_DO_BIT_MASK) == DNSSEC_DO_BIT_MASK;
 		
-		rdLeng = buffer.readUnsignedChar();
+		rdLength = buffer.readUnsignedChar();
+		
+		options = new byte[rdLength];
+		buffer.readBytes(options);
 	}
 
 	@Override
@@ -87,29 +100,28 @@ public class OPTResourceRecord extends AbstractResourceRecord {
 		buffer.writeChar(udpPlayloadSize);
 	
 		//write extended rcode
-		buffer.writeByte(0x0); 
+		buffer.writeByte(rcode); 
 		
 		//write version
-		buffer.writeByte(0x0); 
-		
-		//default all flags off
-		char flags = 0x0;
+		buffer.writeByte(version); 
 		
-		//dnssec enabled, signal with do bit is on
-		flags = (char)(flags | DNSSEC_DO_BIT_MASK);
-		
-		//write all the flags
-		buffer.writeChar(flags); 
+		//write all the flags, the do bit from dnssecDo
+		if(dnssecDo){
+			buffer.writeChar(flags | DNSSEC_DO_BIT_MASK);
+		}else{
+			buffer.writeChar(flags & ~DNSSEC_DO_BIT_MASK);
+		}
 
-		//write the length of the rdata section
-		buffer.writeChar(rdLeng); 
+		int rdLengthIndex = writeRdlengthPlaceholder(buffer);
+		buffer.writeBytes(options);
+		writeRdlength(buffer, rdLengthIndex);
 	}
 
 
 	@Override
 	public String toString() {
 		return "OPTResourceRecord [name=" + name + ", type=" + type
-				+ ", udpPlayloadSize=" + (int)udpPlayloadSize + ", rdLeng=" + (int)rdLeng
+				+ ", udpPlayloadSize=" + (int)udpPlayloadSize + ", rdLeng=" + (int)rdLength
 				+ ", doBit=" + dnssecDo + "]";
 	}
 	
@@ -193,6 +205,18 @@ public class OPTResourceRecord extends AbstractResourceRecord {
 		this.flags = flags;
 	}
 
+	/**
+	 * @return the options as they are on the wire, code, length and data of every option
+	 */
+	public byte[] getOptions() {
+		return options;
+	}
+
+	public void setOptions(byte[] options) {
+		this.options = options;
+		rdLength = (char)options.length;
+	}
+
 	@Override
 	public String toZone(int maxLength) {
 		return "";
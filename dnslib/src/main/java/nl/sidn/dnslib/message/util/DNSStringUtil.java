@@ -1,13 +1,10 @@
 package nl.sidn.dnslib.message.util;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
+import java.util.Arrays;
 
 import nl.sidn.dnslib.exception.DnsDecodeException;
 import nl.sidn.dnslib.exception.DnsEncodeException;
 
-import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
 /**
@@ -81,8 +78,45 @@ public class DNSStringUtil {
 	
 	private static final Logger LOGGER = Logger.getLogger(DNSStringUtil.class);
 	
+	private static final int MAX_NAME_LENGTH = 255;
+	
 	private static byte UNCOMPRESSED_NAME_BIT_MASK = (byte)0x3f;         //0011 1111
 	private static byte COMPRESSED_NAME_BIT_MASK = (byte)0xc0;   		//1100 0000
+	private static int COMPRESSED_NAME_POINTER = 0xc000;   				//1100 0000 0000 0000
+	
+	//optional interners, shared by all decoders
+	private static volatile NameInterner<String> stringInterner;
+	private static volatile NameInterner<DnsName> dnsNameInterner;
+	
+	/**
+	 * Share the names returned by readName between messages, decoders which keep
+	 * many messages in memory then keep only a single instance of popular names.
+	 * @param interner the interner to use or null to disable interning (default)
+	 */
+	public static void setNameInterner(NameInterner<String> interner){
+		stringInterner = interner;
+	}
+	
+	public static NameInterner<String> getNameInterner(){
+		return stringInterner;
+	}
+	
+	/**
+	 * Same as setNameInterner but for the names returned by readDnsName.
+	 * @param interner the interner to use or null to disable interning (default)
+	 */
+	public static void setDnsNameInterner(NameInterner<DnsName> interner){
+		dnsNameInterner = interner;
+	}
+	
+	public static NameInterner<DnsName> getDnsNameInterner(){
+		return dnsNameInterner;
+	}
+	
+	private static String intern(String name){
+		NameInterner<String> interner = stringInterner;
+		return interner != null? interner.intern(name): name;
+	}
 	
 
 	public static boolean isUncompressedName(byte namePrefix){
@@ -102,9 +136,13 @@ public class DNSStringUtil {
 			return ".";
 		}
 		if(isUncompressedName((byte)length)){
-			return readUncompressedName(length, buffer) + ".";
+			//remember where the name starts, compression pointers often point to it
+			int offset = buffer.getReaderIndex() - 1;
+			String name = readUncompressedName(length, buffer);
+			buffer.cacheName(offset, name);
+			return intern(name + ".");
 		}else if(isCompressedName((byte)length)){
-			return readCompressedName(buffer) + ".";
+			return intern(readCompressedName(buffer) + ".");
 		}
 		
 		//TODO: return not support error
@@ -113,6 +151,117 @@ public class DNSStringUtil {
 	}
 	
 
+	/**
+	 * Read a name in wire format without creating a string for each label.
+	 * Compression pointers are followed, when the pointer targets a name which has 
+	 * already been decoded from the same message the existing name is reused.
+	 * @param buffer the message
+	 * @return the uncompressed name
+	 */
+	public static DnsName readDnsName(NetworkData buffer){
+		int start = buffer.getReaderIndex();
+		byte[] wire = buffer.getNameBuffer();
+		int length = 0;
+		//location after the first pointer, where reading continues when the name is done
+		int end = -1;
+		//first pointer target which was not cached and the location of its labels in the name
+		int target = -1;
+		int targetStart = 0;
+		
+		while(true){
+			short labelLength = buffer.readUnsignedByte();
+			
+			if(labelLength == 0){
+				wire[length++] = 0;
+				break;
+			}
+			
+			if(isCompressedName((byte)labelLength)){
+				int offset = ((labelLength & 0x3f) << 8) | buffer.readUnsignedByte();
+				if(end == -1){
+					end = buffer.getReaderIndex();
+				}
+				
+				DnsName cached = buffer.getCachedDnsName(offset);
+				if(cached != null && length == 0){
+					//the name is only a pointer, share the existing instance
+					buffer.setReaderIndex(end);
+					return cached;
+				}
+				if(cached != null){
+					if(length + cached.length() > MAX_NAME_LENGTH){
+						throw new DnsDecodeException("Name is too long at offset " + start);
+					}
+					byte[] suffix = cached.toWire();
+					System.arraycopy(suffix, 0, wire, length, suffix.length);
+					length = length + suffix.length;
+					break;
+				}
+				
+				if(offset >= buffer.getReaderIndex() - 2){
+					//only backward pointers are allowed, this also prevents loops
+					throw new DnsDecodeException("Illegal compression pointer at offset " + start);
+				}
+				if(target == -1){
+					target = offset;
+					targetStart = length;
+				}
+				buffer.setReaderIndex(offset);
+				continue;
+			}
+			
+			if(!isUncompressedName((byte)labelLength) || length + labelLength + 2 > MAX_NAME_LENGTH){
+				throw new DnsDecodeException("Illegal name at offset " + start);
+			}
+			
+			wire[length++] = (byte)labelLength;
+			buffer.readBytes(wire, length, labelLength);
+			length = length + labelLength;
+		}
+		
+		if(end != -1){
+			buffer.setReaderIndex(end);
+		}
+		
+		if(length == 1){
+			//root, e.g. the owner of an OPT rr
+			return DnsName.ROOT;
+		}
+		
+		DnsName name = new DnsName(Arrays.copyOf(wire, length));
+		NameInterner<DnsName> interner = dnsNameInterner;
+		if(interner != null){
+			name = interner.intern(name);
+		}
+		buffer.cacheDnsName(start, name);
+		if(target != -1){
+			//other names are likely to point to the same target
+			buffer.cacheDnsName(target, name.fromOffset(targetStart));
+		}
+		return name;
+	}
+
+	/**
+	 * Move the reader index past a name without decoding it, compression
+	 * pointers are not followed.
+	 * @param buffer the message
+	 */
+	public static void skipName(NetworkData buffer){
+		short length = buffer.readUnsignedByte();
+		while(length != 0){
+			if(isCompressedName((byte)length)){
+				//skip second byte of the pointer, a pointer is always the end of a name
+				buffer.skipBytes(1);
+				return;
+			}
+			if(!isUncompressedName((byte)length)){
+				throw new DnsDecodeException("Illegal label type at offset " + (buffer.getReaderIndex() - 1));
+			}
+			buffer.skipBytes(length);
+			length = buffer.readUnsignedByte();
+		}
+	}
+
 	public static String readUncompressedName(short length, NetworkData buffer){
 		StringBuffer qnameBuffer = new StringBuffer();
 		
@@ -154,6 +303,14 @@ public class DNSStringUtil {
 
 		offset = (char) (offset ^ (1 << 14)); // flip bit 14 to 0
 		offset = (char) (offset ^ (1 << 15)); // flip bit 15 to 0
+		
+		/* names in large responses often point to the same offset, 
+		 * if the name at the offset has been decoded before then reuse it.
+		 */
+		String cached = buffer.getCachedName(offset);
+		if(cached != null){
+			return cached;
+		}
 
 		// save current location in the stream
 		int currentPosition = buffer.getReaderIndex();
@@ -168,6 +325,7 @@ public class DNSStringUtil {
 		 */
 		short length = buffer.readUnsignedByte();
 		String qName = readUncompressedName(length, buffer);
+		buffer.cacheName(offset, qName);
 		
 		//go back to the location after the first pointer
         buffer.setReaderIndex(currentPosition);
@@ -176,14 +334,59 @@ public class DNSStringUtil {
 	}
 	
 	
+	/**
+	 * Write a name using compression (RFC 1035 4.1.4), when a suffix of the name has 
+	 * already been written to the same message a pointer to that suffix is written.
+	 * @param name the name to write
+	 * @param buffer the message to write to
+	 */
 	public static void writeName(String name, NetworkData buffer){
+		writeName(name, buffer, true);
+	}
+	
+	/**
+	 * Write a name, the name is always added to the compression dictionary of the 
+	 * message so later names can point to it.
+	 * @param name the name to write
+	 * @param buffer the message to write to
+	 * @param compress false for names which must not be compressed, such as
+	 * the RRSIG signer name (RFC 4034) and SRV target (RFC 2782)
+	 */
+	public static void writeName(String name, NetworkData buffer, boolean compress){
 		
-		//write nameserver string
-		String[] labels = StringUtils.split(name, ".");
-		for (String label : labels) {
-			//write label length
-			buffer.writeByte(label.length());	
-			buffer.writeBytes(label.getBytes());
+		boolean useDictionary = buffer.isNameCompression();
+		String lowercase = useDictionary? name.toLowerCase(): null;
+		int end = name.endsWith(".")? name.length() - 1: name.length();
+		int start = 0;
+		
+		while(start < end){
+			int dot = name.indexOf('.', start);
+			if(dot == -1 || dot > end){
+				dot = end;
+			}
+			if(dot == start){
+				//skip empty label
+				start++;
+				continue;
+			}
+			
+			if(useDictionary){
+				String suffix = lowercase.substring(start, end);
+				int offset = buffer.getCompressionOffset(suffix);
+				if(compress && offset != -1){
+					//write pointer to the earlier occurrence, this ends the name
+					buffer.writeChar(COMPRESSED_NAME_POINTER | offset);
+					return;
+				}
+				buffer.addCompressionOffset(suffix, buffer.getWriterIndex());
+			}
+			
+			//write label length and the label
+			byte[] label = name.substring(start, dot).getBytes();
+			buffer.writeByte(label.length);	
+			buffer.writeBytes(label);
+			
+			start = dot + 1;
 		}
 				
 		//write root with zero byte
@@ -192,27 +395,10 @@ public class DNSStringUtil {
 	}
 	
 	public static byte[] writeName(String name){
-		
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		DataOutputStream dos = new DataOutputStream(bos);
-		
-		try {
-			//write nameserver string
-			String[] labels = StringUtils.split(name, ".");
-			for (String label : labels) {
-				//write label length
-				dos.writeByte(label.length());	
-				dos.write(label.getBytes());
-			}
-					
-			//write root with zero byte
-			dos.writeByte(0);
-		} catch (IOException e) {
-			throw new RuntimeException("Error while wrting name", e);
-		}
-		
-		return bos.toByteArray();
-
+		//+ 2 for leading length byte + the terminating root
+		NetworkData buffer = new NetworkData(name.length() + 2);
+		writeName(name, buffer);
+		return buffer.write();
 	}
 	
 	
@@ -236,10 +422,9 @@ public class DNSStringUtil {
 		if(data.length > MAX_CHARACTER_STRING_LENGTH){
 			throw new DnsEncodeException("Illegal character string length (> 255), length = " + data.length);
 		}
-		if(data.length > 0){
-			buffer.writeByte(data.length);
-			buffer.writeBytes(data);
-		}
+		//an empty string is written as a zero length byte
+		buffer.writeByte(data.length);
+		buffer.writeBytes(data);
 	}
 
 }
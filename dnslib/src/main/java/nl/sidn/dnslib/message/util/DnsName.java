@@ -0,0 +1,320 @@
+package nl.sidn.dnslib.message.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+
+/**
+ * Immutable domain name in uncompressed wire format.
+ *
+ * The name is kept as the wire format bytes (length prefixed labels ending with
+ * the zero length root label) together with the offsets of the labels. Equality
+ * and the hash code are case insensitive, the hash code is calculated only once.
+ * The presentation format (e.g. "www.sidn.nl.") is only created when it is requested.
+ */
+public final class DnsName implements Comparable<DnsName>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final DnsName ROOT = new DnsName(new byte[]{0});
+
+	private static final int MAX_NAME_LENGTH = 255;
+	private static final int MAX_LABEL_LENGTH = 63;
+
+	//uncompressed wire format, including the root label
+	private final byte[] wire;
+	//offset of the length byte of each label, excluding the root label
+	private final byte[] offsets;
+	private final int hash;
+
+	//presentation format, created on demand
+	private transient String presentation;
+
+	/**
+	 * Create a name from wire format data, the data must not be modified afterwards.
+	 * @param wire uncompressed wire format of the name, including root label
+	 */
+	DnsName(byte[] wire){
+		this.wire = wire;
+
+		byte[] labelOffsets = new byte[wire.length];
+		int labels = 0;
+		int h = 1;
+		int i = 0;
+		while(wire[i] != 0){
+			labelOffsets[labels++] = (byte)i;
+			int end = i + wire[i] + 1;
+			for (; i < end; i++) {
+				h = 31 * h + toLower(wire[i]);
+			}
+		}
+		this.offsets = Arrays.copyOf(labelOffsets, labels);
+		this.hash = h;
+	}
+
+	/**
+	 * Create a name from the presentation format, escaped characters are not supported.
+	 * @param name e.g. "www.sidn.nl." the trailing dot is optional
+	 * @return the name
+	 */
+	public static DnsName fromString(String name){
+		if(name == null){
+			throw new IllegalArgumentException("Name is null");
+		}
+
+		if(name.length() == 0 || ".".equals(name)){
+			return ROOT;
+		}
+
+		byte[] data = name.getBytes();
+		byte[] wire = new byte[data.length + 2];
+		int length = 0;
+		int start = 0;
+		while(start < data.length){
+			int dot = start;
+			while(dot < data.length && data[dot] != '.'){
+				dot++;
+			}
+			int labelLength = dot - start;
+			if(labelLength == 0 || labelLength > MAX_LABEL_LENGTH){
+				throw new IllegalArgumentException("Illegal label length in name: " + name);
+			}
+			wire[length++] = (byte)labelLength;
+			System.arraycopy(data, start, wire, length, labelLength);
+			length = length + labelLength;
+			start = dot + 1;
+		}
+		wire[length++] = 0;
+
+		if(length > MAX_NAME_LENGTH){
+			throw new IllegalArgumentException("Name is too long: " + name);
+		}
+
+		return new DnsName(Arrays.copyOf(wire, length));
+	}
+
+	/**
+	 * @return number of labels, excluding the root label
+	 */
+	public int getLabelCount(){
+		return offsets.length;
+	}
+
+	/**
+	 * @param index 0 is the leftmost label
+	 * @return the label without length byte
+	 */
+	public String getLabel(int index){
+		int offset = offsets[index] & 0xFF;
+		return new String(wire, offset + 1, wire[offset]);
+	}
+
+	/**
+	 * @return length of the uncompressed wire format
+	 */
+	public int length(){
+		return wire.length;
+	}
+
+	/**
+	 * @return copy of the uncompressed wire format
+	 */
+	public byte[] toWire(){
+		return wire.clone();
+	}
+
+	public boolean isRoot(){
+		return offsets.length == 0;
+	}
+
+	/**
+	 * @return the name with the leftmost label removed, or null for the root
+	 */
+	public DnsName parent(){
+		if(isRoot()){
+			return null;
+		}
+		if(offsets.length == 1){
+			return ROOT;
+		}
+		return fromOffset(offsets[1] & 0xFF);
+	}
+
+	/**
+	 * @param labels number of labels to keep
+	 * @return the rightmost labels of this name
+	 */
+	public DnsName suffix(int labels){
+		if(labels < 0 || labels > offsets.length){
+			throw new IllegalArgumentException("Illegal label count: " + labels);
+		}
+		if(labels == offsets.length){
+			return this;
+		}
+		if(labels == 0){
+			return ROOT;
+		}
+		return fromOffset(offsets[offsets.length - labels] & 0xFF);
+	}
+
+	/**
+	 * @param offset offset of a label length byte
+	 * @return the name starting at the offset
+	 */
+	DnsName fromOffset(int offset){
+		if(offset == 0){
+			return this;
+		}
+		return new DnsName(Arrays.copyOfRange(wire, offset, wire.length));
+	}
+
+	/**
+	 * Compare this name with a name in a message without decoding the name,
+	 * compression pointers are followed. No objects are allocated.
+	 * @param buffer the message
+	 * @param offset offset of the first byte of the name in the message
+	 * @return true if the name in the message is equal to this name, ignoring case
+	 */
+	public boolean matches(NetworkData buffer, int offset){
+		int i = 0;
+		int jumps = 0;
+		while(true){
+			short length = buffer.getUnsignedByte(offset);
+			if(DNSStringUtil.isCompressedName((byte)length)){
+				if(++jumps > MAX_NAME_LENGTH / 2){
+					throw new DnsDecodeException("Compression loop at offset " + offset);
+				}
+				offset = ((length & 0x3f) << 8) | buffer.getUnsignedByte(offset + 1);
+				continue;
+			}
+			if(length != wire[i]){
+				return false;
+			}
+			if(length == 0){
+				return true;
+			}
+			for (int j = 1; j <= length; j++) {
+				if(toLower((byte)buffer.getUnsignedByte(offset + j)) != toLower(wire[i + j])){
+					return false;
+				}
+			}
+			i = i + length + 1;
+			offset = offset + length + 1;
+		}
+	}
+
+	/**
+	 * @param other possible parent
+	 * @return true if this name is equal to or below the other name
+	 */
+	public boolean isSubdomainOf(DnsName other){
+		int labels = other.getLabelCount();
+		if(labels > offsets.length){
+			return false;
+		}
+		int offset = labels == 0? wire.length - 1: offsets[offsets.length - labels] & 0xFF;
+		return regionEquals(wire, offset, other.wire, 0, other.wire.length);
+	}
+
+	/**
+	 * Canonical DNS name order (RFC 4034 section 6.1), names are compared label by
+	 * label starting with the rightmost label, labels are compared as lowercase unsigned
+	 * octet strings.
+	 */
+	@Override
+	public int compareTo(DnsName other) {
+		int i = offsets.length - 1;
+		int j = other.offsets.length - 1;
+		for (; i >= 0 && j >= 0; i--, j--) {
+			int result = compareLabel(wire, offsets[i] & 0xFF, other.wire, other.offsets[j] & 0xFF);
+			if(result != 0){
+				return result;
+			}
+		}
+		//all labels equal, the name with the fewest labels comes first
+		return offsets.length - other.offsets.length;
+	}
+
+	private static int compareLabel(byte[] a, int aOffset, byte[] b, int bOffset){
+		int aLength = a[aOffset];
+		int bLength = b[bOffset];
+		int length = Math.min(aLength, bLength);
+		for (int i = 1; i <= length; i++) {
+			int result = toLower(a[aOffset + i]) - toLower(b[bOffset + i]);
+			if(result != 0){
+				return result;
+			}
+		}
+		return aLength - bLength;
+	}
+
+	private static boolean regionEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length){
+		if(a.length - aOffset < length){
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if(toLower(a[aOffset + i]) != toLower(b[bOffset + i])){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int toLower(byte b){
+		int c = b & 0xFF;
+		if(c >= 'A' && c <= 'Z'){
+			return c + 32;
+		}
+		return c;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj){
+			return true;
+		}
+		if(!(obj instanceof DnsName)){
+			return false;
+		}
+		DnsName other = (DnsName) obj;
+		return hash == other.hash && wire.length == other.wire.length &&
+				regionEquals(wire, 0, other.wire, 0, wire.length);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * @return true if the wire format is the same, the case of the labels must also be the same
+	 */
+	boolean wireEquals(DnsName other){
+		return hash == other.hash && Arrays.equals(wire, other.wire);
+	}
+
+	/**
+	 * @return presentation format with trailing root dot, e.g. "www.sidn.nl."
+	 */
+	@Override
+	public String toString() {
+		String result = presentation;
+		if(result == null){
+			if(isRoot()){
+				result = ".";
+			}else{
+				StringBuilder b = new StringBuilder(wire.length);
+				for (int i = 0; i < offsets.length; i++) {
+					int offset = offsets[i] & 0xFF;
+					b.append(new String(wire, offset + 1, wire[offset]));
+					b.append(".");
+				}
+				result = b.toString();
+			}
+			presentation = result;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,162 @@
+package nl.sidn.dnslib.message.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size bounded interner for decoded names, equal names share a single instance.
+ * DnsNames only share an instance when their wire format is the same, names which
+ * differ in case are kept apart so the decoded data is not changed.
+ *
+ * The interner is split in a number of stripes, each stripe has its own lock and
+ * keeps at most maxSize/stripes entries. When a stripe is full the least recently
+ * used entry is removed, so popular names like "nl." stay in the interner.
+ *
+ * @param <T> type of the name, String or DnsName
+ */
+public class NameInterner<T> {
+	
+	private static final int DEFAULT_STRIPES = 16;
+	
+	private final Stripe<T>[] stripes;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	public NameInterner(int maxSize){
+		this(maxSize, DEFAULT_STRIPES);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public NameInterner(int maxSize, int stripeCount){
+		if(maxSize < 1 || stripeCount < 1){
+			throw new IllegalArgumentException("Illegal interner size: " + maxSize + " stripes: " + stripeCount);
+		}
+		//use a power of two so the stripe can be selected with a mask
+		int count = Integer.highestOneBit(Math.min(stripeCount, maxSize));
+		int stripeSize = Math.max(1, maxSize / count);
+		stripes = (Stripe<T>[])new Stripe<?>[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe<T>(stripeSize);
+		}
+	}
+	
+	/**
+	 * @param name the decoded name
+	 * @return the shared instance which is equal to name, or name itself 
+	 * if there was no equal instance yet
+	 */
+	public T intern(T name){
+		if(name == null){
+			return null;
+		}
+		Stripe<T> stripe = stripeFor(name);
+		Object key = keyOf(name);
+		synchronized (stripe) {
+			T existing = stripe.get(key);
+			if(existing != null){
+				hits.incrementAndGet();
+				return existing;
+			}
+			stripe.put(key, name);
+		}
+		misses.incrementAndGet();
+		return name;
+	}
+	
+	private Object keyOf(T name){
+		//DnsName.equals ignores case
+		return name instanceof DnsName? new ExactName((DnsName)name): name;
+	}
+	
+	private Stripe<T> stripeFor(T name){
+		int h = name.hashCode();
+		//spread the high bits, the hash of similar names often differs only there
+		h ^= (h >>> 16);
+		return stripes[h & (stripes.length - 1)];
+	}
+	
+	public int size(){
+		int size = 0;
+		for (Stripe<T> stripe : stripes) {
+			synchronized (stripe) {
+				size = size + stripe.size();
+			}
+		}
+		return size;
+	}
+	
+	public void clear(){
+		for (Stripe<T> stripe : stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+		hits.set(0);
+		misses.set(0);
+	}
+	
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	/**
+	 * @return fraction of the lookups which returned an existing instance
+	 */
+	public double getHitRate(){
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0? 0: (double)h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "NameInterner [size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + 
+				", hitRate=" + getHitRate() + "]";
+	}
+	
+	/**
+	 * Key of a DnsName which is only equal to a name with the same wire format.
+	 */
+	private static class ExactName {
+		
+		private final DnsName name;
+		
+		public ExactName(DnsName name){
+			this.name = name;
+		}
+		
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ExactName && name.wireEquals(((ExactName)obj).name);
+		}
+	}
+	
+	private static class Stripe<T> extends LinkedHashMap<Object, T>{
+
+		private static final long serialVersionUID = 1L;
+		
+		private final int maxSize;
+		
+		public Stripe(int maxSize){
+			//access order, the eldest entry is the least recently used
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, T> eldest) {
+			return size() > maxSize;
+		}
+	}
+
+}
@@ -1,32 +1,49 @@
 package nl.sidn.dnslib.message.util;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutput;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.util.Arrays;
-
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
+/**
+ * Reader/writer for DNS wire format data.
+ * 
+ * The read side works on a {@link ByteBuffer}, this can be a heap buffer, a direct
+ * buffer (e.g. filled by a DatagramChannel) or a byte[], the data is never copied.
+ * Index 0 of the reader is the position of the buffer at the time this object 
+ * was created, this is also the start of the DNS message which is used as the base
+ * for compression pointers.
+ * 
+ * The write side writes directly into a growable heap or direct {@link ByteBuffer}, 
+ * which may be supplied (and reused) by the caller. When the buffer is too small
+ * a new, larger buffer of the same kind is allocated.
+ */
 public class NetworkData {
 	
-	private byte[] buf;
+	private static final int MAX_COMPRESSION_OFFSET = 0x3fff;
+	
+	//read part
+	private ByteBuffer buf;
 
 	private int index = 0;
-	private int markedIndex = 0;;
+	private int markedIndex = 0;
 	
-	private int byte1 = 0;
-	private int byte2 = 0;
-	private int byte3 = 0;
-	private int byte4 = 0;
+	//names already decoded from this message, key is the offset of the name
+	private Map<Integer, String> names;
+	private Map<Integer, DnsName> dnsNames;
+	//scratch space for decoding names
+	private byte[] nameBuffer;
 	
 	//write part
-	private ByteArrayOutputStream backing;
-	private DataOutput writeBuffer;
+	private ByteBuffer writeBuffer;
 	private int writerIndex;
 	
+	//offsets of names written to this message, key is the lowercase name without root dot
+	private Map<String, Integer> compressionOffsets;
+	private boolean nameCompression = true;
+	
 	public NetworkData(int size){
-		backing = new ByteArrayOutputStream(size);
-		writeBuffer = new DataOutputStream(backing) ;
+		writeBuffer = ByteBuffer.allocate(size);
 	}
 	
 	public NetworkData(){
@@ -34,91 +51,274 @@ public class NetworkData {
 	}
 	
 	public NetworkData(byte[] data){
-		this.buf = data;
+		this(ByteBuffer.wrap(data));
+	}
+	
+	/**
+	 * Decode directly from a heap or direct buffer, only the bytes between
+	 * the position and the limit of the buffer are used. The position and limit
+	 * of the supplied buffer are not changed.
+	 * @param data buffer containing a single DNS message
+	 */
+	public NetworkData(ByteBuffer data){
+		//slice makes sure reads are relative to the start of the message, byte order is big endian
+		this.buf = data.slice();
 		index = 0;
 	}
 	
+	/**
+	 * Create a reader on the same message data with its own reader index, reading
+	 * from the duplicate does not change this reader. The data itself is shared
+	 * and not copied, the decoded names are not shared.
+	 * @param readerIndex the reader index of the duplicate
+	 * @return reader on the same message data
+	 */
+	public NetworkData duplicate(int readerIndex){
+		NetworkData data = new NetworkData(0);
+		data.buf = buf.duplicate();
+		data.index = readerIndex;
+		return data;
+	}
+	
+	/**
+	 * Create a writer which encodes into the supplied buffer, starting at the
+	 * current position of the buffer. The buffer can be reused for the next
+	 * message after calling {@link #resetWriter()}.
+	 * @param buffer heap or direct buffer to write to
+	 * @return writer for the buffer
+	 */
+	public static NetworkData createWriter(ByteBuffer buffer){
+		NetworkData data = new NetworkData(0);
+		data.writeBuffer = buffer.slice();
+		return data;
+	}
+	
+	/**
+	 * Create a writer which encodes into the supplied array, the array
+	 * is used as long as the encoded data fits.
+	 * @param buffer array to write to
+	 * @return writer for the array
+	 */
+	public static NetworkData createWriter(byte[] buffer){
+		return createWriter(ByteBuffer.wrap(buffer));
+	}
+	
 	public long readUnsignedInt(){
-		
-		byte1 = (0xFF & buf[index]);
-		byte2 = (0xFF & buf[index+1]);
-		byte3 = (0xFF & buf[index+2]);
-		byte4 = (0xFF & buf[index+3]);
-        index = index+4;
-        
-        return  ((long) (byte1 << 24
-	                | byte2 << 16
-                    | byte3 << 8
-                    | byte4))
-                   & 0xFFFFFFFFL;
+		long value = buf.getInt(index) & 0xFFFFFFFFL;
+		index = index+4;
+		return value;
 	}
 	
 
 	public short readUnsignedByte(){
-		byte1 = (0xFF & buf[index]);
+		short value = (short)(buf.get(index) & 0xFF);
 		index++;
-		return (short)byte1;
+		return value;
 	}
 	
 	
 	public char readUnsignedChar(){
-		byte1 = (0xFF & buf[index]);
-		byte2 = (0xFF & buf[index+1]);
+		char value = buf.getChar(index);
 		index = index+2;
-		return (char) (byte1 << 8 | byte2);
+		return value;
 	}
 	
 	
+	/**
+	 * Absolute read, the reader index is not changed.
+	 * @param index offset in the message
+	 * @return the unsigned byte at the offset
+	 */
+	public short getUnsignedByte(int index){
+		return (short)(buf.get(index) & 0xFF);
+	}
+	
+	public char getUnsignedChar(int index){
+		return buf.getChar(index);
+	}
+	
+	public long getUnsignedInt(int index){
+		return buf.getInt(index) & 0xFFFFFFFFL;
+	}
+	
 	public void readBytes(byte[] destination){
-		System.arraycopy(buf, index, destination, 0, destination.length);
+		//the slice is private to this object, so changing its position is safe
+		buf.position(index);
+		buf.get(destination);
 		index = index + destination.length;
 	}
 	
+	public void readBytes(byte[] destination, int offset, int length){
+		buf.position(index);
+		buf.get(destination, offset, length);
+		index = index + length;
+	}
+	
 	
 	public void writeChar(int c){
-		try {
-			writeBuffer.writeChar(c);
-			writerIndex+=2;
-		} catch (IOException e) {
-			throw new RuntimeException("Error while writing data", e);
-		}
+		ensureWritable(2);
+		writeBuffer.putChar(writerIndex, (char)c);
+		writerIndex+=2;
+	}
+	
+	/**
+	 * Overwrite 16 bits at a location which has already been written,
+	 * e.g. to fill in the rdlength after the rdata has been written.
+	 * @param index location of the first byte
+	 * @param c value to write
+	 */
+	public void writeChar(int index, int c){
+		writeBuffer.putChar(index, (char)c);
 	}
 	
 	public void writeByte(int b){
-		try {
-			writeBuffer.write(b);
-			writerIndex++;
-		} catch (IOException e) {
-			throw new RuntimeException("Error while writing data", e);
-		}
+		ensureWritable(1);
+		writeBuffer.put(writerIndex, (byte)b);
+		writerIndex++;
 	}
 	
 	public void writeBytes(byte[] b){
-		try {
-			writeBuffer.write(b);
-			writerIndex = writerIndex + b.length;
-		} catch (IOException e) {
-			throw new RuntimeException("Error while writing data", e);
-		}
+		ensureWritable(b.length);
+		writeBuffer.position(writerIndex);
+		writeBuffer.put(b);
+		writerIndex = writerIndex + b.length;
+	}
+	
+	public void writeBytes(byte[] b, int offset, int length){
+		ensureWritable(length);
+		writeBuffer.position(writerIndex);
+		writeBuffer.put(b, offset, length);
+		writerIndex = writerIndex + length;
 	}
 	
 	public void writeInt(long i){
-		try {
-			writeBuffer.writeInt((int)i);
-			writerIndex+=4;
-		} catch (IOException e) {
-			throw new RuntimeException("Error while writing data", e);
+		ensureWritable(4);
+		writeBuffer.putInt(writerIndex, (int)i);
+		writerIndex+=4;
+	}
+	
+	private void ensureWritable(int length){
+		int required = writerIndex + length;
+		if(required <= writeBuffer.limit()){
+			return;
 		}
+		
+		//grow the buffer, keep the same kind of buffer as was supplied
+		int size = Math.max(required, Math.max(writeBuffer.capacity() * 2, 512));
+		ByteBuffer larger = writeBuffer.isDirect()? ByteBuffer.allocateDirect(size): ByteBuffer.allocate(size);
+		writeBuffer.clear();
+		writeBuffer.limit(writerIndex);
+		larger.put(writeBuffer);
+		larger.clear();
+		writeBuffer = larger;
 	}
 	
+	/**
+	 * Copy the encoded data to a new array.
+	 * @return the encoded bytes
+	 */
 	public byte[] write(){
-		byte[] data = backing.toByteArray();
-		return Arrays.copyOf(data, writerIndex);
+		byte[] data = new byte[writerIndex];
+		writeBuffer.position(0);
+		writeBuffer.get(data);
+		writeBuffer.position(0);
+		return data;
+	}
+	
+	/**
+	 * Get the encoded data without copying, the returned buffer is the backing buffer 
+	 * of this writer with the position set to 0 and the limit set to the end of the
+	 * encoded data. When the buffer supplied to {@link #createWriter(ByteBuffer)} was too 
+	 * small this is a newly allocated buffer. Call {@link #resetWriter()} before writing again.
+	 * @return buffer with the encoded data
+	 */
+	public ByteBuffer getWriteBuffer(){
+		writeBuffer.limit(writerIndex);
+		writeBuffer.position(0);
+		return writeBuffer;
+	}
+	
+	/**
+	 * Discard the encoded data, the backing buffer is kept
+	 * so it can be reused to encode the next message.
+	 */
+	public void resetWriter(){
+		writeBuffer.clear();
+		writerIndex = 0;
+		if(compressionOffsets != null){
+			compressionOffsets.clear();
+		}
+	}
+	
+	/**
+	 * Discard the data written from index onwards, e.g. an rrset which does not
+	 * fit in the message. Names in the discarded data are removed from the
+	 * compression dictionary.
+	 * @param index the new writer index
+	 */
+	public void truncate(int index){
+		if(index < 0 || index > writerIndex){
+			throw new IndexOutOfBoundsException("Cannot truncate to " + index + " writer index is " + writerIndex);
+		}
+		writerIndex = index;
+		if(compressionOffsets != null){
+			Iterator<Integer> offsets = compressionOffsets.values().iterator();
+			while(offsets.hasNext()){
+				if(offsets.next().intValue() >= index){
+					offsets.remove();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Get the offset of a name which has already been written to this message.
+	 * @param name lowercase name without the trailing root dot
+	 * @return offset of the name or -1 if the name has not been written yet
+	 */
+	public int getCompressionOffset(String name){
+		if(compressionOffsets == null){
+			return -1;
+		}
+		Integer offset = compressionOffsets.get(name);
+		return offset != null? offset.intValue(): -1;
+	}
+	
+	/**
+	 * Remember the location of a written name so it can be used as 
+	 * the target of a compression pointer.
+	 * @param name lowercase name without the trailing root dot
+	 * @param offset offset of the first label of the name
+	 */
+	public void addCompressionOffset(String name, int offset){
+		//a pointer has only 14 bits for the offset
+		if(offset > MAX_COMPRESSION_OFFSET){
+			return;
+		}
+		if(compressionOffsets == null){
+			compressionOffsets = new HashMap<>();
+		}
+		if(!compressionOffsets.containsKey(name)){
+			compressionOffsets.put(name, offset);
+		}
+	}
+	
+	public boolean isNameCompression() {
+		return nameCompression;
+	}
+
+	/**
+	 * Enable or disable name compression for all names written to this message,
+	 * compression is enabled by default.
+	 * @param nameCompression false to write all names uncompressed
+	 */
+	public void setNameCompression(boolean nameCompression) {
+		this.nameCompression = nameCompression;
 	}
 	
 	public int readableBytes(){
 		if(buf != null){
-			return buf.length;
+			return buf.limit();
 		}
 		
 		return 0;
@@ -140,6 +340,62 @@ public class NetworkData {
 		return writerIndex;
 	}
 	
+	/**
+	 * Get a name which has been decoded before from the same message.
+	 * @param offset offset of the first label of the name
+	 * @return the name without trailing root dot, or null if not found
+	 */
+	public String getCachedName(int offset){
+		if(names == null){
+			return null;
+		}
+		return names.get(offset);
+	}
+	
+	/**
+	 * Remember a decoded name so a compression pointer to the same offset
+	 * does not have to decode the name again.
+	 * @param offset offset of the first label of the name
+	 * @param name the name without trailing root dot
+	 */
+	public void cacheName(int offset, String name){
+		if(names == null){
+			names = new HashMap<>();
+		}
+		names.put(offset, name);
+	}
+	
+	public DnsName getCachedDnsName(int offset){
+		if(dnsNames == null){
+			return null;
+		}
+		return dnsNames.get(offset);
+	}
+	
+	public void cacheDnsName(int offset, DnsName name){
+		if(dnsNames == null){
+			dnsNames = new HashMap<>();
+		}
+		dnsNames.put(offset, name);
+	}
+	
+	/**
+	 * @return buffer large enough for the uncompressed wire format of any name
+	 */
+	byte[] getNameBuffer(){
+		if(nameBuffer == null){
+			nameBuffer = new byte[255];
+		}
+		return nameBuffer;
+	}
+	
+	public void skipBytes(int length){
+		if(index + length > buf.limit()){
+			throw new IndexOutOfBoundsException("Cannot skip " + length + " bytes at index " + index);
+		}
+		index = index + length;
+	}
+	
 	public void markReaderIndex(){
 		markedIndex = index;
 	}
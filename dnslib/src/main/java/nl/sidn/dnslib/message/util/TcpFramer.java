@@ -0,0 +1,209 @@
+package nl.sidn.dnslib.message.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+
+/**
+ * Splits a DNS over TCP stream into messages, each message is preceded by a
+ * 2 byte length field (RFC 1035 4.2.2).
+ *
+ * Data is pushed into the framer in chunks of any size, a chunk may end in the
+ * middle of a length field or a message. Every complete message is passed to the
+ * {@link FrameHandler}. When a message is completely inside a chunk the handler
+ * gets a view on the chunk, otherwise the message is first collected in a buffer
+ * which is reused for the next messages. The buffer never grows beyond the max frame size.
+ *
+ * A framer is not thread safe, use one framer per connection.
+ */
+public class TcpFramer {
+
+	public static final int MAX_FRAME_SIZE = 65535;
+
+	private static final int READ_BUFFER_SIZE = 4096;
+
+	/**
+	 * Receives the messages from the stream.
+	 */
+	public interface FrameHandler {
+
+		/**
+		 * @param frame buffer from position to limit contains a single message without the
+		 * length field. The buffer is only valid during this call, it may be a view on
+		 * the data passed to the framer or on the reused buffer of the framer.
+		 */
+		void onFrame(ByteBuffer frame);
+	}
+
+	private final FrameHandler handler;
+	private final int maxFrameSize;
+
+	//length of the current frame, -1 while reading the length field
+	private int frameLength = -1;
+	//first byte of a length field which was split over 2 chunks, -1 if none
+	private int lengthHighByte = -1;
+
+	//buffer for frames which are split over multiple chunks, created on first use
+	private byte[] buffer;
+	private int buffered;
+
+	//used by read(InputStream) and read(ReadableByteChannel), created on first use
+	private byte[] readArray;
+	private ByteBuffer readBuffer;
+
+	public TcpFramer(FrameHandler handler){
+		this(handler, MAX_FRAME_SIZE);
+	}
+
+	/**
+	 * @param handler receives the messages
+	 * @param maxFrameSize max size of a message, a larger message is an error
+	 */
+	public TcpFramer(FrameHandler handler, int maxFrameSize){
+		if(maxFrameSize < 1 || maxFrameSize > MAX_FRAME_SIZE){
+			throw new IllegalArgumentException("Invalid max frame size: " + maxFrameSize);
+		}
+		this.handler = handler;
+		this.maxFrameSize = maxFrameSize;
+	}
+
+	/**
+	 * Process the bytes between the position and limit of the data, the position is
+	 * moved to the limit.
+	 * @param data next part of the stream
+	 * @throws DnsDecodeException when a length field is 0 or larger than the max frame size,
+	 * the stream cannot be used anymore after this error.
+	 */
+	public void feed(ByteBuffer data){
+		while(data.hasRemaining()){
+			if(frameLength == -1 && !readLength(data)){
+				//the rest of the length field is in the next chunk
+				return;
+			}
+
+			if(buffered == 0 && data.remaining() >= frameLength){
+				//complete frame in this chunk, no need to copy it
+				ByteBuffer frame = data.slice();
+				frame.limit(frameLength);
+				data.position(data.position() + frameLength);
+				frameLength = -1;
+				handler.onFrame(frame);
+				continue;
+			}
+
+			if(buffer == null || buffer.length < frameLength){
+				byte[] larger = new byte[Math.min(maxFrameSize, Math.max(frameLength, buffer == null? 512: buffer.length * 2))];
+				if(buffer != null){
+					System.arraycopy(buffer, 0, larger, 0, buffered);
+				}
+				buffer = larger;
+			}
+
+			int length = Math.min(data.remaining(), frameLength - buffered);
+			data.get(buffer, buffered, length);
+			buffered = buffered + length;
+
+			if(buffered == frameLength){
+				ByteBuffer frame = ByteBuffer.wrap(buffer, 0, frameLength);
+				frameLength = -1;
+				buffered = 0;
+				handler.onFrame(frame);
+			}
+		}
+	}
+
+	public void feed(byte[] data, int offset, int length){
+		feed(ByteBuffer.wrap(data, offset, length));
+	}
+
+	private boolean readLength(ByteBuffer data){
+		int length;
+		if(lengthHighByte == -1){
+			if(data.remaining() == 1){
+				lengthHighByte = data.get() & 0xFF;
+				return false;
+			}
+			length = data.getChar();
+		}else{
+			length = (lengthHighByte << 8) | (data.get() & 0xFF);
+			lengthHighByte = -1;
+		}
+
+		if(length == 0 || length > maxFrameSize){
+			throw new DnsDecodeException("Invalid frame length: " + length + " max is " + maxFrameSize);
+		}
+		frameLength = length;
+		return true;
+	}
+
+	/**
+	 * Read the stream until the end of the stream.
+	 * @param in the stream
+	 * @throws EOFException when the stream ends in the middle of a message
+	 */
+	public void read(InputStream in) throws IOException {
+		if(readArray == null){
+			readArray = new byte[READ_BUFFER_SIZE];
+		}
+		int length;
+		while((length = in.read(readArray)) != -1){
+			feed(readArray, 0, length);
+		}
+		if(isPartial()){
+			throw new EOFException("Stream ended in the middle of a message");
+		}
+	}
+
+	/**
+	 * Read the data which is available from the channel, for a non-blocking channel
+	 * this can be called every time the channel is readable.
+	 * @param channel the channel
+	 * @return the number of bytes read, or -1 at the end of the stream
+	 * @throws EOFException when the stream ends in the middle of a message
+	 */
+	public int read(ReadableByteChannel channel) throws IOException {
+		if(readBuffer == null){
+			readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		}
+		readBuffer.clear();
+		int length = channel.read(readBuffer);
+		if(length == -1){
+			if(isPartial()){
+				throw new EOFException("Stream ended in the middle of a message");
+			}
+			return -1;
+		}
+		readBuffer.flip();
+		feed(readBuffer);
+		return length;
+	}
+
+	/**
+	 * @return true if part of a message or length field has been received
+	 */
+	public boolean isPartial(){
+		return frameLength != -1 || lengthHighByte != -1;
+	}
+
+	/**
+	 * Discard a partially received message, e.g. when the connection is reused
+	 * after an error. The buffer is kept.
+	 */
+	public void reset(){
+		frameLength = -1;
+		lengthHighByte = -1;
+		buffered = 0;
+	}
+
+	/**
+	 * @return size of the buffer for messages which are split over multiple chunks
+	 */
+	public int getBufferSize(){
+		return buffer == null? 0: buffer.length;
+	}
+
+}
@@ -62,6 +62,6 @@ public enum ResourceRecordClass {
 	}
 	
 	public static ResourceRecordClass fromValue(int value){
-		return classesToInt.get(new Integer(value));
+		return classesToInt.get(Integer.valueOf(value));
 	}
 }
@@ -130,6 +130,7 @@ public enum ResourceRecordType {
 	NSEC3(50),
 	NSEC3PARAM(51),
 	SPF(99),
+	IXFR(251),
 	AXFR(252),
 	MAILB(253),
 	MAILA(254),
@@ -162,6 +163,6 @@ public enum ResourceRecordType {
 	}
 	
 	public static ResourceRecordType fromValue(int value){
-		return typesToInt.get(new Integer(value));
+		return typesToInt.get(Integer.valueOf(value));
 	}
 }
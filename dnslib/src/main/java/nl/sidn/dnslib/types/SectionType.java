@@ -0,0 +1,13 @@
+package nl.sidn.dnslib.types;
+
+/**
+ * The resource record sections of a message (RFC 1035 4.1), 
+ * the question section is not included.
+ */
+public enum SectionType {
+	
+	ANSWER,
+	AUTHORITY,
+	ADDITIONAL;
+
+}
@@ -26,5 +26,10 @@ public class TypeMap {
 		return type.name();
 	}
 	
+	@Override
+	public String toString() {
+		return name();
+	}
+	
 
 }
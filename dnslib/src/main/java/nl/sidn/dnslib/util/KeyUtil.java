@@ -103,7 +103,7 @@ public class KeyUtil {
 	public static boolean isKeyandDSmatch(DNSKEYResourceRecord key, DSResourceRecord ds){
 		if(key.getAlgorithm() == ds.getAlgorithm() &&
 				key.getKeytag() == ds.getKeytag() &&
-				key.getName().equalsIgnoreCase(ds.getName())  ){
+				key.getDnsName().equals(ds.getDnsName())  ){
 			return true;
 		}
 		
@@ -9,7 +9,18 @@ public class LabelUtil {
 			return 0;
 		}
 		
-		return StringUtils.split(name, ".").length;
+		//count the non empty labels without splitting the name
+		int labels = 0;
+		boolean inLabel = false;
+		for (int i = 0; i < name.length(); i++) {
+			if(name.charAt(i) == '.'){
+				inLabel = false;
+			}else if(!inLabel){
+				inLabel = true;
+				labels++;
+			}
+		}
+		return labels;
 		
 	}
 	
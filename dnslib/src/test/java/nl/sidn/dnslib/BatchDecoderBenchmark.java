@@ -0,0 +1,54 @@
+package nl.sidn.dnslib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.sidn.dnslib.message.BatchDecoder;
+
+/**
+ * Throughput of the BatchDecoder for 1 up to N threads. This is not a unit
+ * test, run it by hand on an otherwise idle machine:
+ * <pre>
+ * java -cp &lt;test and runtime classpath&gt; nl.sidn.dnslib.BatchDecoderBenchmark [packets] [max threads] [rounds]
+ * </pre>
+ * Defaults are 100000 referrals, the number of cores and 5 rounds. The best
+ * round of every thread count is printed, together with the speedup compared
+ * to a single thread.
+ */
+public class BatchDecoderBenchmark {
+
+	public static void main(String[] args) {
+		int size = args.length > 0? Integer.parseInt(args[0]): 100000;
+		int maxThreads = args.length > 1? Integer.parseInt(args[1]): Runtime.getRuntime().availableProcessors();
+		int rounds = args.length > 2? Integer.parseInt(args[2]): 5;
+
+		List<byte[]> packets = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			packets.add(TestMessages.referral(i, false));
+		}
+
+		System.out.println("threads\tpackets/s\tspeedup");
+		long single = 0;
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			BatchDecoder decoder = new BatchDecoder().withParallelism(threads);
+			try{
+				//first round warms up the jit and the pool threads
+				decoder.decode(packets);
+				long best = Long.MAX_VALUE;
+				for (int round = 0; round < rounds; round++) {
+					long start = System.nanoTime();
+					decoder.decode(packets);
+					best = Math.min(best, System.nanoTime() - start);
+				}
+				long perSecond = (size * 1000000000L) / best;
+				if(threads == 1){
+					single = perSecond;
+				}
+				System.out.println(threads + "\t" + perSecond + "\t" + String.format("%.2f", (double)perSecond / single));
+			}finally{
+				decoder.shutdown();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.BatchDecoder;
+import nl.sidn.dnslib.message.BatchDecoder.ErrorPolicy;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+public class BatchDecoderTest {
+
+	@Test
+	public void resultsInInputOrder(){
+		List<byte[]> packets = createBatch(1000);
+		BatchDecoder decoder = new BatchDecoder().withParallelism(4).withChunkSize(16);
+		try{
+			List<Message> messages = decoder.decode(packets);
+			assertEquals(1000, messages.size());
+			for (int i = 0; i < messages.size(); i++) {
+				assertEquals(i, messages.get(i).getHeader().getId());
+				assertEquals(4, messages.get(i).getAdditional().size());
+			}
+
+			ByteBuffer[] buffers = new ByteBuffer[packets.size()];
+			for (int i = 0; i < buffers.length; i++) {
+				buffers[i] = ByteBuffer.wrap(packets.get(i));
+			}
+			messages = decoder.decode(buffers);
+			assertEquals(999, messages.get(999).getHeader().getId());
+		}finally{
+			decoder.shutdown();
+		}
+	}
+
+	@Test
+	public void errorPolicy(){
+		List<byte[]> packets = createBatch(100);
+		//the rdata of the last glue record is cut off
+		byte[] bad = packets.get(42);
+		packets.set(42, Arrays.copyOf(bad, bad.length - 2));
+		//the last glue record becomes an NSEC, its rdata is not a valid NSEC rdata
+		byte[] malformed = packets.get(17).clone();
+		malformed[malformed.length - 14] = 0;
+		malformed[malformed.length - 13] = (byte)ResourceRecordType.NSEC.getValue();
+		packets.set(17, malformed);
+
+		BatchDecoder decoder = new BatchDecoder().withParallelism(2).withChunkSize(8);
+		try{
+			List<Message> messages = decoder.withErrorPolicy(ErrorPolicy.NULL).decode(packets);
+			assertEquals(100, messages.size());
+			assertNull(messages.get(17));
+			assertNull(messages.get(42));
+			assertEquals(43, messages.get(43).getHeader().getId());
+
+			messages = decoder.withErrorPolicy(ErrorPolicy.SKIP).decode(packets);
+			assertEquals(98, messages.size());
+			assertEquals(18, messages.get(17).getHeader().getId());
+			assertEquals(44, messages.get(42).getHeader().getId());
+
+			try{
+				decoder.withErrorPolicy(ErrorPolicy.FAIL).decode(packets);
+				fail("bad packet not detected");
+			}catch(DnsDecodeException e){
+				assertEquals("Cannot decode packet 17 of the batch", e.getMessage());
+			}
+		}finally{
+			decoder.shutdown();
+		}
+	}
+
+	@Test
+	public void sameResultForEveryParallelism(){
+		//the chunk size does not divide the batch, the last chunk is smaller
+		List<byte[]> packets = createBatch(500);
+		Object expected = new Message(new NetworkData(packets.get(123))).toZone();
+		for (int parallelism = 1; parallelism <= 4; parallelism++) {
+			BatchDecoder decoder = new BatchDecoder().withParallelism(parallelism).withChunkSize(7);
+			try{
+				List<Message> messages = decoder.decode(packets.iterator());
+				assertEquals(500, messages.size());
+				assertEquals(499, messages.get(499).getHeader().getId());
+				//decoded on the pool threads, nothing is left to parse by the caller
+				assertTrue(messages.get(123).isDecoded());
+				assertEquals(expected, messages.get(123).toZone());
+			}finally{
+				decoder.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void iteratorInWindows(){
+		List<byte[]> packets = createBatch(100);
+		byte[] bad = packets.get(42);
+		packets.set(42, Arrays.copyOf(bad, bad.length - 2));
+
+		//windows of 2 chunks of 8 packets
+		BatchDecoder decoder = new BatchDecoder().withParallelism(2).withChunkSize(8);
+		try{
+			Iterator<byte[]> it = packets.iterator();
+			try{
+				decoder.decode(it);
+				fail("bad packet not detected");
+			}catch(DnsDecodeException e){
+				assertEquals("Cannot decode packet 42 of the batch", e.getMessage());
+			}
+			//decoding stopped at the window with the bad packet
+			assertTrue(it.hasNext());
+			assertEquals(48, it.next()[1]);
+
+			it = packets.iterator();
+			List<Message> messages = decoder.withErrorPolicy(ErrorPolicy.SKIP).decode(it);
+			assertFalse(it.hasNext());
+			assertEquals(99, messages.size());
+			assertEquals(99, messages.get(98).getHeader().getId());
+		}finally{
+			decoder.shutdown();
+		}
+	}
+
+	private List<byte[]> createBatch(int size){
+		List<byte[]> packets = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			packets.add(TestMessages.referral(i, false));
+		}
+		return packets;
+	}
+
+}
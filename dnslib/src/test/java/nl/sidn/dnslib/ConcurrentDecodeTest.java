@@ -0,0 +1,191 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.RRset;
+import nl.sidn.dnslib.message.records.AbstractResourceRecord;
+import nl.sidn.dnslib.message.records.LOCResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.dnssec.DNSKEYResourceRecord;
+import nl.sidn.dnslib.message.records.dnssec.DSResourceRecord;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.AlgorithmType;
+import nl.sidn.dnslib.types.DigestType;
+import nl.sidn.dnslib.types.MessageType;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.RcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+/**
+ * Stress test, the same corpus is decoded and formatted on multiple threads at
+ * the same time and the output must be the same as the output of a single thread.
+ */
+public class ConcurrentDecodeTest {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 20;
+	private static final int CORPUS_SIZE = 200;
+
+	//2014-12-29 00:00:00 UTC, in week 1 of 2015
+	private static final long WEEK_YEAR_TIME = 1419811200L;
+
+	@Test
+	public void sameOutputAsSingleThread() throws Exception {
+		final List<byte[]> corpus = createCorpus(CORPUS_SIZE);
+		final List<String> expected = format(corpus);
+
+		assertTrue(expected.get(0).contains("20141229000000"));
+		assertTrue(expected.get(0).contains("52 22 5.007 N"));
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try{
+			for (int round = 0; round < ROUNDS; round++) {
+				final CountDownLatch start = new CountDownLatch(1);
+				List<Future<List<String>>> results = new ArrayList<>();
+				for (int i = 0; i < THREADS; i++) {
+					results.add(executor.submit(new Callable<List<String>>() {
+						@Override
+						public List<String> call() throws Exception {
+							//start all threads at the same time
+							start.await();
+							return format(corpus);
+						}
+					}));
+				}
+				start.countDown();
+
+				for (Future<List<String>> result : results) {
+					List<String> actual = result.get();
+					for (int i = 0; i < expected.size(); i++) {
+						assertEquals("message " + i + " round " + round, expected.get(i), actual.get(i));
+					}
+				}
+			}
+		}finally{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Decode every message and format all the records.
+	 */
+	private static List<String> format(List<byte[]> corpus){
+		List<String> output = new ArrayList<>();
+		for (byte[] packet : corpus) {
+			Message msg = new Message(new NetworkData(packet));
+			StringBuilder sb = new StringBuilder();
+			for (RRset rrset : msg.getAnswer()) {
+				for (ResourceRecord rr : rrset.getAll()) {
+					sb.append(rr.toZone(20)).append("\n").append(rr).append("\n");
+				}
+			}
+			output.add(sb.toString());
+		}
+		return output;
+	}
+
+	private List<byte[]> createCorpus(int size){
+		List<byte[]> corpus = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			String owner = "d" + i + ".example.nl.";
+			NetworkData buffer = new NetworkData(4096);
+
+			Header header = new Header();
+			header.setId((char)i);
+			header.setQr(MessageType.RESPONSE);
+			header.setOpCode(OpcodeType.STANDARD);
+			header.setRcode(RcodeType.NO_ERROR);
+			header.setAnCount((char)4);
+			header.encode(buffer);
+
+			//every message has different dates, spread over several years
+			long time = WEEK_YEAR_TIME + i * 7L * 86400;
+			writeRrsig(buffer, owner, time + 30 * 86400, time, i);
+
+			DNSKEYResourceRecord dnskey = new DNSKEYResourceRecord();
+			init(dnskey, owner, ResourceRecordType.DNSKEY);
+			dnskey.setFlags((char)257);
+			dnskey.setProtocol((byte)3);
+			dnskey.setAlgorithm(AlgorithmType.RSASHA256);
+			dnskey.setKeydata(bytes(64 + (i % 64), i));
+			dnskey.encode(buffer);
+
+			DSResourceRecord ds = new DSResourceRecord();
+			init(ds, owner, ResourceRecordType.DS);
+			ds.setKeytag((char)i);
+			ds.setAlgorithm(AlgorithmType.RSASHA256);
+			ds.setDigestType(DigestType.SHA256);
+			ds.setDigest(bytes(32, i));
+			ds.encode(buffer);
+
+			LOCResourceRecord loc = new LOCResourceRecord();
+			init(loc, owner, ResourceRecordType.LOC);
+			loc.setSize((short)0x12);
+			loc.setHorizontalPrecision((short)0x16);
+			loc.setVerticalPrecision((short)0x13);
+			//52 22 5.007 N, the longitude and altitude differ per message
+			loc.setLatitude((1L << 31) + 52 * 3600000 + 22 * 60000 + 5007);
+			loc.setLongitude((1L << 31) + 4 * 3600000 + 53 * 60000 + i * 10);
+			loc.setAltitude(10000000 + i * 101);
+			loc.encode(buffer);
+
+			corpus.add(buffer.write());
+		}
+		return corpus;
+	}
+
+	private void init(AbstractResourceRecord rr, String owner, ResourceRecordType type){
+		rr.setName(owner);
+		rr.setType(type);
+		rr.setClassz(ResourceRecordClass.IN);
+		rr.setTtl(3600);
+	}
+
+	/**
+	 * The RRSIG record has no setter for the type covered, write the rr directly.
+	 */
+	private void writeRrsig(NetworkData buffer, String owner, long expiration, long inception, int keytag){
+		String signer = "example.nl.";
+		byte[] signature = bytes(128, keytag);
+
+		DNSStringUtil.writeName(owner, buffer);
+		buffer.writeChar(ResourceRecordType.RRSIG.getValue());
+		buffer.writeChar(ResourceRecordClass.IN.getValue());
+		buffer.writeInt(3600);
+		//rdata length: fixed fields, signer name and signature
+		buffer.writeChar(18 + signer.length() + 1 + signature.length);
+		buffer.writeChar(ResourceRecordType.A.getValue());
+		buffer.writeByte(AlgorithmType.RSASHA256.getValue());
+		buffer.writeByte(3);
+		buffer.writeInt(3600);
+		buffer.writeInt(expiration);
+		buffer.writeInt(inception);
+		buffer.writeChar(keytag);
+		DNSStringUtil.writeName(signer, buffer, false);
+		buffer.writeBytes(signature);
+	}
+
+	private byte[] bytes(int length, int seed){
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte)(seed + i * 31);
+		}
+		return data;
+	}
+
+}
@@ -0,0 +1,47 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.*;
+import nl.sidn.dnslib.message.util.DnsName;
+
+import org.junit.Test;
+
+public class DnsNameTest {
+
+	@Test
+	public void caseInsensitiveEquality(){
+		DnsName a = DnsName.fromString("www.SIDN.nl.");
+		DnsName b = DnsName.fromString("WWW.sidn.NL");
+
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals("www.SIDN.nl.", a.toString());
+		assertEquals(3, a.getLabelCount());
+	}
+
+	@Test
+	public void parentAndSubdomain(){
+		DnsName name = DnsName.fromString("www.sidn.nl.");
+
+		assertEquals(DnsName.fromString("sidn.nl."), name.parent());
+		assertEquals(DnsName.fromString("nl."), name.suffix(1));
+		assertTrue(name.isSubdomainOf(DnsName.fromString("SIDN.nl.")));
+		assertTrue(name.isSubdomainOf(DnsName.ROOT));
+		assertFalse(name.isSubdomainOf(DnsName.fromString("idn.nl.")));
+		assertNull(DnsName.ROOT.parent());
+	}
+
+	@Test
+	public void canonicalOrder(){
+		//example from RFC 4034 section 6.1
+		String[] ordered = new String[]{"example.", "a.example.", "yljkjljk.a.example.",
+				"Z.a.example.", "zABC.a.EXAMPLE.", "z.example.", "*.z.example."};
+
+		for (int i = 0; i < ordered.length - 1; i++) {
+			DnsName smaller = DnsName.fromString(ordered[i]);
+			DnsName larger = DnsName.fromString(ordered[i + 1]);
+			assertTrue(ordered[i] + " < " + ordered[i + 1], smaller.compareTo(larger) < 0);
+			assertTrue(larger.compareTo(smaller) > 0);
+		}
+	}
+
+}
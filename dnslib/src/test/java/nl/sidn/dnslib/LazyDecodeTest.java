@@ -0,0 +1,182 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.DecodeOptions;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.records.dnssec.DSResourceRecord;
+import nl.sidn.dnslib.message.records.dnssec.NSECResourceRecord;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+import nl.sidn.dnslib.types.SectionType;
+
+import org.junit.Test;
+
+public class LazyDecodeTest {
+	
+	private byte[] referral = TestMessages.referral();
+	
+	@Test
+	public void decodeSectionsOnDemand(){
+		Message eager = new Message(new NetworkData(referral));
+		Message lazy = new Message(new NetworkData(referral), true);
+		
+		assertFalse(lazy.isDecoded());
+		assertEquals("www.example.nl.", lazy.getQuestions().get(0).getqName());
+		
+		//additional first, the answer and authority sections must be skipped
+		assertEquals(TestMessages.zone(eager.getAdditional()), TestMessages.zone(lazy.getAdditional()));
+		assertEquals(TestMessages.zone(eager.getAuthority()), TestMessages.zone(lazy.getAuthority()));
+		assertFalse(lazy.isDecoded());
+		assertEquals(TestMessages.zone(eager.getAnswer()), TestMessages.zone(lazy.getAnswer()));
+		assertTrue(lazy.isDecoded());
+		
+		assertEquals(eager.getHeader().getNsCount(), lazy.getHeader().getNsCount());
+		assertEquals(eager.getHeader().getArCount(), lazy.getHeader().getArCount());
+	}
+	
+	@Test
+	public void decodeSelectedSectionsAndTypes(){
+		DecodeOptions options = new DecodeOptions()
+			.withSections(SectionType.ADDITIONAL)
+			.withTypes(ResourceRecordType.A);
+		Message msg = new Message(new NetworkData(referral), options);
+		
+		assertTrue(msg.getAuthority().isEmpty());
+		assertEquals(4, msg.getAdditional().size());
+		
+		options = new DecodeOptions().withTypes(ResourceRecordType.NS);
+		msg = new Message(new NetworkData(referral), options);
+		assertEquals(1, msg.getAuthority().size());
+		assertEquals(4, msg.getAuthority().get(0).size());
+		assertTrue(msg.getAdditional().isEmpty());
+		assertEquals(4, msg.getHeader().getNsCount());
+		assertEquals(0, msg.getHeader().getArCount());
+	}
+	
+	@Test
+	public void parseRdataOnDemand(){
+		NetworkData buffer = new NetworkData(128);
+		DNSStringUtil.writeName("example.nl.", buffer);
+		buffer.writeChar(ResourceRecordType.DS.getValue());
+		buffer.writeChar(ResourceRecordClass.IN.getValue());
+		buffer.writeInt(3600);
+		buffer.writeChar(8);
+		buffer.writeChar(12345);
+		buffer.writeByte(8);
+		buffer.writeByte(2);
+		buffer.writeBytes(new byte[]{(byte)0xca, (byte)0xfe, 0x01, 0x02});
+		NetworkData data = new NetworkData(buffer.write());
+		
+		DSResourceRecord ds = new DSResourceRecord();
+		ds.decode(data, true);
+		//the rdata has been skipped
+		assertEquals(data.readableBytes(), data.getReaderIndex());
+		
+		assertEquals("cafe0102", ds.getReadableHash());
+		assertEquals(12345, ds.getKeytag());
+		assertEquals(8, ds.getRdata().length);
+		assertEquals(data.readableBytes(), data.getReaderIndex());
+	}
+	
+	@Test
+	public void malformedRdataKeepsFailing(){
+		//NSEC with a root next name and a bitmap window without the bitmap
+		NetworkData data = new NetworkData(64);
+		data.writeByte(0);
+		data.writeChar(ResourceRecordType.NSEC.getValue());
+		data.writeChar(ResourceRecordClass.IN.getValue());
+		data.writeInt(3600);
+		data.writeChar(3);
+		data.writeBytes(new byte[]{0, 0, 5});
+		byte[] rr = data.write();
+		
+		try{
+			new NSECResourceRecord().decode(new NetworkData(rr));
+			fail("the rdata is parsed by decode");
+		}catch(DnsDecodeException e){
+			//expected
+		}
+		
+		NSECResourceRecord nsec = new NSECResourceRecord();
+		nsec.decode(new NetworkData(rr), true);
+		for (int i = 0; i < 2; i++) {
+			try{
+				nsec.getNextDomainName();
+				fail("the rdata is malformed");
+			}catch(DnsDecodeException e){
+				//expected, also on the second access
+			}
+		}
+	}
+	
+	@Test
+	public void reuseReceiveBuffer(){
+		Object expected = new Message(new NetworkData(referral)).toZone();
+		ByteBuffer received = ByteBuffer.allocateDirect(512);
+		received.put(referral).flip();
+		
+		Message msg = new Message(new NetworkData(received));
+		//the next packet is received in the same buffer
+		received.clear();
+		received.put(new byte[512]);
+		assertEquals(expected, msg.toZone());
+	}
+	
+	@Test
+	public void shareLazyRdataBetweenThreads() throws Exception {
+		final Object expected = new Message(new NetworkData(referral)).toZone();
+		NetworkData data = new NetworkData(referral);
+		final Message msg = new Message(data, new DecodeOptions().withLazyRdata(true));
+		int index = data.getReaderIndex();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() {
+						return msg.toZone();
+					}
+				}));
+			}
+			for (Future<Object> result : results) {
+				assertEquals(expected, result.get());
+			}
+		}finally{
+			executor.shutdown();
+		}
+		//parsing the rdata does not move the reader of the message
+		assertEquals(index, data.getReaderIndex());
+	}
+	
+	@Test
+	public void questionOnlyReadsHeaderAndQuestion(){
+		NetworkData eagerData = new NetworkData(referral);
+		new Message(eagerData, false).getQuestions();
+		assertEquals(referral.length, eagerData.getReaderIndex());
+		
+		//header of 12 bytes and the question for www.example.nl.
+		NetworkData lazyData = new NetworkData(referral);
+		Message lazy = new Message(lazyData, true);
+		assertEquals("www.example.nl.", lazy.getQuestions().get(0).getqName());
+		assertEquals(12 + 16 + 4, lazyData.getReaderIndex());
+		assertFalse(lazy.isDecoded());
+	}
+		
+}
@@ -0,0 +1,178 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.RRset;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecordFactory;
+import nl.sidn.dnslib.message.records.edns0.OPTResourceRecord;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+public class MessageEncodeTest {
+	
+	@Test
+	public void encodeDecode(){
+		Message msg = TestMessages.referralMessage();
+		
+		NetworkData buffer = new NetworkData(msg.estimateSize());
+		int size = msg.encode(buffer);
+		assertEquals(buffer.getWriterIndex(), size);
+		assertTrue(size <= msg.estimateSize());
+		
+		Message decoded = new Message(new NetworkData(buffer.write()));
+		assertEquals("www.example.nl.", decoded.getQuestions().get(0).getqName());
+		assertEquals(TestMessages.zone(msg.getAuthority()), TestMessages.zone(decoded.getAuthority()));
+		assertEquals(TestMessages.zone(msg.getAdditional()), TestMessages.zone(decoded.getAdditional()));
+		assertFalse(decoded.getHeader().isTc());
+	}
+	
+	@Test
+	public void estimateSizeOfNewRRs(){
+		//the rdlength of rrs created with the setters is not known before encoding
+		Message msg = TestMessages.referralMessage();
+		assertEquals(304, msg.estimateSize());
+		
+		NetworkData uncompressed = new NetworkData(512);
+		uncompressed.setNameCompression(false);
+		assertEquals(304, msg.encode(uncompressed));
+	}
+	
+	@Test
+	public void encodeDoesNotChangeHeader(){
+		Message msg = TestMessages.referralMessage();
+		msg.addAdditional(TestMessages.a("ns5.example.nl.", new byte[]{(byte)192, 0, 2, 5}));
+		NetworkData buffer = new NetworkData(512);
+		msg.encode(buffer);
+		
+		assertEquals(5, new Message(new NetworkData(buffer.write())).getHeader().getArCount());
+		assertEquals(4, msg.getHeader().getArCount());
+	}
+	
+	@Test
+	public void truncateAtRRsetBoundary(){
+		Message msg = TestMessages.referralMessage();
+		NetworkData buffer = new NetworkData(512);
+		int full = msg.encode(buffer);
+		
+		//the authority section fits but the glue does not
+		buffer.resetWriter();
+		int size = msg.encode(buffer, full - 1);
+		Message decoded = new Message(new NetworkData(buffer.write()));
+		assertTrue(size < full);
+		assertFalse(decoded.getHeader().isTc());
+		assertEquals(4, decoded.getHeader().getNsCount());
+		assertTrue(decoded.getHeader().getArCount() < 4);
+		
+		//not even the authority section fits
+		buffer.resetWriter();
+		msg.encode(buffer, 60);
+		decoded = new Message(new NetworkData(buffer.write()));
+		assertTrue(decoded.getHeader().isTc());
+		assertEquals(0, decoded.getHeader().getNsCount());
+		assertEquals(0, decoded.getHeader().getArCount());
+		assertEquals(1, decoded.getHeader().getQdCount());
+		
+		//the message itself is not changed
+		assertFalse(msg.getHeader().isTc());
+		assertEquals(4, msg.getHeader().getNsCount());
+	}
+	
+	@Test
+	public void optOptions(){
+		Message msg = TestMessages.referralMessage();
+		msg.addAdditional(opt());
+		NetworkData buffer = new NetworkData(512);
+		msg.encode(buffer);
+		byte[] wire = buffer.write();
+		
+		//the cookie option, flags, version and ext-rcode survive decoding and encoding again
+		Message decoded = new Message(new NetworkData(wire));
+		OPTResourceRecord opt = findOpt(decoded);
+		assertEquals(12, opt.getOptions().length);
+		assertFalse(opt.getDnssecDo());
+		assertEquals(1, opt.getVersion());
+		NetworkData again = new NetworkData(512);
+		decoded.encode(again);
+		assertArrayEquals(wire, again.write());
+		assertArrayEquals(wire, reencode(new Message(new NetworkData(again.write()))));
+	}
+	
+	@Test
+	public void truncatedKeepsOpt(){
+		Message msg = TestMessages.referralMessage();
+		msg.addAdditional(opt());
+		
+		//room for the question and the OPT only (RFC 6891 7)
+		NetworkData buffer = new NetworkData(512);
+		msg.encode(buffer, 60 + 23);
+		Message decoded = new Message(new NetworkData(buffer.write()));
+		assertTrue(decoded.getHeader().isTc());
+		assertEquals(0, decoded.getHeader().getNsCount());
+		assertEquals(1, decoded.getHeader().getArCount());
+		assertEquals(12, findOpt(decoded).getOptions().length);
+	}
+	
+	@Test
+	public void hinfoCharacterStrings(){
+		//character-strings with dots, they must not be written as names
+		NetworkData rdata = new NetworkData(64);
+		DNSStringUtil.writeCharacterString("x86.64", rdata);
+		DNSStringUtil.writeCharacterString("Linux 6.1", rdata);
+		byte[] expected = rdata.write();
+		
+		NetworkData data = new NetworkData(128);
+		data.writeByte(0);
+		data.writeChar(ResourceRecordType.HINFO.getValue());
+		data.writeChar(ResourceRecordClass.IN.getValue());
+		data.writeInt(3600);
+		data.writeChar(expected.length);
+		data.writeBytes(expected);
+		byte[] wire = data.write();
+		
+		ResourceRecord rr = ResourceRecordFactory.getInstance().createResourceRecord(ResourceRecordType.HINFO.getValue());
+		rr.decode(new NetworkData(wire));
+		assertTrue(rr.toString().contains("cpu=x86.64, os=Linux 6.1"));
+		NetworkData buffer = new NetworkData(128);
+		rr.encode(buffer);
+		assertArrayEquals(wire, buffer.write());
+	}
+	
+	private byte[] reencode(Message msg){
+		NetworkData buffer = new NetworkData(512);
+		msg.encode(buffer);
+		return buffer.write();
+	}
+	
+	private OPTResourceRecord findOpt(Message msg){
+		for (RRset rrset : msg.getAdditional()) {
+			for (ResourceRecord rr : rrset.getAll()) {
+				if(rr instanceof OPTResourceRecord){
+					return (OPTResourceRecord)rr;
+				}
+			}
+		}
+		throw new AssertionError("no OPT");
+	}
+	
+	/**
+	 * OPT with an 8 byte client cookie, DO off and version 1
+	 */
+	private OPTResourceRecord opt(){
+		OPTResourceRecord opt = new OPTResourceRecord();
+		opt.setUdpPlayloadSize((char)1232);
+		opt.setDnssecDo(false);
+		opt.setVersion((short)1);
+		opt.setOptions(new byte[]{0, 10, 0, 8, 1, 2, 3, 4, 5, 6, 7, 8});
+		return opt;
+	}
+				
+}
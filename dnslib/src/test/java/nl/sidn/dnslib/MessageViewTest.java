@@ -0,0 +1,126 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.MessageView;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.DnsName;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.MessageType;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+import nl.sidn.dnslib.types.SectionType;
+
+import org.junit.Test;
+
+public class MessageViewTest {
+
+	private byte[] referral = TestMessages.referral(TestMessages.REFERRAL_ID, true);
+
+	@Test
+	public void readHeaderAndQuestion(){
+		MessageView view = new MessageView(new NetworkData(referral));
+
+		assertEquals(1234, view.getId());
+		assertTrue(view.isResponse());
+		assertTrue(view.isRd());
+		assertFalse(view.isTc());
+		assertEquals(0, view.getOpcode());
+		assertEquals(0, view.getRcode());
+		assertEquals(1, view.getQdCount());
+		assertEquals(0, view.getAnCount());
+		assertEquals(4, view.getNsCount());
+		assertEquals(4, view.getArCount());
+
+		assertEquals(ResourceRecordType.A.getValue(), view.getQtype());
+		assertEquals(ResourceRecordClass.IN.getValue(), view.getQclass());
+		assertTrue(view.questionNameEquals(DnsName.fromString("WWW.example.nl.")));
+		assertFalse(view.questionNameEquals(DnsName.fromString("example.nl.")));
+		assertEquals(DnsName.fromString("www.example.nl."), view.getQuestionName());
+	}
+
+	@Test
+	public void visitRecords(){
+		MessageView view = new MessageView(new NetworkData(referral));
+		DnsName zone = DnsName.fromString("example.nl.");
+
+		int ns = 0;
+		int glue = 0;
+		while(view.nextRecord()){
+			assertEquals(3600, view.getTtl());
+			assertEquals(ResourceRecordClass.IN.getValue(), view.getRecordClass());
+			if(view.getSection() == SectionType.AUTHORITY){
+				assertEquals(ResourceRecordType.NS.getValue(), view.getRecordType());
+				//owner is compressed
+				assertTrue(view.ownerNameEquals(zone));
+				ns++;
+			}else{
+				assertEquals(SectionType.ADDITIONAL, view.getSection());
+				assertEquals(ResourceRecordType.A.getValue(), view.getRecordType());
+				assertEquals(4, view.getRdlength());
+				assertEquals(glue + 1, referral[view.getRdataOffset() + 3]);
+				assertEquals(DnsName.fromString("ns" + (glue + 1) + ".example.nl."), view.getOwnerName());
+				glue++;
+			}
+		}
+		assertEquals(4, ns);
+		assertEquals(4, glue);
+		assertFalse(view.nextRecord());
+
+		view.rewind();
+		assertTrue(view.nextRecord());
+		assertEquals(SectionType.AUTHORITY, view.getSection());
+	}
+
+	@Test
+	public void materializeMessage(){
+		MessageView view = new MessageView(new NetworkData(referral));
+		Message msg = view.toMessage();
+		Message decoded = new Message(new NetworkData(referral));
+
+		assertEquals(decoded.toZone(), msg.toZone());
+		assertEquals(4, msg.getAdditional().size());
+	}
+
+	@Test
+	public void reuseView(){
+		MessageView view = new MessageView(new NetworkData(referral));
+		assertTrue(view.questionNameEquals(DnsName.fromString("www.example.nl.")));
+		assertTrue(view.nextRecord());
+
+		//nothing of the previous packet may be left after wrap
+		view.wrap(new NetworkData(query("mail.example.nl.", ResourceRecordType.AAAA)));
+		assertEquals(4321, view.getId());
+		assertFalse(view.isResponse());
+		assertEquals(ResourceRecordType.AAAA.getValue(), view.getQtype());
+		assertTrue(view.questionNameEquals(DnsName.fromString("mail.example.nl.")));
+		assertFalse(view.nextRecord());
+
+		view.wrap(new NetworkData(referral));
+		assertEquals(ResourceRecordType.A.getValue(), view.getQtype());
+		assertTrue(view.questionNameEquals(DnsName.fromString("www.example.nl.")));
+		assertTrue(view.nextRecord());
+		assertEquals(SectionType.AUTHORITY, view.getSection());
+	}
+
+	private byte[] query(String qName, ResourceRecordType qType){
+		NetworkData buffer = new NetworkData(512);
+		Header header = new Header();
+		header.setId((char)4321);
+		header.setQr(MessageType.QUERY);
+		header.setOpCode(OpcodeType.STANDARD);
+		header.setQdCount((char)1);
+		header.encode(buffer);
+
+		DNSStringUtil.writeName(qName, buffer);
+		buffer.writeChar(qType.getValue());
+		buffer.writeChar(ResourceRecordClass.IN.getValue());
+		return buffer.write();
+	}
+
+}
@@ -0,0 +1,46 @@
+package nl.sidn.dnslib;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+/**
+ * Size and encode throughput of the referral with and without name compression.
+ * This is not a unit test, run it by hand:
+ * <pre>
+ * java -cp &lt;test and runtime classpath&gt; nl.sidn.dnslib.NameCompressionBenchmark [encodes] [rounds]
+ * </pre>
+ * Defaults are 200000 encodes and 5 rounds, the best round is printed.
+ */
+public class NameCompressionBenchmark {
+
+	public static void main(String[] args) {
+		int encodes = args.length > 0? Integer.parseInt(args[0]): 200000;
+		int rounds = args.length > 1? Integer.parseInt(args[1]): 5;
+
+		Message referral = TestMessages.referralMessage();
+		NetworkData buffer = new NetworkData(512);
+
+		System.out.println("compression\tbytes\tencodes/s");
+		for (boolean compression : new boolean[]{true, false}) {
+			buffer.setNameCompression(compression);
+			//warm up
+			encode(referral, buffer, encodes);
+
+			long best = Long.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				long start = System.nanoTime();
+				encode(referral, buffer, encodes);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			System.out.println(compression + "\t" + buffer.getWriterIndex() + "\t" + (encodes * 1000000000L) / best);
+		}
+	}
+
+	private static void encode(Message msg, NetworkData buffer, int encodes) {
+		for (int i = 0; i < encodes; i++) {
+			buffer.resetWriter();
+			msg.encode(buffer);
+		}
+	}
+
+}
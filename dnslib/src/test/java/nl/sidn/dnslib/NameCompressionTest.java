@@ -0,0 +1,53 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.records.NSResourceRecord;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+import org.junit.Test;
+
+public class NameCompressionTest {
+	
+	private Message referral = TestMessages.referralMessage();
+	
+	@Test
+	public void compressReferral(){
+		NetworkData compressed = new NetworkData(512);
+		referral.encode(compressed);
+		
+		NetworkData uncompressed = new NetworkData(512);
+		uncompressed.setNameCompression(false);
+		referral.encode(uncompressed);
+		
+		//every name after the question is a pointer or ends in one
+		assertEquals(304, uncompressed.getWriterIndex());
+		assertEquals(168, compressed.getWriterIndex());
+		
+		//both must decode to the same message
+		Message c = new Message(new NetworkData(compressed.write()));
+		Message u = new Message(new NetworkData(uncompressed.write()));
+		assertEquals(TestMessages.zone(u.getAuthority()), TestMessages.zone(c.getAuthority()));
+		assertEquals(TestMessages.zone(u.getAdditional()), TestMessages.zone(c.getAdditional()));
+		assertEquals(4, c.getAuthority().get(0).size());
+		assertEquals("ns1.example.nl.", ((NSResourceRecord)c.getAuthority().get(0).getAll().get(0)).getNameserver());
+	}
+	
+	@Test
+	public void reuseBuffer(){
+		NetworkData fresh = new NetworkData(512);
+		referral.encode(fresh);
+		byte[] expected = fresh.write();
+		
+		//the names of the previous message must not be used as pointer targets
+		NetworkData buffer = new NetworkData(512);
+		for (int i = 0; i < 3; i++) {
+			buffer.resetWriter();
+			referral.encode(buffer);
+			assertArrayEquals(expected, buffer.write());
+		}
+	}
+
+}
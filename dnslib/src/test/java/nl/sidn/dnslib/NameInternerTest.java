@@ -0,0 +1,47 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.*;
+import nl.sidn.dnslib.message.util.DnsName;
+import nl.sidn.dnslib.message.util.NameInterner;
+
+import org.junit.Test;
+
+public class NameInternerTest {
+
+	@Test
+	public void shareEqualNames(){
+		NameInterner<DnsName> interner = new NameInterner<DnsName>(100);
+
+		DnsName first = interner.intern(DnsName.fromString("ns1.sidn.nl."));
+		DnsName second = interner.intern(DnsName.fromString("ns1.sidn.nl."));
+
+		assertSame(first, second);
+		assertEquals(1, interner.getHits());
+		assertEquals(1, interner.getMisses());
+		assertEquals(0.5, interner.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void keepCase(){
+		NameInterner<DnsName> interner = new NameInterner<DnsName>(100);
+
+		DnsName lower = interner.intern(DnsName.fromString("ns1.sidn.nl."));
+		DnsName upper = interner.intern(DnsName.fromString("NS1.sidn.nl."));
+
+		assertNotSame(lower, upper);
+		assertEquals("NS1.sidn.nl.", upper.toString());
+		assertSame(upper, interner.intern(DnsName.fromString("NS1.sidn.nl.")));
+		assertEquals(2, interner.size());
+	}
+
+	@Test
+	public void bounded(){
+		NameInterner<String> interner = new NameInterner<String>(64, 4);
+
+		for (int i = 0; i < 10000; i++) {
+			interner.intern("host" + i + ".nl.");
+		}
+		assertTrue(interner.size() <= 64);
+	}
+
+}
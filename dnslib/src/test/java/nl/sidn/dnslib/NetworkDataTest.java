@@ -0,0 +1,86 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.records.AResourceRecord;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+import org.junit.Test;
+
+public class NetworkDataTest {
+	
+	//response for www.sidn.nl A with a compressed owner name in the answer
+	private static final byte[] RESPONSE = new byte[]{
+		0x12, 0x34, (byte)0x81, (byte)0x80, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00,
+		0x03, 'w', 'w', 'w', 0x04, 's', 'i', 'd', 'n', 0x02, 'n', 'l', 0x00, 0x00, 0x01, 0x00, 0x01,
+		(byte)0xc0, 0x0c, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00, 0x0e, 0x10, 0x00, 0x04, (byte)192, 0, 2, 1
+	};
+
+	@Test
+	public void decodeFromDirectBufferSlice(){
+		//put the packet in the middle of a direct buffer, like a pooled receive buffer
+		ByteBuffer direct = ByteBuffer.allocateDirect(RESPONSE.length + 20);
+		direct.position(10);
+		direct.put(RESPONSE);
+		direct.limit(10 + RESPONSE.length);
+		direct.position(10);
+		
+		Message msg = new Message(new NetworkData(direct));
+		
+		//the buffer of the caller is not touched
+		assertEquals(10, direct.position());
+		assertEquals(1, msg.getAnswer().size());
+		AResourceRecord a = (AResourceRecord)msg.getAnswer().get(0).getAll().get(0);
+		assertEquals("www.sidn.nl.", a.getName());
+		assertEquals("192.0.2.1", a.getAddress());
+		assertEquals(3600, a.getTtl());
+		
+		Message fromArray = new Message(new NetworkData(RESPONSE));
+		assertEquals(fromArray.toString(), msg.toString());
+	}
+
+	@Test
+	public void writeIntoSuppliedBuffer(){
+		ByteBuffer pooled = ByteBuffer.allocateDirect(512);
+		NetworkData writer = NetworkData.createWriter(pooled);
+		
+		for (int i = 0; i < 2; i++) {
+			writer.resetWriter();
+			writer.writeChar(0x1234);
+			writer.writeByte(0xff);
+			writer.writeInt(3600);
+			writer.writeBytes(new byte[]{1, 2, 3});
+			
+			ByteBuffer encoded = writer.getWriteBuffer();
+			//no growth needed, the same buffer is returned
+			assertEquals(10, encoded.remaining());
+			assertArrayEquals(new byte[]{0x12, 0x34, (byte)0xff, 0, 0, 0x0e, 0x10, 1, 2, 3}, writer.write());
+			
+			NetworkData reader = new NetworkData(encoded);
+			assertEquals(0x1234, reader.readUnsignedChar());
+			assertEquals(255, reader.readUnsignedByte());
+			assertEquals(3600, reader.readUnsignedInt());
+		}
+	}
+	
+	@Test
+	public void growSuppliedArray(){
+		byte[] small = new byte[4];
+		NetworkData writer = NetworkData.createWriter(small);
+		writer.writeInt(1);
+		assertSame(small, writer.getWriteBuffer().array());
+		
+		writer.resetWriter();
+		writer.writeBytes(RESPONSE);
+		writer.writeBytes(RESPONSE);
+		assertEquals(RESPONSE.length * 2, writer.getWriterIndex());
+		assertArrayEquals(RESPONSE, Arrays.copyOfRange(writer.write(), RESPONSE.length, RESPONSE.length * 2));
+	}
+
+}
@@ -0,0 +1,45 @@
+package nl.sidn.dnslib;
+
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+/**
+ * Decode time per rr for answer sections from 1024 up to 65535 records, the
+ * time per rr should stay about the same when the number of rrsets grows. This
+ * is not a unit test, run it by hand:
+ * <pre>
+ * java -cp &lt;test and runtime classpath&gt; nl.sidn.dnslib.RRsetGroupingBenchmark [rounds]
+ * </pre>
+ * Default is 10 rounds, the best round is printed for an answer section where
+ * every rr has its own owner and for one with 64 rrs per owner.
+ */
+public class RRsetGroupingBenchmark {
+
+	public static void main(String[] args) {
+		int rounds = args.length > 0? Integer.parseInt(args[0]): 10;
+
+		System.out.println("records\tns/record, 1 rr per owner\tns/record, 64 rrs per owner");
+		for (int records = 1024; ; records = Math.min(65535, records * 2)) {
+			long single = nanosPerRecord(TestMessages.answers(records, records), records, rounds);
+			long grouped = nanosPerRecord(TestMessages.answers(records, records / 64), records, rounds);
+			System.out.println(records + "\t" + single + "\t" + grouped);
+			if(records == 65535){
+				break;
+			}
+		}
+	}
+
+	private static long nanosPerRecord(byte[] data, int records, int rounds) {
+		//warm up
+		new Message(new NetworkData(data));
+
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < rounds; round++) {
+			long start = System.nanoTime();
+			new Message(new NetworkData(data));
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / records;
+	}
+
+}
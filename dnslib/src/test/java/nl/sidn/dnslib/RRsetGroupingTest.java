@@ -0,0 +1,44 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+import org.junit.Test;
+
+public class RRsetGroupingTest {
+	
+	@Test
+	public void groupRRsets(){
+		//2 owners with 3 A records each, owners differ in case only
+		byte[] data = TestMessages.answers(6, 2);
+		Message msg = new Message(new NetworkData(data));
+		
+		assertEquals(2, msg.getAnswer().size());
+		assertEquals(3, msg.getAnswer().get(0).size());
+		assertEquals(6, msg.getHeader().getAnCount());
+	}
+	
+	@Test
+	public void maxRRsets(){
+		//every record has its own owner
+		Message msg = new Message(new NetworkData(TestMessages.answers(65535, 65535)));
+		
+		assertEquals(65535, msg.getAnswer().size());
+		assertEquals(1, msg.getAnswer().get(65534).size());
+		assertEquals("host65534.example.nl.", msg.getAnswer().get(65534).getOwner());
+	}
+	
+	@Test
+	public void interleavedRRsets(){
+		//the rrs of an owner are spread over the whole section, 65535 = 1001 * 65 + 470
+		Message msg = new Message(new NetworkData(TestMessages.answers(65535, 1001)));
+		
+		assertEquals(1001, msg.getAnswer().size());
+		assertEquals(66, msg.getAnswer().get(0).size());
+		assertEquals(66, msg.getAnswer().get(469).size());
+		assertEquals(65, msg.getAnswer().get(470).size());
+		assertEquals(65, msg.getAnswer().get(1000).size());
+	}
+
+}
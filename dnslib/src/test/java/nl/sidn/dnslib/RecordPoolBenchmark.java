@@ -0,0 +1,60 @@
+package nl.sidn.dnslib;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import nl.sidn.dnslib.message.DecodeOptions;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.records.ResourceRecordPool;
+import nl.sidn.dnslib.message.util.NetworkData;
+
+/**
+ * Bytes allocated per decode of the referral, for a new Message per packet and
+ * for a reused Message with pooled rrs. This is not a unit test, run it by hand:
+ * <pre>
+ * java -cp &lt;test and runtime classpath&gt; nl.sidn.dnslib.RecordPoolBenchmark [decodes] [rounds]
+ * </pre>
+ * Defaults are 100000 decodes and 5 rounds, the first round is a warm up. The
+ * allocated bytes are measured with com.sun.management.ThreadMXBean, which
+ * the HotSpot and OpenJDK VMs provide.
+ */
+public class RecordPoolBenchmark {
+
+	public static void main(String[] args) {
+		int decodes = args.length > 0? Integer.parseInt(args[0]): 100000;
+		int rounds = args.length > 1? Integer.parseInt(args[1]): 5;
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(!(threads instanceof com.sun.management.ThreadMXBean)){
+			System.out.println("Allocated bytes cannot be measured on this VM");
+			return;
+		}
+		com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean)threads;
+		long thread = Thread.currentThread().getId();
+
+		byte[] referral = TestMessages.referral();
+		Message msg = new Message();
+		DecodeOptions options = new DecodeOptions().withRecordPool(ResourceRecordPool.forCurrentThread());
+
+		System.out.println("bytes allocated per decode");
+		System.out.println("round\tnew message\treused message and pooled rrs");
+		for (int round = 0; round <= rounds; round++) {
+			long start = allocation.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < decodes; i++) {
+				new Message(new NetworkData(referral));
+			}
+			long fresh = allocation.getThreadAllocatedBytes(thread) - start;
+
+			start = allocation.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < decodes; i++) {
+				msg.decode(new NetworkData(referral), options);
+			}
+			long reused = allocation.getThreadAllocatedBytes(thread) - start;
+
+			if(round > 0){
+				System.out.println(round + "\t" + fresh / decodes + "\t" + reused / decodes);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import nl.sidn.dnslib.message.DecodeOptions;
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.RRset;
+import nl.sidn.dnslib.message.records.NotImplementedResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecordFactory;
+import nl.sidn.dnslib.message.records.ResourceRecordPool;
+import nl.sidn.dnslib.message.records.TXTResourceRecord;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+
+public class RecordPoolTest {
+
+	private static final int PRIVATE_TYPE = 65290;
+
+	private byte[] referral = TestMessages.referral();
+
+	@Test
+	public void reuseMessageAndRecords(){
+		DecodeOptions options = new DecodeOptions().withRecordPool(new ResourceRecordPool());
+		Object expected = new Message(new NetworkData(referral)).toZone();
+
+		Message msg = new Message();
+		msg.decode(new NetworkData(referral), options);
+		Header header = msg.getHeader();
+		Map<Object, Object> used = new IdentityHashMap<>();
+		for (RRset rrset : msg.getAuthority()) {
+			used.put(rrset, rrset);
+			for (ResourceRecord rr : rrset.getAll()) {
+				used.put(rr, rr);
+			}
+		}
+		for (RRset rrset : msg.getAdditional()) {
+			used.put(rrset, rrset);
+			for (ResourceRecord rr : rrset.getAll()) {
+				used.put(rr, rr);
+			}
+		}
+		assertEquals(13, used.size());
+
+		//decode into the same message again
+		msg.decode(new NetworkData(referral), options);
+		assertSame(header, msg.getHeader());
+		assertEquals(expected, msg.toZone());
+		for (RRset rrset : msg.getAuthority()) {
+			assertTrue(used.containsKey(rrset));
+			for (ResourceRecord rr : rrset.getAll()) {
+				assertTrue(used.containsKey(rr));
+			}
+		}
+		assertEquals(8, options.getRecordPool().getReused());
+
+		msg.reset();
+		assertEquals(8, options.getRecordPool().size());
+		assertTrue(msg.getAuthority().isEmpty());
+	}
+
+	@Test
+	public void releasedRecordIsCleared(){
+		ResourceRecordPool pool = new ResourceRecordPool();
+
+		ResourceRecord rr = pool.acquire(ResourceRecordType.TXT.getValue());
+		rr.decode(new NetworkData(createTxt("v=spf1 -all")));
+		assertEquals("v=spf1 -all", ((TXTResourceRecord)rr).getValue());
+		pool.release(rr);
+
+		ResourceRecord reused = pool.acquire(ResourceRecordType.TXT.getValue());
+		assertSame(rr, reused);
+		reused.decode(new NetworkData(createTxt("hello")));
+		assertEquals("hello", ((TXTResourceRecord)reused).getValue());
+
+		//other types are not mixed up
+		assertTrue(pool.acquire(ResourceRecordType.NS.getValue()) != rr);
+	}
+
+	@Test
+	public void registeredPrivateType(){
+		ResourceRecordFactory.getInstance().register(PRIVATE_TYPE, new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new TXTResourceRecord();
+			}
+		});
+		ResourceRecordPool pool = new ResourceRecordPool();
+		NotImplementedResourceRecord unknown = new NotImplementedResourceRecord();
+		pool.release(unknown);
+
+		//a registered type above 255 is created by its supplier, not taken from the unknown types
+		assertTrue(pool.acquire(PRIVATE_TYPE) instanceof TXTResourceRecord);
+		assertSame(unknown, pool.acquire(PRIVATE_TYPE + 1));
+		pool.release(pool.acquire(PRIVATE_TYPE));
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void steadyState(){
+		ResourceRecordPool pool = new ResourceRecordPool();
+		DecodeOptions options = new DecodeOptions().withRecordPool(pool);
+		Message msg = new Message();
+		for (int i = 0; i < 1000; i++) {
+			msg.decode(new NetworkData(referral), options);
+		}
+
+		//only the first decode creates the 8 rrs, all later decodes reuse them
+		assertEquals(8, pool.getCreated());
+		assertEquals(999 * 8, pool.getReused());
+		assertEquals(TestMessages.zone(new Message(new NetworkData(referral)).getAdditional()), TestMessages.zone(msg.getAdditional()));
+
+		assertSame(ResourceRecordPool.forCurrentThread(), ResourceRecordPool.forCurrentThread());
+	}
+
+	private byte[] createTxt(String value){
+		NetworkData buffer = new NetworkData(128);
+		DNSStringUtil.writeName("example.nl.", buffer);
+		buffer.writeChar(ResourceRecordType.TXT.getValue());
+		buffer.writeChar(ResourceRecordClass.IN.getValue());
+		buffer.writeInt(3600);
+		buffer.writeChar(value.length() + 1);
+		DNSStringUtil.writeCharacterString(value, buffer);
+		return buffer.write();
+	}
+
+}
@@ -0,0 +1,233 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nl.sidn.dnslib.logic.LookupResult;
+import nl.sidn.dnslib.logic.LookupService;
+import nl.sidn.dnslib.logic.ResolverCache;
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.Question;
+import nl.sidn.dnslib.message.records.NSResourceRecord;
+import nl.sidn.dnslib.message.records.SOAResourceRecord;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.MessageType;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.RcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class ResolverCacheTest {
+
+	@Test
+	public void minimumTtl(){
+		FakeResolver resolver = new FakeResolver();
+		resolver.answers.put("example.nl.", answer("example.nl.", 300, 60));
+		FakeTicker ticker = new FakeTicker();
+		ResolverCache cache = new ResolverCache(resolver, 100, 3600, ticker);
+
+		LookupResult first = cache.lookup("example.nl.", ResourceRecordType.NS, ResourceRecordClass.IN, false);
+		assertEquals(2, first.getPacket().getAnswer().get(0).size());
+		//same question, the case and the trailing dot do not matter
+		assertSame(first, cache.lookup("EXAMPLE.nl", ResourceRecordType.NS, ResourceRecordClass.IN, false));
+		assertEquals(1, resolver.lookups);
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		//other type is another question
+		cache.lookup("example.nl.", ResourceRecordType.SOA, ResourceRecordClass.IN, false);
+		assertEquals(2, resolver.lookups);
+
+		//cached for the lowest ttl of the answer
+		ticker.advance(59);
+		assertSame(first, cache.lookup("example.nl.", ResourceRecordType.NS, ResourceRecordClass.IN, false));
+		ticker.advance(1);
+		assertNotSame(first, cache.lookup("example.nl.", ResourceRecordType.NS, ResourceRecordClass.IN, false));
+		assertEquals(3, resolver.lookups);
+		assertEquals(1, cache.getExpirations());
+	}
+
+	@Test
+	public void asciiCaseOnly(){
+		//in a Turkish locale "LINK".toLowerCase() is not "link"
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try{
+			FakeResolver resolver = new FakeResolver();
+			resolver.answers.put("link.example.nl.", answer("link.example.nl.", 300, 300));
+			ResolverCache cache = new ResolverCache(resolver, 100);
+
+			LookupResult first = cache.lookup("link.example.nl.", ResourceRecordType.NS, ResourceRecordClass.IN, false);
+			assertSame(first, cache.lookup("LINK.EXAMPLE.NL.", ResourceRecordType.NS, ResourceRecordClass.IN, false));
+			assertEquals(1, resolver.lookups);
+		}finally{
+			Locale.setDefault(locale);
+		}
+	}
+
+	@Test
+	public void negativeAnswers(){
+		FakeResolver resolver = new FakeResolver();
+		//SOA ttl 600 and minimum 120, the negative ttl is the lowest
+		resolver.answers.put("nx.example.nl.", negative("nx.example.nl.", RcodeType.NXDOMAIN, 600, 120));
+		resolver.answers.put("nodata.example.nl.", negative("nodata.example.nl.", RcodeType.NO_ERROR, 30, 900));
+		resolver.answers.put("fail.example.nl.", negative("fail.example.nl.", RcodeType.SERVER_FAILURE, 600, 600));
+		resolver.rcodes.put("nx.example.nl.", RcodeType.NXDOMAIN);
+		resolver.rcodes.put("fail.example.nl.", RcodeType.SERVER_FAILURE);
+		FakeTicker ticker = new FakeTicker();
+		ResolverCache cache = new ResolverCache(resolver, 100, 3600, ticker);
+
+		for (int i = 0; i < 2; i++) {
+			cache.lookup("nx.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN, true);
+			cache.lookup("nodata.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN, true);
+			cache.lookup("fail.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN, true);
+		}
+		//only the failure is sent to the resolver twice
+		assertEquals(4, resolver.lookups);
+		assertEquals(2, cache.size());
+
+		ticker.advance(30);
+		cache.lookup("nodata.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN, true);
+		cache.lookup("nx.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN, true);
+		assertEquals(5, resolver.lookups);
+		ticker.advance(90);
+		cache.lookup("nx.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN, true);
+		assertEquals(6, resolver.lookups);
+	}
+
+	@Test
+	public void maximumSize(){
+		FakeResolver resolver = new FakeResolver();
+		for (int i = 0; i < 50; i++) {
+			String name = "d" + i + ".example.nl.";
+			resolver.answers.put(name, answer(name, 3600, 3600));
+		}
+		ResolverCache cache = new ResolverCache(resolver, 10);
+		for (int i = 0; i < 50; i++) {
+			cache.lookup("d" + i + ".example.nl.", ResourceRecordType.NS, ResourceRecordClass.IN, true);
+		}
+		assertTrue(cache.size() <= 10);
+		assertTrue(cache.getEvictions() >= 40);
+		assertEquals(50, cache.getMisses());
+
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+	}
+
+	/**
+	 * Answer with 2 NS rrs
+	 */
+	private byte[] answer(String qName, long ttl1, long ttl2){
+		Message msg = message(qName, RcodeType.NO_ERROR);
+		msg.addAnswer(ns(qName, "ns1.example.nl.", ttl1));
+		msg.addAnswer(ns(qName, "ns2.example.nl.", ttl2));
+		return encode(msg);
+	}
+
+	/**
+	 * Answer without rrs in the answer section and a SOA in the authority section
+	 */
+	private byte[] negative(String qName, RcodeType rcode, long soaTtl, long minimum){
+		Message msg = message(qName, rcode);
+		msg.addAuthority(soa(qName, soaTtl, minimum));
+		return encode(msg);
+	}
+
+	private Message message(String qName, RcodeType rcode){
+		Header header = new Header();
+		header.setQr(MessageType.RESPONSE);
+		header.setOpCode(OpcodeType.STANDARD);
+		header.setRcode(rcode);
+
+		Message msg = new Message();
+		msg.addHeader(header);
+		msg.addQuestion(new Question(qName, ResourceRecordType.NS, ResourceRecordClass.IN));
+		return msg;
+	}
+
+	private byte[] encode(Message msg){
+		NetworkData buffer = new NetworkData(512);
+		msg.build().encode(buffer);
+		return buffer.write();
+	}
+
+	private NSResourceRecord ns(String owner, String nameserver, long ttl){
+		NSResourceRecord rr = new NSResourceRecord();
+		rr.setName(owner);
+		rr.setType(ResourceRecordType.NS);
+		rr.setClassz(ResourceRecordClass.IN);
+		rr.setTtl(ttl);
+		rr.setNameserver(nameserver);
+		return rr;
+	}
+
+	private SOAResourceRecord soa(String owner, long ttl, long minimum){
+		SOAResourceRecord rr = new SOAResourceRecord();
+		rr.setName(owner);
+		rr.setType(ResourceRecordType.SOA);
+		rr.setClassz(ResourceRecordClass.IN);
+		rr.setTtl(ttl);
+		rr.setmName("ns1.example.nl.");
+		rr.setrName("hostmaster.example.nl.");
+		rr.setSerial(1);
+		rr.setRefresh(3600);
+		rr.setRetry(600);
+		rr.setExpire(86400);
+		rr.setMinimum(minimum);
+		return rr;
+	}
+
+	/**
+	 * Returns the raw answer packets and the rcode, like the resolver does when
+	 * decode is false.
+	 */
+	private static class FakeResolver implements LookupService {
+
+		private Map<String, byte[]> answers = new HashMap<>();
+		private Map<String, RcodeType> rcodes = new HashMap<>();
+		private int lookups;
+
+		@Override
+		public LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+			lookups++;
+			byte[] packet = answers.get(qName);
+			LookupResult result = new LookupResult();
+			result.setOk(true);
+			result.setRcode(rcodes.containsKey(qName) ? rcodes.get(qName) : RcodeType.NO_ERROR);
+			result.setqName(qName);
+			result.setqType(qType);
+			result.setqClazz(qClazz);
+			result.setDatapacket(packet);
+			result.setDatapacketLength(packet.length);
+			result.setHaveData(true);
+			return result;
+		}
+	}
+
+	private static class FakeTicker extends Ticker {
+
+		private long nanos;
+
+		public void advance(long seconds){
+			nanos += TimeUnit.SECONDS.toNanos(seconds);
+		}
+
+		@Override
+		public long read() {
+			return nanos;
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import nl.sidn.dnslib.message.records.AResourceRecord;
+import nl.sidn.dnslib.message.records.NotImplementedResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecordFactory;
+import nl.sidn.dnslib.message.records.TXTResourceRecord;
+import nl.sidn.dnslib.message.records.dnssec.NSEC3ResourceRecord;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+
+public class ResourceRecordFactoryTest {
+	
+	//first type of the private use range (RFC 6895)
+	private static final int PRIVATE_TYPE = 65280;
+	
+	@Test
+	public void builtinTypes(){
+		ResourceRecordFactory factory = ResourceRecordFactory.getInstance();
+		assertTrue(factory.createResourceRecord(1) instanceof AResourceRecord);
+		assertTrue(factory.createResourceRecord(50) instanceof NSEC3ResourceRecord);
+		assertTrue(factory.isRegistered(ResourceRecordType.TXT.getValue()));
+		assertFalse(factory.isRegistered(10));
+		assertTrue(factory.createResourceRecord(10) instanceof NotImplementedResourceRecord);
+	}
+	
+	@Test
+	public void unknownTypeIsOpaque(){
+		NetworkData data = new NetworkData(64);
+		DNSStringUtil.writeName("example.nl.", data);
+		data.writeChar(PRIVATE_TYPE + 1);
+		data.writeChar(ResourceRecordClass.IN.getValue());
+		data.writeInt(3600);
+		data.writeChar(2);
+		data.writeBytes(new byte[]{(byte)0xab, (byte)0xcd});
+		
+		ResourceRecord rr = ResourceRecordFactory.getInstance().createResourceRecord(PRIVATE_TYPE + 1);
+		rr.decode(new NetworkData(data.write()));
+		assertEquals("example.nl.\t3600\tIN\tTYPE65281\t\\# 2 abcd", rr.toZone(0));
+	}
+	
+	@Test
+	public void registerPrivateType(){
+		ResourceRecordFactory factory = ResourceRecordFactory.getInstance();
+		factory.register(PRIVATE_TYPE, new Supplier<ResourceRecord>() {
+			@Override
+			public ResourceRecord get() {
+				return new TXTResourceRecord();
+			}
+		});
+		assertTrue(factory.isRegistered(PRIVATE_TYPE));
+		assertTrue(factory.createResourceRecord(PRIVATE_TYPE) instanceof TXTResourceRecord);
+		assertFalse(factory.isRegistered(PRIVATE_TYPE + 1));
+	}
+
+}
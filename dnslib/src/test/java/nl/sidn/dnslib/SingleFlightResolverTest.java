@@ -0,0 +1,139 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nl.sidn.dnslib.logic.LookupResult;
+import nl.sidn.dnslib.logic.LookupService;
+import nl.sidn.dnslib.logic.SingleFlightResolver;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+public class SingleFlightResolverTest {
+
+	private static final int THREADS = 8;
+
+	@Test
+	public void mergeConcurrentLookups() throws Exception {
+		BlockingResolver resolver = new BlockingResolver(null);
+		SingleFlightResolver singleFlight = new SingleFlightResolver(resolver);
+
+		List<Future<LookupResult>> results = lookupConcurrently(singleFlight, resolver);
+		LookupResult first = results.get(0).get();
+		for (Future<LookupResult> result : results) {
+			assertSame(first, result.get());
+		}
+		assertEquals(1, resolver.lookups.get());
+		assertEquals(THREADS, singleFlight.getRequests());
+		assertEquals(THREADS - 1, singleFlight.getMerged());
+		assertEquals(0, singleFlight.getInFlight());
+
+		//nothing is kept after the lookup
+		assertNotSame(first, singleFlight.lookup("example.nl.", ResourceRecordType.NS, ResourceRecordClass.IN, false));
+		assertEquals(2, resolver.lookups.get());
+	}
+
+	@Test
+	public void failedLookup() throws Exception {
+		BlockingResolver resolver = new BlockingResolver(new IllegalStateException("closed"));
+		SingleFlightResolver singleFlight = new SingleFlightResolver(resolver);
+
+		for (Future<LookupResult> result : lookupConcurrently(singleFlight, resolver)) {
+			try{
+				result.get();
+				fail("all waiting threads get the exception");
+			}catch(ExecutionException e){
+				assertTrue(e.getCause() instanceof IllegalStateException);
+			}
+		}
+		assertEquals(1, resolver.lookups.get());
+		assertEquals(0, singleFlight.getInFlight());
+	}
+
+	/**
+	 * Start the lookups of the same question and let the resolver return when
+	 * all threads are waiting for the first lookup.
+	 */
+	private List<Future<LookupResult>> lookupConcurrently(final SingleFlightResolver singleFlight, BlockingResolver resolver) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try{
+			List<Future<LookupResult>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				//the name differs in case, it is the same question
+				final String name = i % 2 == 0 ? "example.nl." : "EXAMPLE.NL";
+				results.add(executor.submit(new Callable<LookupResult>() {
+					@Override
+					public LookupResult call() {
+						return singleFlight.lookup(name, ResourceRecordType.NS, ResourceRecordClass.IN, false);
+					}
+				}));
+			}
+			long end = System.currentTimeMillis() + 10000;
+			while(singleFlight.getMerged() < THREADS - 1 && System.currentTimeMillis() < end){
+				Thread.sleep(1);
+			}
+			assertEquals(1, singleFlight.getInFlight());
+			resolver.release.countDown();
+			for (Future<LookupResult> result : results) {
+				try{
+					result.get(10, TimeUnit.SECONDS);
+				}catch(ExecutionException e){
+					//checked by the caller
+				}
+			}
+			return results;
+		}finally{
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Blocks the lookups until it is released.
+	 */
+	private static class BlockingResolver implements LookupService {
+
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final AtomicInteger lookups = new AtomicInteger();
+		private final RuntimeException failure;
+
+		public BlockingResolver(RuntimeException failure) {
+			this.failure = failure;
+		}
+
+		@Override
+		public LookupResult lookup(String qName, ResourceRecordType qType, ResourceRecordClass qClazz, boolean decode) {
+			lookups.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if(failure != null){
+				throw failure;
+			}
+			LookupResult result = new LookupResult();
+			result.setOk(true);
+			result.setqName(qName);
+			result.setqType(qType);
+			result.setqClazz(qClazz);
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.Question;
+import nl.sidn.dnslib.message.TcpMessageDecoder;
+import nl.sidn.dnslib.message.TcpMessageDecoder.MessageHandler;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.message.util.TcpFramer;
+import nl.sidn.dnslib.message.util.TcpFramer.FrameHandler;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+public class TcpFramerTest {
+
+	@Test
+	public void splitChunks(){
+		List<byte[]> messages = createMessages(50);
+		byte[] stream = createStream(messages);
+
+		//chunk sizes from 1 byte up to the complete stream
+		for (int chunkSize : new int[]{1, 2, 3, 7, 100, stream.length}) {
+			FrameCollector frames = new FrameCollector();
+			TcpFramer framer = new TcpFramer(frames);
+			for (int offset = 0; offset < stream.length; offset += chunkSize) {
+				framer.feed(stream, offset, Math.min(chunkSize, stream.length - offset));
+			}
+			assertFalse(framer.isPartial());
+			assertEquals(messages.size(), frames.frames.size());
+			for (int i = 0; i < messages.size(); i++) {
+				assertTrue(Arrays.equals(messages.get(i), frames.frames.get(i)));
+			}
+		}
+
+		//random chunk sizes
+		Random random = new Random(1);
+		FrameCollector frames = new FrameCollector();
+		TcpFramer framer = new TcpFramer(frames);
+		int offset = 0;
+		while(offset < stream.length){
+			int length = Math.min(random.nextInt(80) + 1, stream.length - offset);
+			framer.feed(ByteBuffer.wrap(stream, offset, length));
+			offset = offset + length;
+		}
+		assertEquals(messages.size(), frames.frames.size());
+		assertTrue(framer.getBufferSize() <= 512);
+	}
+
+	@Test
+	public void decodeMessages() throws IOException {
+		List<byte[]> messages = createMessages(10);
+		final List<Message> decoded = new ArrayList<>();
+		TcpMessageDecoder decoder = new TcpMessageDecoder(new MessageHandler() {
+			@Override
+			public void onMessage(Message message) {
+				decoded.add(message);
+			}
+		});
+
+		decoder.read(new ByteArrayInputStream(createStream(messages)));
+		assertEquals(10, decoded.size());
+		assertEquals(7, decoded.get(7).getHeader().getId());
+		assertEquals("host7.example.nl.", decoded.get(7).getQuestions().get(0).getqName());
+	}
+
+	@Test
+	public void invalidStream() throws IOException {
+		byte[] stream = createStream(createMessages(2));
+
+		try{
+			new TcpFramer(new FrameCollector()).read(new ByteArrayInputStream(Arrays.copyOf(stream, stream.length - 1)));
+			fail("stream ended in the middle of a message");
+		}catch(EOFException e){
+			//expected
+		}
+
+		try{
+			new TcpFramer(new FrameCollector(), 16).feed(stream, 0, stream.length);
+			fail("message larger than max frame size");
+		}catch(DnsDecodeException e){
+			//expected
+		}
+	}
+
+	private List<byte[]> createMessages(int count){
+		List<byte[]> messages = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Header header = new Header();
+			header.setId((char)i);
+			header.setOpCode(OpcodeType.STANDARD);
+			Message msg = new Message();
+			msg.addHeader(header);
+			msg.addQuestion(new Question("host" + i + ".example.nl.", ResourceRecordType.A, ResourceRecordClass.IN));
+			NetworkData buffer = new NetworkData(512);
+			msg.build().encode(buffer);
+			messages.add(buffer.write());
+		}
+		return messages;
+	}
+
+	private byte[] createStream(List<byte[]> messages){
+		NetworkData buffer = new NetworkData(4096);
+		for (byte[] message : messages) {
+			buffer.writeChar(message.length);
+			buffer.writeBytes(message);
+		}
+		return buffer.write();
+	}
+
+	private static class FrameCollector implements FrameHandler {
+
+		private List<byte[]> frames = new ArrayList<>();
+
+		@Override
+		public void onFrame(ByteBuffer frame) {
+			byte[] data = new byte[frame.remaining()];
+			frame.get(data);
+			frames.add(data);
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package nl.sidn.dnslib;
+
+import java.util.List;
+
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.Question;
+import nl.sidn.dnslib.message.RRset;
+import nl.sidn.dnslib.message.records.AResourceRecord;
+import nl.sidn.dnslib.message.records.NSResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.util.DNSStringUtil;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.MessageType;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.RcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+/**
+ * Messages and rrs shared by the tests. The referral is a typical answer of a
+ * TLD server for www.example.nl: 4 NS records in the authority section and
+ * glue for each nameserver in the additional section.
+ */
+final class TestMessages {
+
+	public static final int REFERRAL_ID = 1234;
+
+	private TestMessages(){
+	}
+
+	/**
+	 * @return the referral in wire format, written without the encoder
+	 */
+	public static byte[] referral(){
+		return referral(REFERRAL_ID, false);
+	}
+
+	/**
+	 * @param id id of the message
+	 * @param rd value of the RD flag
+	 * @return the referral in wire format, written without the encoder
+	 */
+	public static byte[] referral(int id, boolean rd){
+		NetworkData buffer = new NetworkData(512);
+		Header header = new Header();
+		header.setId((char)id);
+		header.setQr(MessageType.RESPONSE);
+		header.setOpCode(OpcodeType.STANDARD);
+		header.setRcode(RcodeType.NO_ERROR);
+		header.setRd(rd);
+		header.setQdCount((char)1);
+		header.setNsCount((char)4);
+		header.setArCount((char)4);
+		header.encode(buffer);
+
+		DNSStringUtil.writeName("www.example.nl.", buffer);
+		buffer.writeChar(ResourceRecordType.A.getValue());
+		buffer.writeChar(ResourceRecordClass.IN.getValue());
+
+		for (int i = 1; i <= 4; i++) {
+			DNSStringUtil.writeName("example.nl.", buffer);
+			buffer.writeChar(ResourceRecordType.NS.getValue());
+			buffer.writeChar(ResourceRecordClass.IN.getValue());
+			buffer.writeInt(3600);
+			int rdLength = buffer.getWriterIndex();
+			buffer.writeChar(0);
+			DNSStringUtil.writeName("ns" + i + ".example.nl.", buffer);
+			buffer.writeChar(rdLength, buffer.getWriterIndex() - rdLength - 2);
+		}
+		for (int i = 1; i <= 4; i++) {
+			DNSStringUtil.writeName("ns" + i + ".example.nl.", buffer);
+			buffer.writeChar(ResourceRecordType.A.getValue());
+			buffer.writeChar(ResourceRecordClass.IN.getValue());
+			buffer.writeInt(3600);
+			buffer.writeChar(4);
+			buffer.writeBytes(new byte[]{(byte)192, 0, 2, (byte)i});
+		}
+		return buffer.write();
+	}
+
+	/**
+	 * @return the referral built from rr objects, to test the encoder
+	 */
+	public static Message referralMessage(){
+		Header header = new Header();
+		header.setId((char)REFERRAL_ID);
+		header.setQr(MessageType.RESPONSE);
+		header.setOpCode(OpcodeType.STANDARD);
+		header.setRcode(RcodeType.NO_ERROR);
+
+		Message msg = new Message();
+		msg.addHeader(header);
+		msg.addQuestion(new Question("www.example.nl.", ResourceRecordType.A, ResourceRecordClass.IN));
+		for (int i = 1; i <= 4; i++) {
+			msg.addAuthority(ns("example.nl.", "ns" + i + ".example.nl."));
+			msg.addAdditional(glue(i));
+		}
+		return msg.build();
+	}
+
+	/**
+	 * @return the A record of nameserver i of the referral
+	 */
+	public static ResourceRecord glue(int i){
+		return a("ns" + i + ".example.nl.", new byte[]{(byte)192, 0, 2, (byte)i});
+	}
+
+	/**
+	 * Create an AXFR like response with A records in the answer section.
+	 * @param records number of records
+	 * @param owners number of different owner names
+	 */
+	public static byte[] answers(int records, int owners){
+		NetworkData buffer = new NetworkData(records * 32);
+		Header header = new Header();
+		header.setId((char)1234);
+		header.setQr(MessageType.RESPONSE);
+		header.setOpCode(OpcodeType.STANDARD);
+		header.setRcode(RcodeType.NO_ERROR);
+		header.setAnCount((char)records);
+		header.encode(buffer);
+
+		for (int i = 0; i < records; i++) {
+			int owner = i % owners;
+			String name = (i % 2 == 0? "host": "HOST") + owner + ".example.nl.";
+			DNSStringUtil.writeName(name, buffer);
+			buffer.writeChar(ResourceRecordType.A.getValue());
+			buffer.writeChar(ResourceRecordClass.IN.getValue());
+			buffer.writeInt(3600);
+			buffer.writeChar(4);
+			buffer.writeBytes(new byte[]{10, (byte)(i >> 16), (byte)(i >> 8), (byte)i});
+		}
+		return buffer.write();
+	}
+
+	/**
+	 * @return the rrsets in zone file format, to compare sections
+	 */
+	public static String zone(List<RRset> rrsets){
+		StringBuilder b = new StringBuilder();
+		for (RRset rrset : rrsets) {
+			b.append(rrset.toZone(0));
+		}
+		return b.toString();
+	}
+
+	public static ResourceRecord ns(String owner, String nameserver){
+		NSResourceRecord rr = new NSResourceRecord();
+		rr.setName(owner);
+		rr.setType(ResourceRecordType.NS);
+		rr.setClassz(ResourceRecordClass.IN);
+		rr.setTtl(3600);
+		rr.setNameserver(nameserver);
+		return rr;
+	}
+
+	/**
+	 * The A record is decoded because the setters do not set the address bytes.
+	 */
+	public static ResourceRecord a(String owner, byte[] address){
+		NetworkData data = new NetworkData(64);
+		DNSStringUtil.writeName(owner, data);
+		data.writeChar(ResourceRecordType.A.getValue());
+		data.writeChar(ResourceRecordClass.IN.getValue());
+		data.writeInt(3600);
+		data.writeChar(address.length);
+		data.writeBytes(address);
+
+		AResourceRecord rr = new AResourceRecord();
+		rr.decode(new NetworkData(data.write()));
+		return rr;
+	}
+
+}
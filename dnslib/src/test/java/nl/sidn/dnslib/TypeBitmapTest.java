@@ -0,0 +1,160 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.ResourceRecordFactory;
+import nl.sidn.dnslib.message.records.dnssec.NSEC3ResourceRecord;
+import nl.sidn.dnslib.message.records.dnssec.NSECResourceRecord;
+import nl.sidn.dnslib.message.records.dnssec.TypeBitmap;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+public class TypeBitmapTest {
+
+	/**
+	 * Example from RFC 4034 4.3: A MX RRSIG NSEC TYPE1234
+	 */
+	private static final String RFC_BITMAP = "0006400100000003" + "041b000000000000000000000000000000000000000000000000000020";
+
+	@Test
+	public void decode() throws Exception {
+		byte[] wire = Hex.decodeHex(RFC_BITMAP.toCharArray());
+		TypeBitmap bitmap = new TypeBitmap();
+		bitmap.decode(new NetworkData(wire), wire.length);
+
+		assertArrayEquals(new int[]{1, 15, 46, 47, 1234}, bitmap.toArray());
+		assertTrue(bitmap.contains(ResourceRecordType.A));
+		assertTrue(bitmap.contains(ResourceRecordType.MX));
+		assertTrue(bitmap.contains(1234));
+		assertFalse(bitmap.contains(ResourceRecordType.NS));
+		assertFalse(bitmap.contains(1235));
+		assertFalse(bitmap.contains(65535));
+		assertEquals("A MX RRSIG NSEC TYPE1234", bitmap.toString());
+
+		NetworkData buffer = new NetworkData(64);
+		bitmap.encode(buffer);
+		assertArrayEquals(wire, buffer.write());
+		assertEquals(wire.length, bitmap.encodedLength());
+	}
+
+	@Test
+	public void iterate(){
+		int[] types = new int[]{1, 63, 64, 255, 256, 511, 4096, 65535};
+		TypeBitmap bitmap = new TypeBitmap(types);
+		assertEquals(types.length, bitmap.size());
+		assertArrayEquals(types, bitmap.toArray());
+		assertEquals(64, bitmap.next(64));
+		assertEquals(255, bitmap.next(65));
+		assertEquals(4096, bitmap.next(512));
+		assertEquals(-1, bitmap.next(65536));
+
+		bitmap.remove(64);
+		assertFalse(bitmap.contains(64));
+		assertEquals(255, bitmap.next(64));
+
+		//encode and decode with windows 0, 1, 16 and 255
+		NetworkData buffer = new NetworkData(256);
+		bitmap.encode(buffer);
+		byte[] wire = buffer.write();
+		TypeBitmap decoded = new TypeBitmap();
+		decoded.decode(new NetworkData(wire), wire.length);
+		assertEquals(bitmap, decoded);
+
+		decoded.clear();
+		assertTrue(decoded.isEmpty());
+		assertEquals(0, decoded.encodedLength());
+	}
+
+	@Test
+	public void invalid(){
+		//window length larger than 32
+		byte[] wire = new byte[]{0, 33, 1};
+		try{
+			new TypeBitmap().decode(new NetworkData(wire), wire.length);
+			fail("invalid window length");
+		}catch(DnsDecodeException e){
+			//expected
+		}
+	}
+
+	@Test
+	public void records() throws Exception {
+		byte[] bitmap = Hex.decodeHex(RFC_BITMAP.toCharArray());
+
+		NetworkData data = new NetworkData(256);
+		data.writeBytes(new byte[]{4, 'h', 'o', 's', 't', 7, 'e', 'x', 'a', 'm', 'p', 'l', 'e', 0});
+		data.writeBytes(bitmap);
+		NSECResourceRecord nsec = (NSECResourceRecord)decode(ResourceRecordType.NSEC, data.write());
+		assertTrue(nsec.hasType(ResourceRecordType.RRSIG));
+		assertFalse(nsec.hasType(ResourceRecordType.DS));
+		assertEquals(5, nsec.getTypes().size());
+		assertEquals("host.example.", nsec.getNextDomainName());
+		assertArrayEquals(data.write(), rdata(nsec));
+
+		//sha1, opt-out, 10 iterations, 2 byte salt, 20 byte hash
+		data = new NetworkData(256);
+		data.writeBytes(new byte[]{1, 1, 0, 10, 2, (byte)0xab, (byte)0xcd, 20});
+		data.writeBytes(new byte[20]);
+		data.writeBytes(bitmap);
+		NSEC3ResourceRecord nsec3 = (NSEC3ResourceRecord)decode(ResourceRecordType.NSEC3, data.write());
+		assertTrue(nsec3.hasType(ResourceRecordType.MX));
+		assertTrue(nsec3.getOptout());
+		assertArrayEquals(data.write(), rdata(nsec3));
+
+		//hash algorithm without a DigestType is kept as is
+		data = new NetworkData(256);
+		data.writeBytes(new byte[]{5, 0, 0, 0, 0, 1, 0});
+		NSEC3ResourceRecord unknown = (NSEC3ResourceRecord)decode(ResourceRecordType.NSEC3, data.write());
+		assertEquals(null, unknown.getHashAlgorithm());
+		assertArrayEquals(data.write(), rdata(unknown));
+		assertTrue(unknown.toZone(255).contains("\t5 0 0 - "));
+	}
+
+	@Test
+	public void rootNextDomainName() throws Exception {
+		//zw. NSEC . NS RRSIG NSEC
+		NetworkData data = new NetworkData(64);
+		data.writeByte(0);
+		data.writeBytes(Hex.decodeHex("0006200000000003".toCharArray()));
+		NSECResourceRecord nsec = (NSECResourceRecord)decode(ResourceRecordType.NSEC, data.write());
+		assertEquals(".", nsec.getNextDomainName());
+		assertEquals("NS RRSIG NSEC", nsec.getTypeBitmap().toString());
+		assertArrayEquals(data.write(), rdata(nsec));
+	}
+
+	private ResourceRecord decode(ResourceRecordType type, byte[] rdata){
+		NetworkData data = new NetworkData(512);
+		data.writeByte(0);
+		data.writeChar(type.getValue());
+		data.writeChar(1);
+		data.writeInt(3600);
+		data.writeChar(rdata.length);
+		data.writeBytes(rdata);
+		ResourceRecord rr = ResourceRecordFactory.getInstance().createResourceRecord(type.getValue());
+		rr.decode(new NetworkData(data.write()));
+		return rr;
+	}
+
+	/**
+	 * @return rdata of the encoded rr
+	 */
+	private byte[] rdata(ResourceRecord rr){
+		NetworkData buffer = new NetworkData(512);
+		rr.encode(buffer);
+		byte[] wire = buffer.write();
+		//root owner name, type, class, ttl and rdlength
+		byte[] rdata = new byte[wire.length - 11];
+		System.arraycopy(wire, 11, rdata, 0, rdata.length);
+		return rdata;
+	}
+
+}
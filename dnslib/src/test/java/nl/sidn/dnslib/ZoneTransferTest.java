@@ -0,0 +1,209 @@
+package nl.sidn.dnslib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.sidn.dnslib.exception.DnsDecodeException;
+import nl.sidn.dnslib.logic.ZoneTransferClient;
+import nl.sidn.dnslib.logic.ZoneTransferClient.RecordHandler;
+import nl.sidn.dnslib.message.Header;
+import nl.sidn.dnslib.message.Message;
+import nl.sidn.dnslib.message.Question;
+import nl.sidn.dnslib.message.records.ResourceRecord;
+import nl.sidn.dnslib.message.records.SOAResourceRecord;
+import nl.sidn.dnslib.message.util.NetworkData;
+import nl.sidn.dnslib.types.MessageType;
+import nl.sidn.dnslib.types.OpcodeType;
+import nl.sidn.dnslib.types.RcodeType;
+import nl.sidn.dnslib.types.ResourceRecordClass;
+import nl.sidn.dnslib.types.ResourceRecordType;
+
+import org.junit.Test;
+
+public class ZoneTransferTest {
+
+	private static final String ZONE = "example.nl.";
+
+	@Test
+	public void axfr() throws Exception {
+		List<ResourceRecord> zone = new ArrayList<>();
+		zone.add(soa(2015010101));
+		for (int i = 0; i < 20000; i++) {
+			zone.add(TestMessages.ns("d" + i + "." + ZONE, "ns.d" + i + "." + ZONE));
+		}
+		zone.add(soa(2015010101));
+		//the client must stop at the closing SOA
+		zone.add(TestMessages.ns("garbage." + ZONE, "ns.garbage." + ZONE));
+
+		TransferServer server = new TransferServer(zone, 500);
+		RecordCounter counter = new RecordCounter();
+		long records = new ZoneTransferClient(server.getAddress()).withTimeout(5000).axfr(ZONE, counter);
+		server.join();
+
+		assertEquals(ResourceRecordType.AXFR, server.query.getQuestions().get(0).getqType());
+		assertEquals(20002, records);
+		assertEquals(20002, counter.count);
+		assertEquals(2, counter.soa);
+		assertEquals("d19999." + ZONE, counter.last.getName());
+	}
+
+	@Test
+	public void ixfr() throws Exception {
+		List<ResourceRecord> diff = new ArrayList<>();
+		diff.add(soa(3));
+		//version 1 to 2
+		diff.add(soa(1));
+		diff.add(TestMessages.ns("a." + ZONE, "ns1.a." + ZONE));
+		diff.add(soa(2));
+		diff.add(TestMessages.ns("a." + ZONE, "ns2.a." + ZONE));
+		//version 2 to 3
+		diff.add(soa(2));
+		diff.add(soa(3));
+		diff.add(TestMessages.ns("b." + ZONE, "ns.b." + ZONE));
+		diff.add(soa(3));
+
+		TransferServer server = new TransferServer(diff, 2);
+		RecordCounter counter = new RecordCounter();
+		long records = new ZoneTransferClient(server.getAddress()).withTimeout(5000).ixfr(ZONE, 1, counter);
+		server.join();
+
+		assertEquals(ResourceRecordType.IXFR, server.query.getQuestions().get(0).getqType());
+		SOAResourceRecord clientSoa = (SOAResourceRecord)server.query.getAuthority().get(0).getAll().get(0);
+		assertEquals(1, clientSoa.getSerial());
+		assertEquals(9, records);
+		assertEquals(6, counter.soa);
+
+		//client is up to date, only the current SOA is returned
+		List<ResourceRecord> upToDate = new ArrayList<>();
+		upToDate.add(soa(3));
+		server = new TransferServer(upToDate, 1);
+		records = new ZoneTransferClient(server.getAddress()).withTimeout(5000).ixfr(ZONE, 3, new RecordCounter());
+		server.join();
+		assertEquals(1, records);
+	}
+
+	@Test
+	public void refused() throws Exception {
+		TransferServer server = new TransferServer(new ArrayList<ResourceRecord>(), 1);
+		server.rcode = RcodeType.REFUSED;
+		try{
+			new ZoneTransferClient(server.getAddress()).withTimeout(5000).axfr(ZONE, new RecordCounter());
+			fail("transfer was refused");
+		}catch(DnsDecodeException e){
+			assertTrue(e.getMessage().contains("REFUSED"));
+		}
+		server.join();
+	}
+
+	private SOAResourceRecord soa(long serial){
+		SOAResourceRecord rr = new SOAResourceRecord();
+		rr.setName(ZONE);
+		rr.setType(ResourceRecordType.SOA);
+		rr.setClassz(ResourceRecordClass.IN);
+		rr.setTtl(3600);
+		rr.setmName("ns." + ZONE);
+		rr.setrName("hostmaster." + ZONE);
+		rr.setSerial(serial);
+		return rr;
+	}
+
+	private static class RecordCounter implements RecordHandler {
+
+		private int count;
+		private int soa;
+		private ResourceRecord last;
+
+		@Override
+		public void onRecord(ResourceRecord rr) {
+			count++;
+			if(rr.getType() == ResourceRecordType.SOA){
+				soa++;
+			}else{
+				last = rr;
+			}
+		}
+	}
+
+	/**
+	 * Stand-in for a primary server, accepts one connection and sends the
+	 * records in messages of at most recordsPerMessage records.
+	 */
+	private static class TransferServer extends Thread {
+
+		private final ServerSocket serverSocket;
+		private final List<ResourceRecord> records;
+		private final int recordsPerMessage;
+		private RcodeType rcode = RcodeType.NO_ERROR;
+		private Message query;
+
+		public TransferServer(List<ResourceRecord> records, int recordsPerMessage) throws IOException {
+			this.records = records;
+			this.recordsPerMessage = recordsPerMessage;
+			serverSocket = new ServerSocket(0);
+			setDaemon(true);
+			start();
+		}
+
+		public InetSocketAddress getAddress(){
+			return new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort());
+		}
+
+		@Override
+		public void run() {
+			try(ServerSocket listener = serverSocket; Socket socket = listener.accept()){
+				DataInputStream in = new DataInputStream(socket.getInputStream());
+				byte[] data = new byte[in.readUnsignedShort()];
+				in.readFully(data);
+				query = new Message(new NetworkData(data));
+
+				OutputStream out = socket.getOutputStream();
+				if(rcode != RcodeType.NO_ERROR){
+					out.write(createMessage(new ArrayList<ResourceRecord>()));
+				}
+				for (int i = 0; i < records.size(); i += recordsPerMessage) {
+					out.write(createMessage(records.subList(i, Math.min(records.size(), i + recordsPerMessage))));
+				}
+				out.flush();
+			}catch(IOException e){
+				throw new RuntimeException(e);
+			}
+		}
+
+		private byte[] createMessage(List<ResourceRecord> answer){
+			NetworkData buffer = new NetworkData(4096);
+			Header header = new Header();
+			header.setId(query.getHeader().getId());
+			header.setQr(MessageType.RESPONSE);
+			header.setOpCode(OpcodeType.STANDARD);
+			header.setRcode(rcode);
+			header.setAa(true);
+			header.setQdCount((char)1);
+			header.setAnCount((char)answer.size());
+			header.encode(buffer);
+
+			Question question = query.getQuestions().get(0);
+			question.encode(buffer);
+			//records are written in transfer order, not grouped in rrsets
+			for (ResourceRecord rr : answer) {
+				rr.encode(buffer);
+			}
+
+			byte[] message = buffer.write();
+			NetworkData frame = new NetworkData(message.length + 2);
+			frame.writeChar(message.length);
+			frame.writeBytes(message);
+			return frame.write();
+		}
+	}
+
+}